@@ -5,14 +5,18 @@ import com.minecraftbangladesh.bmsproxycore.commands.*;
 import com.minecraftbangladesh.bmsproxycore.listeners.*;
 import com.minecraftbangladesh.bmsproxycore.messaging.MessagingManager;
 import com.minecraftbangladesh.bmsproxycore.chatcontrol.ChatControlManager;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.ChatPipeline;
 import com.minecraftbangladesh.bmsproxycore.redis.RedisManager;
 import com.minecraftbangladesh.bmsproxycore.redis.CrossProxyStaffChatManager;
 import com.minecraftbangladesh.bmsproxycore.redis.CrossProxyMessagingManager;
 import com.minecraftbangladesh.bmsproxycore.utils.ConfigManager;
+import com.minecraftbangladesh.bmsproxycore.utils.CooldownService;
 import com.minecraftbangladesh.bmsproxycore.discord.DiscordBotManager;
 import com.minecraftbangladesh.bmsproxycore.utils.DiscordWebhook;
+import com.minecraftbangladesh.bmsproxycore.utils.PermissionCache;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.proxy.ProxyInitializeEvent;
+import com.velocitypowered.api.event.proxy.ProxyShutdownEvent;
 import com.velocitypowered.api.plugin.Plugin;
 import com.velocitypowered.api.plugin.annotation.DataDirectory;
 import com.velocitypowered.api.proxy.Player;
@@ -37,10 +41,13 @@ public class BMSProxyCore {
     private final Logger logger;
     private final Path dataDirectory;
     private ConfigManager configManager;
+    private PermissionCache permissionCache;
+    private CooldownService cooldownService;
     private DiscordWebhook discordWebhook;
     private DiscordBotManager discordBotManager;
     private MessagingManager messagingManager;
     private ChatControlManager chatControlManager;
+    private ChatPipeline chatPipeline;
     private RedisManager redisManager;
     private CrossProxyStaffChatManager crossProxyStaffChatManager;
     private CrossProxyMessagingManager crossProxyMessagingManager;
@@ -66,6 +73,19 @@ public class BMSProxyCore {
         configManager = new ConfigManager(dataDirectory);
         configManager.loadConfig();
 
+        // Permission snapshots are shared by every module
+        permissionCache = new PermissionCache(this);
+        server.getEventManager().register(this, new PermissionCacheListener(this));
+
+        // Cooldowns and rate limits of every module, swept as they expire
+        cooldownService = new CooldownService(this);
+        cooldownService.start();
+
+        // Public chat runs through one pipeline for staff chat and chat control alike,
+        // registered once since Velocity can't unregister listeners on module reload
+        chatPipeline = new ChatPipeline(this);
+        server.getEventManager().register(this, new ChatListener(this));
+
         // Always register the main admin command
         server.getCommandManager().register(
             server.getCommandManager().metaBuilder("bmsproxycore")
@@ -84,6 +104,18 @@ public class BMSProxyCore {
         logger.info("BMSProxyCore has been enabled!");
     }
 
+    @Subscribe
+    public void onProxyShutdown(ProxyShutdownEvent event) {
+        // Write out pending filter rule edits and flood guard logs, and let queued
+        // private messages drain, before the proxy stops
+        if (chatControlManager != null) {
+            chatControlManager.shutdown();
+        }
+        if (messagingManager != null) {
+            messagingManager.shutdown();
+        }
+    }
+
     private void initializeStaffChatModule() {
         if (!configManager.isStaffChatEnabled()) {
             logger.info("Staff Chat module is disabled in configuration.");
@@ -138,7 +170,6 @@ public class BMSProxyCore {
         staffChatRegisteredCommands.add("sctoggle");
 
         // Register StaffChat listeners
-        server.getEventManager().register(this, new ChatListener(this));
         server.getEventManager().register(this, new DisconnectListener(this));
 
         // Register staff activity listeners
@@ -213,6 +244,15 @@ public class BMSProxyCore {
             new IgnoreCommand(this)
         );
         privateMessagesRegisteredCommands.add("ignore");
+        server.getCommandManager().register(
+            server.getCommandManager().metaBuilder("msghistory")
+                .aliases("pmhistory")
+                .plugin(this)
+                .build(),
+            new MessageHistoryCommand(this)
+        );
+        privateMessagesRegisteredCommands.add("msghistory");
+        privateMessagesRegisteredCommands.add("pmhistory");
 
         // Register Messaging listeners
         server.getEventManager().register(this, new MessagingDisconnectListener(this));
@@ -406,6 +446,10 @@ public class BMSProxyCore {
         return logger;
     }
 
+    public Path getDataDirectory() {
+        return dataDirectory;
+    }
+
     public ConfigManager getConfigManager() {
         return configManager;
     }
@@ -438,6 +482,18 @@ public class BMSProxyCore {
         return chatControlManager;
     }
 
+    public ChatPipeline getChatPipeline() {
+        return chatPipeline;
+    }
+
+    public PermissionCache getPermissionCache() {
+        return permissionCache;
+    }
+
+    public CooldownService getCooldownService() {
+        return cooldownService;
+    }
+
     public boolean isAnnouncementModuleEnabled() {
         return configManager.isAnnouncementEnabled();
     }
@@ -552,7 +608,9 @@ public class BMSProxyCore {
             } else if (isChatControlEnabled) {
                 // Module was already enabled, reload filter rules
                 if (chatControlManager != null) {
-                    chatControlManager.loadFilterRules();
+                    chatControlManager.reloadFilterRules();
+                    chatControlManager.getHeuristics().reload();
+                    chatControlManager.applyCooldownMode();
                 }
                 result.changes.add("Chat Control configuration reloaded");
             }
@@ -610,6 +668,11 @@ public class BMSProxyCore {
             crossProxyMessagingManager = null;
         }
 
+        // Stop the private message pipeline
+        if (messagingManager != null) {
+            messagingManager.shutdown();
+        }
+
         // Note: Velocity doesn't provide a way to unregister commands or listeners
         // So we set the references to null and rely on the module enabled checks
         messagingManager = null;
@@ -625,6 +688,11 @@ public class BMSProxyCore {
         // Unregister commands registered by this module
         unregisterCommands(chatControlRegisteredCommands);
 
+        // Stop shadow rule evaluation
+        if (chatControlManager != null) {
+            chatControlManager.shutdown();
+        }
+
         // Note: Velocity doesn't provide a way to unregister commands or listeners
         // So we set the references to null and rely on the module enabled checks
         chatControlManager = null;
@@ -0,0 +1,161 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.utils.MessageUtils;
+import com.velocitypowered.api.event.EventTask;
+import com.velocitypowered.api.event.player.PlayerChatEvent;
+import com.velocitypowered.api.proxy.Player;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs the chat control checks off Velocity's event thread. Messages are evaluated on a
+ * fixed set of single-threaded lanes, with every player pinned to one lane so their
+ * messages are decided in order, and the chat event is resumed once the verdict is in.
+ * A verdict that misses the deadline, or checks that fail, are replaced by the configured
+ * fail-open (allow) or fail-closed (deny) decision. A dropped verdict's effects never run,
+ * so a message allowed by fail-open is recorded separately to still count towards the
+ * player's limits.
+ */
+public class AsyncChatEvaluator {
+
+    private final BMSProxyCore plugin;
+    private final ChatControlMetrics metrics;
+    private final ExecutorService[] lanes;
+
+    public AsyncChatEvaluator(BMSProxyCore plugin, ChatControlMetrics metrics) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+
+        // Without lanes every message is checked inline on the event thread
+        int laneCount = plugin.getConfigManager().isChatAsyncEnabled()
+                ? Math.max(1, plugin.getConfigManager().getChatAsyncThreads())
+                : 0;
+        this.lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String threadName = "BMSProxyCore-ChatControl-" + i;
+            lanes[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Evaluate a chat message
+     * @param event The chat event
+     * @param checks Runs the checks and returns the verdict
+     * @param recordUnchecked Records the message against the player's limits if it is let
+     *                        through without a verdict
+     * @return The task Velocity waits for before passing the event on, or null if the
+     *         message was decided inline
+     */
+    public EventTask evaluate(PlayerChatEvent event, Supplier<ChatVerdict> checks, Runnable recordUnchecked) {
+        if (lanes.length == 0) {
+            long start = System.nanoTime();
+            ChatVerdict verdict = run(event, checks);
+            if (verdict != null) {
+                verdict.applyTo(event);
+            } else {
+                fail(event, "failed", recordUnchecked);
+            }
+            metrics.record(ChatControlMetrics.Check.TOTAL, System.nanoTime() - start);
+            return null;
+        }
+
+        long queued = System.nanoTime();
+        CompletableFuture<ChatVerdict> decision = new CompletableFuture<>();
+        Runnable task = () -> {
+            if (decision.isDone()) {
+                return; // Already decided by the deadline while waiting for the lane
+            }
+            metrics.record(ChatControlMetrics.Check.QUEUE, System.nanoTime() - queued);
+            ChatVerdict verdict = run(event, checks);
+            if (verdict != null) {
+                decision.complete(verdict);
+            } else {
+                decision.completeExceptionally(new IllegalStateException("Chat checks failed"));
+            }
+        };
+
+        ExecutorService lane = lanes[Math.floorMod(event.getPlayer().getUniqueId().hashCode(), lanes.length)];
+        try {
+            lane.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; check inline rather than letting the message through unchecked
+            task.run();
+        }
+
+        long deadline = Math.max(1, plugin.getConfigManager().getChatAsyncDeadlineMillis());
+        return EventTask.resumeWhenComplete(decision
+                .completeOnTimeout(null, deadline, TimeUnit.MILLISECONDS)
+                .handle((verdict, error) -> {
+                    if (verdict != null) {
+                        verdict.applyTo(event);
+                    } else {
+                        if (error == null) {
+                            metrics.recordTimeout();
+                        }
+                        fail(event, error == null ? "missed the " + deadline + "ms deadline" : "failed", recordUnchecked);
+                    }
+                    metrics.record(ChatControlMetrics.Check.TOTAL, System.nanoTime() - queued);
+                    return null;
+                }));
+    }
+
+    /**
+     * Run the checks
+     * @return The verdict, or null if a check threw
+     */
+    private ChatVerdict run(PlayerChatEvent event, Supplier<ChatVerdict> checks) {
+        try {
+            return checks.get();
+        } catch (Exception e) {
+            plugin.getLogger().error("[ChatControl] Error checking chat message from " + event.getPlayer().getUsername(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Apply the fail-open or fail-closed decision
+     */
+    @SuppressWarnings("deprecation") // setResult is deprecated but still the only way to modify chat in Velocity
+    private void fail(PlayerChatEvent event, String reason, Runnable recordUnchecked) {
+        Player player = event.getPlayer();
+        boolean closed = "closed".equalsIgnoreCase(plugin.getConfigManager().getChatAsyncFailMode());
+        if (closed) {
+            event.setResult(PlayerChatEvent.ChatResult.denied());
+            player.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getChatAsyncFailClosedMessage()));
+        } else {
+            // Lanes back up during floods, so a message let through unchecked must still count
+            recordUnchecked.run();
+        }
+        if (plugin.getConfigManager().isChatControlDebugEnabled()) {
+            plugin.getLogger().info("[ChatControl-Debug] Checks for " + player.getUsername() + " " + reason
+                    + ", message " + (closed ? "denied" : "allowed"));
+        }
+    }
+
+    /**
+     * Check whether messages are checked off the event thread
+     * @return true if the evaluator has worker lanes
+     */
+    public boolean isAsync() {
+        return lanes.length > 0;
+    }
+
+    /**
+     * Stop accepting new messages and let queued ones drain
+     */
+    public void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.scheduler.ScheduledTask;
+import net.kyori.adventure.text.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clears chat with one message per player instead of one per blank line. The blank lines
+ * are a single multi-line component built once per configured line count, and players are
+ * sent it in batches one tick apart, so clearing a full proxy doesn't flood the network
+ * threads in a single tick.
+ */
+public class ChatClearer {
+
+    // One Minecraft tick
+    private static final long BATCH_INTERVAL_MILLIS = 50;
+
+    private final BMSProxyCore plugin;
+    private volatile BlankLines blankLines = new BlankLines(0, Component.empty());
+
+    public ChatClearer(BMSProxyCore plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Clear chat for a group of players and then show them a message
+     * @param players The players to clear chat for
+     * @param completion Shown below the cleared chat, or null for nothing
+     */
+    public void clear(Collection<Player> players, Component completion) {
+        Component blank = getBlankLines();
+        Component message = completion == null ? blank : blank.append(Component.newline()).append(completion);
+        List<Player> targets = new ArrayList<>(players);
+        if (targets.isEmpty()) {
+            return;
+        }
+
+        int batchSize = Math.max(1, plugin.getConfigManager().getClearChatBatchSize());
+        if (targets.size() <= batchSize) {
+            send(targets, message);
+            return;
+        }
+        new Batches(targets, message, batchSize).start();
+    }
+
+    /**
+     * Get the blank lines component for the configured line count, building it if the count changed
+     */
+    private Component getBlankLines() {
+        int lines = Math.max(1, plugin.getConfigManager().getClearChatEmptyMessages());
+        BlankLines cached = blankLines;
+        if (cached.lines != lines) {
+            // A space on every line, since some clients collapse fully empty lines
+            cached = new BlankLines(lines, Component.text(String.join("\n", Collections.nCopies(lines, " "))));
+            blankLines = cached;
+        }
+        return cached.component;
+    }
+
+    private static void send(List<Player> players, Component message) {
+        for (Player player : players) {
+            if (player.isActive()) {
+                player.sendMessage(message);
+            }
+        }
+    }
+
+    /**
+     * Sends the message to one batch of players per tick until every player has it
+     */
+    private final class Batches implements Runnable {
+        private final List<Player> players;
+        private final Component message;
+        private final int batchSize;
+        private int next = 0;
+        private ScheduledTask task;
+
+        Batches(List<Player> players, Component message, int batchSize) {
+            this.players = players;
+            this.message = message;
+            this.batchSize = batchSize;
+        }
+
+        synchronized void start() {
+            task = plugin.getServer().getScheduler().buildTask(plugin, this)
+                    .repeat(BATCH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)
+                    .schedule();
+        }
+
+        @Override
+        public synchronized void run() {
+            int end = Math.min(players.size(), next + batchSize);
+            send(players.subList(next, end), message);
+            next = end;
+            if (next >= players.size() && task != null) {
+                task.cancel();
+            }
+        }
+    }
+
+    private static final class BlankLines {
+        final int lines;
+        final Component component;
+
+        BlankLines(int lines, Component component) {
+            this.lines = lines;
+            this.component = component;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol;
+
+import com.velocitypowered.api.proxy.Player;
+
+/**
+ * Everything the chat pipeline stages share about one message. The module state and the
+ * player's staff chat toggle are read once on the event thread when the message arrives,
+ * so every stage sees the same answers even if a module is toggled while it runs.
+ */
+public final class ChatContext {
+
+    private final Player player;
+    private final ChatControlManager chatControl;
+    private final boolean staffChatToggled;
+    private final ChatVerdict verdict;
+    private boolean staffRouted;
+
+    public ChatContext(Player player, String message, ChatControlManager chatControl, boolean staffChatToggled) {
+        this.player = player;
+        this.chatControl = chatControl;
+        this.staffChatToggled = staffChatToggled;
+        this.verdict = new ChatVerdict(message);
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Get the chat control manager the message is checked against
+     * @return The manager, or null if the Chat Control module was disabled when the message arrived
+     */
+    public ChatControlManager getChatControl() {
+        return chatControl;
+    }
+
+    /**
+     * Check whether the Chat Control checks apply to the message
+     */
+    public boolean isChatControlled() {
+        return chatControl != null;
+    }
+
+    /**
+     * Check whether the player had staff chat toggled when the message arrived
+     */
+    public boolean isStaffChatToggled() {
+        return staffChatToggled;
+    }
+
+    /**
+     * Send the message to staff chat instead of public chat. The remaining checks are
+     * skipped; the render stage formats and delivers it.
+     */
+    public void routeToStaff() {
+        staffRouted = true;
+    }
+
+    public boolean isStaffRouted() {
+        return staffRouted;
+    }
+
+    /**
+     * Check whether a stage has decided where the message goes, so the remaining checks
+     * can be skipped
+     * @return true if the message is denied or routed to staff chat
+     */
+    public boolean isDecided() {
+        return staffRouted || verdict.isDenied();
+    }
+
+    public ChatVerdict getVerdict() {
+        return verdict;
+    }
+
+    /**
+     * Get the message as the stages so far have left it
+     */
+    public String getMessage() {
+        return verdict.getMessage();
+    }
+}
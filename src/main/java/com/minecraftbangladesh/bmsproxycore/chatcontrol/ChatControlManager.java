@@ -1,10 +1,20 @@
 package com.minecraftbangladesh.bmsproxycore.chatcontrol;
 
 import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.filter.FilterEngine;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.filter.RuleMonitor;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.filter.TextNormalizer;
+import com.minecraftbangladesh.bmsproxycore.redis.CrossProxyChatControlSync;
+import com.minecraftbangladesh.bmsproxycore.redis.CrossProxyFilterRuleSync;
+import com.minecraftbangladesh.bmsproxycore.redis.CrossProxyRateLimiter;
+import com.minecraftbangladesh.bmsproxycore.redis.RedisManager;
+import com.minecraftbangladesh.bmsproxycore.utils.MessageUtils;
 import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.scheduler.ScheduledTask;
+import net.kyori.adventure.text.Component;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -13,94 +23,380 @@ import java.util.regex.PatternSyntaxException;
  */
 public class ChatControlManager {
 
+    // How often the shared chat lock is re-read, in case an event was missed
+    private static final long CLUSTER_RESYNC_SECONDS = 15;
+
     private final BMSProxyCore plugin;
     
-    // Chat filter data
-    private final List<Pattern> filterPatterns = new ArrayList<>();
-    private final List<String> filterRules = new ArrayList<>();
+    // Chat filter data: immutable rule lists replaced on every edit while holding ruleLock.
+    // ruleVersion counts edits and engineVersion is the edit the published engine was compiled from.
+    private final Object ruleLock = new Object();
+    // Serialises saved rule edits with reloads of the rules file, so a reload can't publish
+    // a rule list that misses an edit made while it was reading
+    private final Object ruleEditLock = new Object();
+    private volatile List<Pattern> filterPatterns = Collections.emptyList();
+    private volatile List<String> filterRules = Collections.emptyList();
+    private volatile FilterProfiles filterProfiles = FilterProfiles.none();
+    private long ruleVersion = 0;
+    private long engineVersion = 0;
+
+    // Compiled engine over all filter rules and profiles, swapped atomically after each rebuild.
+    // The chat path only reads this field, so it never locks.
+    private volatile FilterEngine filterEngine = FilterEngine.compile(Collections.emptyList(), Collections.emptyList());
+
+    // Time budget, profiling and quarantine of regex rules, kept across engine rebuilds
+    private final RuleMonitor ruleMonitor;
+
+    // Latency of the checks run on every chat message
+    private final ChatControlMetrics metrics = new ChatControlMetrics();
+
+    // Runs the checks off the event thread
+    private final AsyncChatEvaluator asyncEvaluator;
+
+    // Rules evaluated on sampled chat without being enforced
+    private final ShadowRuleManager shadowRules;
+
+    // Repeated message detection
+    private final SpamDetector spamDetector;
+
+    // Caps, repeated character, homoglyph and link checks
+    private final HeuristicScanner heuristics;
     
-    // Chat cooldown data
-    private final Map<UUID, Long> lastMessageTime = new ConcurrentHashMap<>();
+    // Chat rate limiting (cooldown, token bucket or sliding window)
+    private final RateLimiter rateLimiter;
+
+    // Stretches cooldowns while chat is busy
+    private final SlowmodeController slowmode;
+
+    // Locks chat automatically during join and message floods
+    private final FloodGuard floodGuard;
+
+    // Rate limits shared with other proxies, created once Redis is available
+    private volatile CrossProxyRateLimiter crossProxyRateLimiter;
 
-    // Chat lock state
+    // Saves rule edits to filter-rules.yml and applies edits made to the file
+    private final FilterRuleStore ruleStore;
+
+    // Sends clear chat in batches
+    private final ChatClearer chatClearer;
+
+    // Lock and clear chat shared with other proxies, created once Redis is available
+    private volatile CrossProxyChatControlSync crossProxySync;
+
+    // Filter rule set shared with other proxies, created once Redis is available
+    private volatile CrossProxyFilterRuleSync filterRuleSync;
+    private final ScheduledTask clusterSyncTask;
+
+    // Chat lock state. chatLockEpoch and chatLockVersion identify the shared state last applied,
+    // guarded by this.
     private volatile boolean chatLocked = false;
+    private String chatLockEpoch = null;
+    private long chatLockVersion = 0;
 
     public ChatControlManager(BMSProxyCore plugin) {
         this.plugin = plugin;
+        this.ruleMonitor = new RuleMonitor(plugin.getConfigManager().getChatFilterRuleTimeBudget(), this::onRuleQuarantined);
+        this.shadowRules = new ShadowRuleManager(plugin, this::createTextNormalizer);
+        this.spamDetector = new SpamDetector(plugin);
+        this.heuristics = new HeuristicScanner(plugin);
+        this.asyncEvaluator = new AsyncChatEvaluator(plugin, metrics);
+        this.rateLimiter = new RateLimiter(plugin.getCooldownService().getTable("chat"));
+        applyCooldownMode();
+        this.slowmode = new SlowmodeController(plugin);
+        this.slowmode.start();
+        this.floodGuard = new FloodGuard(plugin, this);
+        this.floodGuard.start();
+        this.chatClearer = new ChatClearer(plugin);
+        this.clusterSyncTask = plugin.getServer().getScheduler().buildTask(plugin, this::syncClusterState)
+                .repeat(CLUSTER_RESYNC_SECONDS, TimeUnit.SECONDS)
+                .schedule();
         loadFilterRules();
+        this.ruleStore = new FilterRuleStore(plugin, this::reloadFilterRulesFile);
+        this.ruleStore.start();
     }
 
     /**
      * Load filter rules from configuration
      */
     public void loadFilterRules() {
-        filterPatterns.clear();
-        filterRules.clear();
-        
-        List<String> rules = plugin.getConfigManager().getChatFilterRules();
-        for (String rule : rules) {
-            addFilterRule(rule, false); // Don't save to config when loading
+        List<String> rules = new ArrayList<>();
+        List<Pattern> patterns = new ArrayList<>();
+        for (String rule : plugin.getConfigManager().getChatFilterRules()) {
+            if (rules.contains(rule)) {
+                continue;
+            }
+            Pattern pattern = compileFilterRule(rule);
+            if (pattern != null) {
+                rules.add(rule);
+                patterns.add(pattern);
+            }
         }
+        FilterProfiles profiles = FilterProfiles.load(plugin, this::compileFilterRule);
+
+        synchronized (ruleLock) {
+            filterProfiles = profiles;
+            publishFilterRules(rules, patterns);
+        }
+        // Reloading resets all counters and gives quarantined rules another chance
+        ruleMonitor.reset();
+        metrics.reset();
+        // Compile on the calling thread so the rules are active as soon as loading returns
+        rebuildFilterEngine();
+        // Pick up normalization and engine mode changes for the shadow rules too
+        shadowRules.recompile();
         
         if (plugin.getConfigManager().isChatControlDebugEnabled()) {
-            plugin.getLogger().info("[ChatControl-Debug] Loaded " + filterRules.size() + " filter rules");
+            plugin.getLogger().info("[ChatControl-Debug] Loaded " + rules.size() + " filter rules and "
+                    + (profiles.getNames().size() - 1) + " filter profiles");
         }
     }
 
     /**
-     * Check if a message should be filtered
+     * Reload the filter rules and profiles from the configuration after it was edited,
+     * and share the rules that changed with the other proxies
+     */
+    public void reloadFilterRules() {
+        synchronized (ruleEditLock) {
+            List<String> before = filterRules;
+            loadFilterRules();
+            publishFilterRuleEdits(before);
+        }
+    }
+
+    /**
+     * Check if a message should be filtered by the global rules
      * @param message The message to check
      * @return true if the message should be filtered, false otherwise
      */
     public boolean shouldFilterMessage(String message) {
+        return shouldFilterMessage(message, null);
+    }
+
+    /**
+     * Check if a message should be filtered by the global rules and the rules of the
+     * profile selected by the player's server
+     * @param message The message to check
+     * @param player The player sending the message, or null for the global rules only
+     * @return true if the message should be filtered, false otherwise
+     */
+    public boolean shouldFilterMessage(String message, Player player) {
         if (!plugin.getConfigManager().isChatFilterEnabled()) {
             return false;
         }
         
-        for (Pattern pattern : filterPatterns) {
-            if (pattern.matcher(message).find()) {
-                if (plugin.getConfigManager().isChatControlDebugEnabled()) {
-                    plugin.getLogger().info("[ChatControl-Debug] Message filtered by pattern: " + pattern.pattern());
-                }
-                return true;
+        FilterEngine engine = filterEngine;
+        int match = engine.findFirstMatch(message, getFilterProfileMask(engine, player));
+        if (match >= 0) {
+            if (plugin.getConfigManager().isChatControlDebugEnabled()) {
+                plugin.getLogger().info("[ChatControl-Debug] Message filtered by pattern: " + engine.getPattern(match).pattern());
             }
+            return true;
         }
         return false;
     }
 
     /**
-     * Check if a player can send a message (cooldown check)
-     * @param player The player to check
-     * @return true if the player can send a message, false if on cooldown
+     * Get the filter profile selected by the server a player is on
+     * @param player The player, or null
+     * @return The profile name
      */
-    public boolean canSendMessage(Player player) {
-        if (!plugin.getConfigManager().isChatCooldownEnabled()) {
-            return true;
+    public String getFilterProfile(Player player) {
+        String server = player == null ? null : player.getCurrentServer()
+                .map(connection -> connection.getServerInfo().getName())
+                .orElse(null);
+        return filterProfiles.getProfile(server);
+    }
+
+    /**
+     * Get the loaded filter profiles
+     */
+    public FilterProfiles getFilterProfiles() {
+        return filterProfiles;
+    }
+
+    /**
+     * Look a profile up by name rather than by bit, so an engine and profiles loaded
+     * at different times never disagree about which bit is which profile. Without a
+     * player only the global rules apply, not even the default profile's.
+     */
+    private long getFilterProfileMask(FilterEngine engine, Player player) {
+        return player == null ? FilterEngine.GLOBAL_ONLY : engine.getProfileMask(getFilterProfile(player));
+    }
+
+    /**
+     * Replace the rule lists with a new immutable snapshot. Must be called while holding ruleLock.
+     * @param rules The new rule sources
+     * @param patterns The new compiled patterns, parallel to rules
+     */
+    private void publishFilterRules(List<String> rules, List<Pattern> patterns) {
+        filterRules = Collections.unmodifiableList(rules);
+        filterPatterns = Collections.unmodifiableList(patterns);
+        ruleVersion++;
+    }
+
+    /**
+     * Rebuild the filter engine off the calling thread after a rule edit
+     */
+    private void scheduleFilterEngineRebuild() {
+        plugin.getServer().getScheduler().buildTask(plugin, this::rebuildFilterEngine).schedule();
+    }
+
+    /**
+     * Rebuild the compiled filter engine from the current rules. Does nothing if the
+     * published engine is already up to date, and never replaces a newer engine with
+     * an older one when rebuilds overlap.
+     */
+    private void rebuildFilterEngine() {
+        List<String> rules;
+        List<Pattern> patterns;
+        FilterProfiles profiles;
+        long version;
+        synchronized (ruleLock) {
+            if (engineVersion >= ruleVersion) {
+                return;
+            }
+            rules = filterRules;
+            patterns = filterPatterns;
+            profiles = filterProfiles;
+            version = ruleVersion;
         }
-        
-        // Check bypass permission
-        String bypassPermission = plugin.getConfigManager().getChatCooldownBypassPermission();
-        if (!bypassPermission.isEmpty() && player.hasPermission(bypassPermission)) {
-            return true;
+
+        boolean useDfa = "dfa".equalsIgnoreCase(plugin.getConfigManager().getChatFilterEngineMode());
+        ruleMonitor.setBudgetMillis(plugin.getConfigManager().getChatFilterRuleTimeBudget());
+        FilterEngine engine = profiles.compile(rules, patterns, useDfa, createTextNormalizer(), ruleMonitor);
+
+        synchronized (ruleLock) {
+            if (engineVersion >= version) {
+                return; // A newer rebuild already published
+            }
+            engineVersion = version;
+            filterEngine = engine;
         }
-        
-        UUID playerId = player.getUniqueId();
-        long currentTime = System.currentTimeMillis();
-        
-        Long lastTime = lastMessageTime.get(playerId);
-        if (lastTime == null) {
-            return true;
+
+        if (useDfa && !engine.getSlowPathRules().isEmpty()) {
+            plugin.getLogger().info("[ChatControl] " + engine.getSlowPathRules().size()
+                    + " filter rule(s) use regex features the DFA engine doesn't support and run on java.util.regex");
         }
-        
-        int cooldownDuration = getCooldownDuration(player);
-        if (cooldownDuration <= 0) {
-            return true;
+
+        if (plugin.getConfigManager().isChatControlDebugEnabled()) {
+            plugin.getLogger().info("[ChatControl-Debug] Compiled filter engine: " + engine.getDfaRuleCount() + " DFA rules, "
+                    + engine.getPrefilteredRuleCount() + "/" + engine.getRuleCount() + " rules prefiltered, "
+                    + engine.getAutomatonSize() + " automaton states");
+            for (Map.Entry<Integer, String> entry : engine.getSlowPathRules().entrySet()) {
+                plugin.getLogger().info("[ChatControl-Debug] Slow-path rule " + engine.getRule(entry.getKey()) + " (" + entry.getValue() + ")");
+            }
         }
-        
-        long timeDiff = currentTime - lastTime;
-        long cooldownMillis = cooldownDuration * 1000L;
-        
-        return timeDiff >= cooldownMillis;
+    }
+
+    /**
+     * Create the message normalizer from configuration
+     * @return The normalizer, or null if normalization is disabled
+     */
+    private TextNormalizer createTextNormalizer() {
+        if (!plugin.getConfigManager().isChatFilterNormalizationEnabled()) {
+            return null;
+        }
+        return new TextNormalizer(
+                plugin.getConfigManager().isChatFilterNormalizationLeetspeakEnabled(),
+                plugin.getConfigManager().isChatFilterNormalizationConfusablesEnabled(),
+                plugin.getConfigManager().isChatFilterNormalizationStripInvisibleEnabled(),
+                plugin.getConfigManager().getChatFilterNormalizationMaxRepeat());
+    }
+
+    /**
+     * Log a rule that was quarantined for exceeding the time budget
+     * @param rule The quarantined rule
+     * @param elapsedNanos How long the rule ran on one message
+     */
+    private void onRuleQuarantined(String rule, long elapsedNanos) {
+        plugin.getLogger().warn("[ChatControl] Quarantined filter rule " + rule + " after it ran for "
+                + (elapsedNanos / 1_000_000L) + "ms on a single message (budget: "
+                + plugin.getConfigManager().getChatFilterRuleTimeBudget() + "ms). Fix the rule and use /chatfilter reload to re-enable it.");
+    }
+
+    /**
+     * Get the rule monitor holding per-rule timings and quarantine state
+     * @return The rule monitor
+     */
+    public RuleMonitor getRuleMonitor() {
+        return ruleMonitor;
+    }
+
+    /**
+     * Get the shadow-mode filter rules
+     * @return The shadow rule manager
+     */
+    public ShadowRuleManager getShadowRules() {
+        return shadowRules;
+    }
+
+    /**
+     * Get the repeated message detector
+     * @return The spam detector
+     */
+    public SpamDetector getSpamDetector() {
+        return spamDetector;
+    }
+
+    /**
+     * Get the heuristic scanner
+     * @return The heuristic scanner
+     */
+    public HeuristicScanner getHeuristics() {
+        return heuristics;
+    }
+
+    /**
+     * Get the evaluator running the chat checks
+     * @return The async evaluator
+     */
+    public AsyncChatEvaluator getAsyncEvaluator() {
+        return asyncEvaluator;
+    }
+
+    /**
+     * Stop background work owned by the chat control manager
+     */
+    public void shutdown() {
+        ruleStore.shutdown();
+        shadowRules.shutdown();
+        slowmode.shutdown();
+        floodGuard.shutdown();
+        asyncEvaluator.shutdown();
+        clusterSyncTask.cancel();
+        CrossProxyChatControlSync sync = crossProxySync;
+        if (sync != null) {
+            sync.shutdown();
+        }
+        CrossProxyFilterRuleSync ruleSync = filterRuleSync;
+        if (ruleSync != null) {
+            ruleSync.shutdown();
+        }
+    }
+
+    /**
+     * Get the latency metrics of the chat control checks
+     * @return The metrics
+     */
+    public ChatControlMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the compiled filter engine
+     * @return The current filter engine
+     */
+    public FilterEngine getFilterEngine() {
+        return filterEngine;
+    }
+
+    /**
+     * Check if a player can send a message (cooldown check)
+     * @param player The player to check
+     * @return true if the player can send a message, false if on cooldown
+     */
+    public boolean canSendMessage(Player player) {
+        return getRemainingCooldownMillis(player) <= 0;
     }
 
     /**
@@ -109,50 +405,242 @@ public class ChatControlManager {
      * @return Remaining cooldown time in seconds, 0 if no cooldown
      */
     public long getRemainingCooldown(Player player) {
+        long remainingMillis = getRemainingCooldownMillis(player);
+        if (remainingMillis <= 0) {
+            return 0;
+        }
+        return (remainingMillis - 1) / 1000L + 1;
+    }
+
+    /**
+     * Get how long a player has to wait before the rate limiter allows their next message
+     * @param player The player to check
+     * @return Remaining time in milliseconds, 0 if the player can send a message
+     */
+    private long getRemainingCooldownMillis(Player player) {
         if (!plugin.getConfigManager().isChatCooldownEnabled()) {
             return 0;
         }
         
         // Check bypass permission
         String bypassPermission = plugin.getConfigManager().getChatCooldownBypassPermission();
-        if (!bypassPermission.isEmpty() && player.hasPermission(bypassPermission)) {
-            return 0;
-        }
-        
-        UUID playerId = player.getUniqueId();
-        Long lastTime = lastMessageTime.get(playerId);
-        if (lastTime == null) {
+        if (!bypassPermission.isEmpty() && plugin.getPermissionCache().hasPermission(player, bypassPermission)) {
             return 0;
         }
         
-        int cooldownDuration = getCooldownDuration(player);
-        if (cooldownDuration <= 0) {
+        RateLimiter.Mode mode = rateLimiter.getMode();
+        long intervalMillis = getEffectiveCooldownMillis(player);
+        long windowMillis = plugin.getConfigManager().getChatCooldownWindowSeconds() * 1000L;
+        if (intervalMillis <= 0) {
             return 0;
         }
-        
-        long currentTime = System.currentTimeMillis();
-        long timeDiff = currentTime - lastTime;
-        long cooldownMillis = cooldownDuration * 1000L;
-        
-        if (timeDiff >= cooldownMillis) {
-            return 0;
+
+        // Shared limits decide once this proxy holds a lease; until then the local limiter does
+        CrossProxyRateLimiter sharedLimiter = getCrossProxyRateLimiter();
+        if (sharedLimiter != null) {
+            long wait = sharedLimiter.getWaitMillis(player.getUniqueId(), intervalMillis, getSharedBurst(mode, intervalMillis, windowMillis));
+            if (wait >= 0) {
+                return wait;
+            }
         }
-        
-        return (cooldownMillis - timeDiff) / 1000L + 1;
+
+        return rateLimiter.getWaitMillis(player.getUniqueId(), intervalMillis,
+                plugin.getConfigManager().getChatCooldownBurst(), windowMillis);
     }
 
     /**
-     * Set the last message time for a player
+     * Apply the configured rate limiting mode. Called on load and reload rather than per
+     * message, since switching modes drops every player's limiter state.
+     */
+    public void applyCooldownMode() {
+        rateLimiter.setMode(RateLimiter.Mode.fromConfig(plugin.getConfigManager().getChatCooldownMode()));
+    }
+
+    /**
+     * Record a message a player sent against their rate limit
      * @param player The player
      */
     public void setLastMessageTime(Player player) {
         if (plugin.getConfigManager().isChatCooldownEnabled()) {
-            lastMessageTime.put(player.getUniqueId(), System.currentTimeMillis());
+            RateLimiter.Mode mode = rateLimiter.getMode();
+            long intervalMillis = getEffectiveCooldownMillis(player);
+            long windowMillis = plugin.getConfigManager().getChatCooldownWindowSeconds() * 1000L;
+            if (intervalMillis <= 0) {
+                return;
+            }
+
+            // The local limiter always records, so it can take over if Redis goes away
+            rateLimiter.record(player.getUniqueId(), intervalMillis, windowMillis);
+
+            CrossProxyRateLimiter sharedLimiter = getCrossProxyRateLimiter();
+            if (sharedLimiter != null) {
+                sharedLimiter.record(player.getUniqueId(), intervalMillis, getSharedBurst(mode, intervalMillis, windowMillis));
+            }
+        }
+    }
+
+    /**
+     * Get a player's cooldown duration stretched by the current slowmode level
+     * @param player The player
+     * @return The interval between messages in milliseconds, 0 for no limit
+     */
+    private long getEffectiveCooldownMillis(Player player) {
+        long intervalMillis = getCooldownDuration(player) * 1000L;
+        int multiplierPercent = slowmode.getCooldownMultiplierPercent(player);
+        if (multiplierPercent > 100) {
+            long minimumMillis = plugin.getConfigManager().getChatSlowmodeMinSeconds() * 1000L;
+            intervalMillis = Math.max(intervalMillis, minimumMillis) * multiplierPercent / 100;
+        }
+        return intervalMillis;
+    }
+
+    /**
+     * Get the size of a player's shared token bucket. Shared limits are always token
+     * buckets, so the other modes are mapped onto the closest bucket.
+     */
+    private int getSharedBurst(RateLimiter.Mode mode, long intervalMillis, long windowMillis) {
+        switch (mode) {
+            case TOKEN_BUCKET:
+                return Math.max(1, plugin.getConfigManager().getChatCooldownBurst());
+            case SLIDING_WINDOW:
+                return (int) Math.max(1, windowMillis / intervalMillis);
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Get the limiter sharing rate limits through Redis
+     * @return The shared limiter, or null if distributed limits are disabled or Redis is unavailable
+     */
+    private CrossProxyRateLimiter getCrossProxyRateLimiter() {
+        if (!plugin.getConfigManager().isChatCooldownDistributedEnabled()) {
+            return null;
         }
+        RedisManager redisManager = plugin.getRedisManager();
+        if (redisManager == null || !redisManager.isConnected()) {
+            return null;
+        }
+
+        CrossProxyRateLimiter limiter = crossProxyRateLimiter;
+        if (limiter == null || !limiter.isUsing(redisManager)) {
+            // Redis was (re)connected by a reload
+            limiter = new CrossProxyRateLimiter(plugin, redisManager);
+            crossProxyRateLimiter = limiter;
+        }
+        return limiter;
+    }
+
+    /**
+     * Get the sync sharing the chat lock and clear chat through Redis, connecting it if needed
+     * @return The sync, or null if cluster sync is disabled or Redis is unavailable
+     */
+    private CrossProxyChatControlSync getCrossProxySync() {
+        if (!plugin.getConfigManager().isChatClusterSyncEnabled()) {
+            return null;
+        }
+        RedisManager redisManager = plugin.getRedisManager();
+        if (redisManager == null || !redisManager.isConnected()) {
+            return null;
+        }
+
+        synchronized (this) {
+            CrossProxyChatControlSync sync = crossProxySync;
+            if (sync == null || !sync.isUsing(redisManager)) {
+                // Redis was (re)connected by a reload
+                if (sync != null) {
+                    sync.shutdown();
+                }
+                sync = new CrossProxyChatControlSync(plugin, redisManager, this);
+                sync.initialize();
+                crossProxySync = sync;
+            }
+            return sync;
+        }
+    }
+
+    /**
+     * Get the sync sharing filter rules through Redis, connecting it if needed
+     * @return The sync, or null if shared rules are disabled or Redis is unavailable
+     */
+    public CrossProxyFilterRuleSync getFilterRuleSync() {
+        if (!plugin.getConfigManager().isChatFilterDistributedEnabled()) {
+            return null;
+        }
+        RedisManager redisManager = plugin.getRedisManager();
+        if (redisManager == null || !redisManager.isConnected()) {
+            return null;
+        }
+
+        synchronized (this) {
+            CrossProxyFilterRuleSync sync = filterRuleSync;
+            if (sync == null || !sync.isUsing(redisManager)) {
+                // Redis was (re)connected by a reload
+                if (sync != null) {
+                    sync.shutdown();
+                }
+                sync = new CrossProxyFilterRuleSync(plugin, redisManager, this);
+                sync.initialize();
+                filterRuleSync = sync;
+            }
+            return sync;
+        }
+    }
+
+    /**
+     * Re-read the shared chat lock state and check the shared filter rules for changes
+     */
+    private void syncClusterState() {
+        CrossProxyChatControlSync sync = getCrossProxySync();
+        if (sync != null) {
+            sync.refresh();
+        }
+        CrossProxyFilterRuleSync ruleSync = getFilterRuleSync();
+        if (ruleSync != null) {
+            ruleSync.refresh();
+        }
+    }
+
+    /**
+     * Forget a player's per-connection state. Rate limit state is kept until it expires,
+     * so reconnecting doesn't reset it.
+     * @param playerId The player
+     */
+    public void handlePlayerDisconnect(UUID playerId) {
+        CrossProxyRateLimiter sharedLimiter = crossProxyRateLimiter;
+        if (sharedLimiter != null) {
+            sharedLimiter.remove(playerId);
+        }
+        spamDetector.handlePlayerDisconnect(playerId);
+    }
+
+    /**
+     * Get the adaptive slowmode controller
+     * @return The slowmode controller
+     */
+    public SlowmodeController getSlowmode() {
+        return slowmode;
+    }
+
+    /**
+     * Get the flood guard
+     * @return The flood guard
+     */
+    public FloodGuard getFloodGuard() {
+        return floodGuard;
+    }
+
+    /**
+     * Get the chat rate limiter
+     * @return The rate limiter
+     */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
     }
 
     /**
-     * Get the cooldown duration for a player (considering permission-based cooldowns)
+     * Get the cooldown duration for a player (considering permission-based cooldowns).
+     * The rate limiter treats it as the average gap between messages.
      * @param player The player
      * @return Cooldown duration in seconds
      */
@@ -162,7 +650,7 @@ public class ChatControlManager {
             
             // Check permissions in order and return the first match
             for (Map.Entry<String, Integer> entry : permissionDurations.entrySet()) {
-                if (player.hasPermission(entry.getKey())) {
+                if (plugin.getPermissionCache().hasPermission(player, entry.getKey())) {
                     return entry.getValue();
                 }
             }
@@ -178,31 +666,59 @@ public class ChatControlManager {
      * @return true if the rule was added successfully, false otherwise
      */
     public boolean addFilterRule(String rule, boolean saveToConfig) {
-        if (filterRules.contains(rule)) {
-            return false; // Rule already exists
+        synchronized (ruleEditLock) {
+            return addFilterRuleLocked(rule, saveToConfig);
+        }
+    }
+
+    private boolean addFilterRuleLocked(String rule, boolean saveToConfig) {
+        Pattern pattern = compileFilterRule(rule);
+        if (pattern == null) {
+            return false;
+        }
+
+        synchronized (ruleLock) {
+            if (filterRules.contains(rule)) {
+                return false; // Rule already exists
+            }
+            List<String> rules = new ArrayList<>(filterRules);
+            List<Pattern> patterns = new ArrayList<>(filterPatterns);
+            rules.add(rule);
+            patterns.add(pattern);
+            publishFilterRules(rules, patterns);
+        }
+        scheduleFilterEngineRebuild();
+        
+        if (saveToConfig) {
+            plugin.getConfigManager().addChatFilterRule(rule);
+            ruleStore.scheduleSave();
+            CrossProxyFilterRuleSync sync = getFilterRuleSync();
+            if (sync != null) {
+                sync.publishEdit(true, rule);
+            }
+        }
+        
+        if (plugin.getConfigManager().isChatControlDebugEnabled()) {
+            plugin.getLogger().info("[ChatControl-Debug] Added filter rule: " + rule);
         }
         
+        return true;
+    }
+
+    /**
+     * Compile a filter rule with the configured case sensitivity
+     * @param rule The regex pattern to compile
+     * @return The compiled pattern, or null if the rule is invalid
+     */
+    private Pattern compileFilterRule(String rule) {
         try {
-            Pattern pattern = Pattern.compile(rule, 
+            return Pattern.compile(rule, 
                 plugin.getConfigManager().isChatFilterCaseSensitive() ? 0 : Pattern.CASE_INSENSITIVE);
-            
-            filterPatterns.add(pattern);
-            filterRules.add(rule);
-            
-            if (saveToConfig) {
-                plugin.getConfigManager().addChatFilterRule(rule);
-            }
-            
-            if (plugin.getConfigManager().isChatControlDebugEnabled()) {
-                plugin.getLogger().info("[ChatControl-Debug] Added filter rule: " + rule);
-            }
-            
-            return true;
         } catch (PatternSyntaxException e) {
             if (plugin.getConfigManager().isChatControlDebugEnabled()) {
                 plugin.getLogger().warn("[ChatControl-Debug] Invalid regex pattern: " + rule + " - " + e.getMessage());
             }
-            return false;
+            return null;
         }
     }
 
@@ -213,16 +729,32 @@ public class ChatControlManager {
      * @return true if the rule was removed successfully, false otherwise
      */
     public boolean removeFilterRule(String rule, boolean saveToConfig) {
-        int index = filterRules.indexOf(rule);
-        if (index == -1) {
-            return false; // Rule not found
+        synchronized (ruleEditLock) {
+            return removeFilterRuleLocked(rule, saveToConfig);
         }
-        
-        filterRules.remove(index);
-        filterPatterns.remove(index);
+    }
+
+    private boolean removeFilterRuleLocked(String rule, boolean saveToConfig) {
+        synchronized (ruleLock) {
+            int index = filterRules.indexOf(rule);
+            if (index == -1) {
+                return false; // Rule not found
+            }
+            List<String> rules = new ArrayList<>(filterRules);
+            List<Pattern> patterns = new ArrayList<>(filterPatterns);
+            rules.remove(index);
+            patterns.remove(index);
+            publishFilterRules(rules, patterns);
+        }
+        scheduleFilterEngineRebuild();
         
         if (saveToConfig) {
             plugin.getConfigManager().removeChatFilterRule(rule);
+            ruleStore.scheduleSave();
+            CrossProxyFilterRuleSync sync = getFilterRuleSync();
+            if (sync != null) {
+                sync.publishEdit(false, rule);
+            }
         }
         
         if (plugin.getConfigManager().isChatControlDebugEnabled()) {
@@ -232,19 +764,144 @@ public class ChatControlManager {
         return true;
     }
 
+    /**
+     * Adopt the filter rule set shared by other proxies, and save it locally so this proxy
+     * starts with it even when Redis is unavailable
+     * @param rules The shared rules
+     */
+    public void applySharedFilterRules(List<String> rules) {
+        synchronized (ruleEditLock) {
+            applyFilterRuleChanges(rules);
+            if (plugin.getConfigManager().setChatFilterRules(rules)) {
+                ruleStore.scheduleSave();
+            }
+        }
+    }
+
+    /**
+     * Reload the rules file after it was edited outside the game and apply the result,
+     * which keeps any edits made here that are not saved yet
+     */
+    private void reloadFilterRulesFile() {
+        synchronized (ruleEditLock) {
+            List<String> before = filterRules;
+            List<String> rules = plugin.getConfigManager().reloadChatFilterRules();
+            if (rules != null) {
+                applyFilterRuleChanges(rules);
+                if (plugin.getConfigManager().hasUnsavedChatFilterRules()) {
+                    ruleStore.scheduleSave();
+                }
+                publishFilterRuleEdits(before);
+            }
+        }
+    }
+
+    /**
+     * Share the rules an edit outside the game added or removed as add and remove edits,
+     * so the shared rule set keeps them instead of the next refresh undoing them as drift
+     * @param before The rules in use before the edit
+     */
+    private void publishFilterRuleEdits(List<String> before) {
+        CrossProxyFilterRuleSync sync = getFilterRuleSync();
+        if (sync == null) {
+            return;
+        }
+        List<String> after = filterRules;
+        List<String> added = new ArrayList<>(after);
+        added.removeAll(before);
+        List<String> removed = new ArrayList<>(before);
+        removed.removeAll(after);
+        sync.publishEdits(added, removed);
+    }
+
+    /**
+     * Apply an edited rule list. Rules that didn't change keep their compiled pattern and
+     * only added rules are compiled.
+     * @param rules The rules now in use
+     */
+    private void applyFilterRuleChanges(List<String> rules) {
+        Map<String, Pattern> compiled = new HashMap<>();
+        synchronized (ruleLock) {
+            for (int i = 0; i < filterRules.size(); i++) {
+                compiled.put(filterRules.get(i), filterPatterns.get(i));
+            }
+        }
+
+        List<String> newRules = new ArrayList<>();
+        List<Pattern> newPatterns = new ArrayList<>();
+        int added = 0;
+        for (String rule : rules) {
+            if (newRules.contains(rule)) {
+                continue;
+            }
+            Pattern pattern = compiled.get(rule);
+            if (pattern == null) {
+                pattern = compileFilterRule(rule);
+                if (pattern == null) {
+                    plugin.getLogger().warn("[ChatControl] Skipping invalid filter rule in "
+                            + plugin.getConfigManager().getChatFilterRulesFile().getFileName() + ": " + rule);
+                    continue;
+                }
+                added++;
+            }
+            newRules.add(rule);
+            newPatterns.add(pattern);
+        }
+
+        int removed;
+        synchronized (ruleLock) {
+            if (newRules.equals(filterRules)) {
+                return; // Our own save, or an edit that changed nothing
+            }
+            removed = 0;
+            for (String rule : filterRules) {
+                if (!newRules.contains(rule)) {
+                    removed++;
+                }
+            }
+            publishFilterRules(newRules, newPatterns);
+        }
+        scheduleFilterEngineRebuild();
+        plugin.getLogger().info("[ChatControl] Applied changes to "
+                + plugin.getConfigManager().getChatFilterRulesFile().getFileName() + ": "
+                + added + " rule(s) added, " + removed + " removed");
+    }
+
+    /**
+     * Remove every filter rule without touching the configuration
+     * @return The number of rules that were removed
+     */
+    public int clearFilterRules() {
+        int removed;
+        synchronized (ruleLock) {
+            removed = filterRules.size();
+            publishFilterRules(new ArrayList<>(), new ArrayList<>());
+        }
+        scheduleFilterEngineRebuild();
+
+        if (plugin.getConfigManager().isChatControlDebugEnabled()) {
+            plugin.getLogger().info("[ChatControl-Debug] Cleared " + removed + " filter rules");
+        }
+        return removed;
+    }
+
     /**
      * Get all active filter rules
-     * @return List of filter rules
+     * @return Immutable snapshot of the filter rules
      */
     public List<String> getFilterRules() {
-        return new ArrayList<>(filterRules);
+        return filterRules;
     }
 
     /**
      * Clear all cooldown data
      */
     public void clearCooldowns() {
-        lastMessageTime.clear();
+        rateLimiter.clear();
+        CrossProxyRateLimiter sharedLimiter = getCrossProxyRateLimiter();
+        if (sharedLimiter != null) {
+            sharedLimiter.clear();
+        }
         if (plugin.getConfigManager().isChatControlDebugEnabled()) {
             plugin.getLogger().info("[ChatControl-Debug] Cleared all cooldown data");
         }
@@ -271,7 +928,7 @@ public class ChatControlManager {
      * @return Number of players with active cooldowns
      */
     public int getActiveCooldownCount() {
-        return lastMessageTime.size();
+        return rateLimiter.getTrackedPlayerCount();
     }
 
     /**
@@ -283,7 +940,7 @@ public class ChatControlManager {
     }
 
     /**
-     * Set the chat lock state
+     * Set the chat lock state on this proxy only
      * @param locked true to lock chat, false to unlock
      */
     public void setChatLocked(boolean locked) {
@@ -297,7 +954,7 @@ public class ChatControlManager {
      * Toggle the chat lock state
      * @return The new chat lock state (true = locked, false = unlocked)
      */
-    public boolean toggleChatLock() {
+    public synchronized boolean toggleChatLock() {
         chatLocked = !chatLocked;
         if (plugin.getConfigManager().isChatControlDebugEnabled()) {
             plugin.getLogger().info("[ChatControl-Debug] Chat lock toggled to: " + (chatLocked ? "LOCKED" : "UNLOCKED"));
@@ -306,18 +963,121 @@ public class ChatControlManager {
     }
 
     /**
-     * Check if a player can send a message considering chat lock
+     * Toggle the chat lock and share the change with other proxies
+     * @param actor Who changed it
+     * @return The new chat lock state (true = locked, false = unlocked)
+     */
+    public boolean toggleChatLock(String actor) {
+        boolean locked = toggleChatLock();
+        CrossProxyChatControlSync sync = getCrossProxySync();
+        if (sync != null) {
+            sync.publishLock(locked, actor);
+        }
+        return locked;
+    }
+
+    /**
+     * Apply a version of the chat lock state shared between proxies. Versions are only
+     * compared within an epoch: a shared state that was lost and recreated in Redis starts
+     * a new epoch with its version counting from 1 again.
+     * @param locked The shared lock state
+     * @param epoch The epoch of the shared state
+     * @param version The version of the shared state
+     * @return true if the state was applied, false if a newer version was already applied
+     */
+    public synchronized boolean applyChatLockState(boolean locked, String epoch, long version) {
+        if (!epoch.equals(chatLockEpoch)) {
+            chatLockEpoch = epoch;
+            chatLockVersion = 0;
+        }
+        if (version <= chatLockVersion) {
+            return false;
+        }
+        chatLockVersion = version;
+        setChatLocked(locked);
+        return true;
+    }
+
+    /**
+     * Get the version of the shared chat lock state last applied
+     * @return The version, 0 if none was applied
+     */
+    public synchronized long getChatLockVersion() {
+        return chatLockVersion;
+    }
+
+    /**
+     * Check if the chat lock and clear chat are shared with other proxies right now
+     * @return true if cluster sync is enabled and connected
+     */
+    public boolean isClusterSyncConnected() {
+        return getCrossProxySync() != null;
+    }
+
+    /**
+     * Tell every player on this proxy that chat was locked or unlocked
+     * @param locked The new lock state
+     * @param actor Who changed it
+     */
+    public void broadcastChatLockChange(boolean locked, String actor) {
+        String message = locked
+                ? plugin.getConfigManager().getLockChatLockedMessage()
+                : plugin.getConfigManager().getLockChatUnlockedMessage().replace("{player}", actor);
+
+        Component formattedMessage = MessageUtils.formatMessage(message);
+        for (Player player : plugin.getServer().getAllPlayers()) {
+            player.sendMessage(formattedMessage);
+        }
+    }
+
+    /**
+     * Clear chat for players on this proxy
+     * @param actor Who cleared chat
+     * @param server Only clear chat for players on this backend server, or null for everyone
+     */
+    public void clearChatLocally(String actor, String server) {
+        Collection<Player> players;
+        String completionMessage;
+        if (server == null) {
+            players = plugin.getServer().getAllPlayers();
+            completionMessage = plugin.getConfigManager().getClearChatCompletionMessage();
+        } else {
+            players = plugin.getServer().getServer(server)
+                    .map(registered -> registered.getPlayersConnected())
+                    .orElse(Collections.emptyList());
+            completionMessage = plugin.getConfigManager().getClearChatServerCompletionMessage()
+                    .replace("{server}", server);
+        }
+
+        chatClearer.clear(players, MessageUtils.formatMessage(completionMessage.replace("{player}", actor)));
+    }
+
+    /**
+     * Clear chat on this proxy and every other proxy
+     * @param actor Who cleared chat
+     * @param server Only clear chat for players on this backend server, or null for everyone
+     */
+    public void clearChat(String actor, String server) {
+        clearChatLocally(actor, server);
+        CrossProxyChatControlSync sync = getCrossProxySync();
+        if (sync != null) {
+            sync.publishClear(actor, server);
+        }
+    }
+
+    /**
+     * Check if a player can send a message considering chat lock and the flood guard
      * @param player The player to check
      * @return true if the player can send a message, false if blocked by chat lock
      */
     public boolean canSendMessageWithChatLock(Player player) {
-        if (!chatLocked) {
+        if (!chatLocked && !floodGuard.isBlocking(player)) {
             return true;
         }
 
         // Check bypass permission
         String bypassPermission = plugin.getConfigManager().getLockChatBypassPermission();
-        if (!bypassPermission.isEmpty() && player.hasPermission(bypassPermission)) {
+        if (!bypassPermission.isEmpty() && plugin.getPermissionCache().hasPermission(player, bypassPermission)) {
             return true;
         }
 
@@ -337,12 +1097,12 @@ public class ChatControlManager {
 
         // Check bypass permission for private messages
         String bypassPermission = plugin.getConfigManager().getChatFilterBypassPrivateMessagesPermission();
-        if (!bypassPermission.isEmpty() && player.hasPermission(bypassPermission)) {
+        if (!bypassPermission.isEmpty() && plugin.getPermissionCache().hasPermission(player, bypassPermission)) {
             return message;
         }
 
         // Check if message should be filtered
-        if (shouldFilterMessage(message)) {
+        if (shouldFilterMessage(message, player)) {
             String action = plugin.getConfigManager().getChatFilterAction();
 
             switch (action.toLowerCase()) {
@@ -354,7 +1114,7 @@ public class ChatControlManager {
                 case "replace":
                     // Replace filtered content with replacement text
                     String replacementText = plugin.getConfigManager().getChatFilterReplacementText();
-                    return replaceFilteredContent(message, replacementText);
+                    return replaceFilteredContent(message, replacementText, player);
 
                 default:
                     return message;
@@ -365,28 +1125,24 @@ public class ChatControlManager {
     }
 
     /**
-     * Replace filtered content in a message with replacement text
+     * Replace content matched by the global rules in a message with replacement text
      * @param message The original message
      * @param replacementText The text to replace filtered content with
      * @return The message with filtered content replaced
      */
-    private String replaceFilteredContent(String message, String replacementText) {
-        String result = message;
-
-        // Get filter rules and apply replacements
-        for (String rule : getFilterRules()) {
-            try {
-                // Apply case sensitivity based on configuration
-                String pattern = plugin.getConfigManager().isChatFilterCaseSensitive() ? rule : "(?i)" + rule;
-                result = result.replaceAll(pattern, replacementText);
-            } catch (Exception e) {
-                // If regex replacement fails, continue with next rule
-                if (plugin.getConfigManager().isChatControlDebugEnabled()) {
-                    plugin.getLogger().warn("[ChatControl-Debug] Failed to apply replacement for rule: " + rule);
-                }
-            }
-        }
+    public String replaceFilteredContent(String message, String replacementText) {
+        return replaceFilteredContent(message, replacementText, null);
+    }
 
-        return result;
+    /**
+     * Replace content matched by the global rules and the player's profile with replacement text
+     * @param message The original message
+     * @param replacementText The text to replace filtered content with
+     * @param player The player sending the message, or null for the global rules only
+     * @return The message with filtered content replaced
+     */
+    public String replaceFilteredContent(String message, String replacementText, Player player) {
+        FilterEngine engine = filterEngine;
+        return engine.replaceMatches(message, getFilterProfileMask(engine, player), replacementText);
     }
 }
@@ -0,0 +1,157 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histograms for the checks chat control runs on every message
+ */
+public class ChatControlMetrics {
+
+    /**
+     * The timed chat pipeline stages, in the order they run. QUEUE is the wait for a
+     * worker thread and TOTAL the time from receiving a message to deciding it.
+     */
+    public enum Check {
+        QUEUE,
+        STAFF_ROUTING,
+        LOCK,
+        RATE_LIMIT,
+        SPAM,
+        HEURISTICS,
+        FILTER,
+        RENDER,
+        TOTAL
+    }
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Check.values().length];
+
+    // Messages decided by the fail mode because their checks missed the deadline
+    private final LongAdder timeouts = new LongAdder();
+
+    public ChatControlMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Record how long a check took
+     * @param check The check
+     * @param nanos The time taken in nanoseconds
+     */
+    public void record(Check check, long nanos) {
+        histograms[check.ordinal()].record(nanos);
+    }
+
+    /**
+     * Get the latency histogram of a check
+     * @param check The check
+     * @return The histogram
+     */
+    public LatencyHistogram getHistogram(Check check) {
+        return histograms[check.ordinal()];
+    }
+
+    /**
+     * Count a message whose checks missed the deadline
+     */
+    public void recordTimeout() {
+        timeouts.increment();
+    }
+
+    /**
+     * Get the number of messages whose checks missed the deadline
+     * @return The timeout count
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Reset every histogram and the timeout count
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        timeouts.reset();
+    }
+
+    /**
+     * Histogram with power-of-two nanosecond buckets. Bucket i counts samples below
+     * 2^i ns, so percentiles are reported as the upper bound of their bucket.
+     */
+    public static class LatencyHistogram {
+        private static final int BUCKETS = 32;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        LatencyHistogram() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            long sample = Math.max(0, nanos);
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(sample));
+            buckets[bucket].increment();
+            count.increment();
+            totalNanos.add(sample);
+            maxNanos.accumulateAndGet(sample, Math::max);
+        }
+
+        void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            count.reset();
+            totalNanos.reset();
+            maxNanos.set(0);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getAverageMicros() {
+            long samples = count.sum();
+            return samples == 0 ? 0.0 : totalNanos.sum() / (samples * 1000.0);
+        }
+
+        public double getMaxMicros() {
+            return maxNanos.get() / 1000.0;
+        }
+
+        /**
+         * Get an upper bound of a percentile
+         * @param percentile The percentile, between 0 and 100
+         * @return The upper bound of the bucket holding the percentile, in microseconds
+         */
+        public double getPercentileMicros(double percentile) {
+            long[] counts = new long[BUCKETS];
+            long samples = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+                samples += counts[i];
+            }
+            if (samples == 0) {
+                return 0.0;
+            }
+
+            long target = (long) Math.ceil(samples * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= target && counts[i] > 0) {
+                    return Math.min(1L << i, maxNanos.get()) / 1000.0;
+                }
+            }
+            return getMaxMicros();
+        }
+    }
+}
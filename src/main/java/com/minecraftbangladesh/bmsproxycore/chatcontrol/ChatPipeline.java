@@ -0,0 +1,472 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.utils.MessageUtils;
+import com.velocitypowered.api.event.EventTask;
+import com.velocitypowered.api.event.player.PlayerChatEvent;
+import com.velocitypowered.api.proxy.Player;
+import net.kyori.adventure.text.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Staged public chat pipeline: staff routing → lock → rate limit → spam → heuristics →
+ * filter → render. Every message runs through the stages in order with one shared
+ * {@link ChatContext}; the checks stop at the first stage that denies the message or
+ * routes it to staff chat, and render then delivers whatever was decided. Staff routing
+ * and staff chat delivery always run on the event thread; with the Chat Control module
+ * enabled the checks of public messages run on its {@link AsyncChatEvaluator}, and each
+ * stage is timed in its {@link ChatControlMetrics}.
+ */
+public class ChatPipeline {
+
+    private final BMSProxyCore plugin;
+    private final List<StageEntry> stages = new ArrayList<>();
+
+    public ChatPipeline(BMSProxyCore plugin) {
+        this.plugin = plugin;
+
+        addStage(ChatControlMetrics.Check.LOCK, ChatContext::isChatControlled, this::checkChatLock);
+        addStage(ChatControlMetrics.Check.RATE_LIMIT,
+                context -> context.isChatControlled() && plugin.getConfigManager().isChatCooldownEnabled(),
+                this::checkCooldown);
+        addStage(ChatControlMetrics.Check.SPAM,
+                context -> context.isChatControlled() && plugin.getConfigManager().isChatSpamEnabled(),
+                this::checkSpam);
+        addStage(ChatControlMetrics.Check.HEURISTICS,
+                context -> context.isChatControlled() && plugin.getConfigManager().isChatHeuristicsEnabled(),
+                this::checkHeuristics);
+        addStage(ChatControlMetrics.Check.FILTER,
+                context -> context.isChatControlled() && plugin.getConfigManager().isChatFilterEnabled(),
+                this::checkFilter);
+    }
+
+    /**
+     * Add a check stage to the end of the pipeline, before render
+     * @param check The check the stage is timed as
+     * @param appliesTo Whether the stage runs for a message
+     * @param stage The stage
+     */
+    private void addStage(ChatControlMetrics.Check check, Predicate<ChatContext> appliesTo, ChatStage stage) {
+        stages.add(new StageEntry(check, appliesTo, stage));
+    }
+
+    /**
+     * Run a chat message through the pipeline
+     * @param event The chat event
+     * @return The task Velocity waits for before passing the event on, or null if the
+     *         message was handled inline
+     */
+    public EventTask evaluate(PlayerChatEvent event) {
+        Player player = event.getPlayer();
+        ChatControlManager chatControl = plugin.isChatControlModuleEnabled() ? plugin.getChatControlManager() : null;
+        boolean staffChatToggled = plugin.isStaffChatModuleEnabled() && plugin.isStaffChatToggled(player.getUniqueId());
+
+        // Nothing to do unless one of the modules handles this message
+        if (chatControl == null && !staffChatToggled) {
+            return null;
+        }
+
+        ChatContext context = new ChatContext(player, event.getMessage(), chatControl, staffChatToggled);
+
+        // Staff routing is decided here on the event thread rather than on the evaluator,
+        // where a missed deadline under fail-open would let a staff message into public chat
+        if (staffChatToggled) {
+            long start = System.nanoTime();
+            routeStaffChat(context);
+            if (chatControl != null) {
+                chatControl.getMetrics().record(ChatControlMetrics.Check.STAFF_ROUTING, System.nanoTime() - start);
+            }
+            if (context.isStaffRouted()) {
+                process(context).applyTo(event);
+                return null;
+            }
+        }
+
+        // Without Chat Control a message that isn't staff chat goes through untouched
+        if (chatControl == null) {
+            return null;
+        }
+
+        // Count every public message for slowmode, including ones the checks will block
+        if (plugin.getConfigManager().isChatSlowmodeEnabled()) {
+            chatControl.getSlowmode().recordMessage(player);
+        }
+        if (plugin.getConfigManager().isChatFloodGuardEnabled()) {
+            chatControl.getFloodGuard().recordMessage();
+        }
+
+        return chatControl.getAsyncEvaluator().evaluate(event, () -> process(context), () -> recordUnchecked(context, event.getMessage()));
+    }
+
+    /**
+     * Record a message that fail-open let through without a verdict against the player's
+     * cooldown and spam history, as the verdict's effects would have. The message is the
+     * one the player sent, since the checks may still be rewriting the context's copy.
+     */
+    private void recordUnchecked(ChatContext context, String message) {
+        Player player = context.getPlayer();
+        ChatControlManager chatControl = context.getChatControl();
+        if (plugin.getConfigManager().isChatCooldownEnabled()) {
+            chatControl.setLastMessageTime(player);
+        }
+        String spamBypassPermission = plugin.getConfigManager().getChatSpamBypassPermission();
+        if (plugin.getConfigManager().isChatSpamEnabled()
+                && (spamBypassPermission.isEmpty() || !plugin.getPermissionCache().hasPermission(player, spamBypassPermission))) {
+            SpamDetector spamDetector = chatControl.getSpamDetector();
+            spamDetector.record(player.getUniqueId(), spamDetector.fingerprintOf(message));
+        }
+    }
+
+    /**
+     * Run the stages in order, stopping the checks at the first one that decides the
+     * message, then render it unless it was denied
+     * @param context The message
+     * @return The verdict to apply to the chat event
+     */
+    private ChatVerdict process(ChatContext context) {
+        ChatControlMetrics metrics = context.isChatControlled() ? context.getChatControl().getMetrics() : null;
+
+        for (StageEntry entry : stages) {
+            if (context.isDecided()) {
+                break;
+            }
+            if (!entry.appliesTo.test(context)) {
+                continue;
+            }
+            long start = System.nanoTime();
+            entry.stage.process(context);
+            if (metrics != null) {
+                metrics.record(entry.check, System.nanoTime() - start);
+            }
+        }
+
+        if (!context.getVerdict().isDenied()) {
+            long start = System.nanoTime();
+            render(context);
+            if (metrics != null) {
+                metrics.record(ChatControlMetrics.Check.RENDER, System.nanoTime() - start);
+            }
+        }
+        return context.getVerdict();
+    }
+
+    /**
+     * Route the message to staff chat if the player has it toggled and may still use it
+     */
+    private void routeStaffChat(ChatContext context) {
+        String usePermission = plugin.getConfigManager().getStaffChatUsePermission();
+        if (usePermission.isEmpty() || plugin.getPermissionCache().hasPermission(context.getPlayer(), usePermission)) {
+            context.routeToStaff();
+        }
+    }
+
+    /**
+     * Check if the player can send a message considering chat lock
+     */
+    private void checkChatLock(ChatContext context) {
+        Player player = context.getPlayer();
+        ChatControlManager chatControl = context.getChatControl();
+
+        // Check if player can send message with chat lock
+        if (!chatControl.canSendMessageWithChatLock(player)) {
+            // Block the message and warn the player
+            ChatVerdict verdict = context.getVerdict();
+            verdict.deny();
+            String blockedMessage = chatControl.isChatLocked()
+                    ? plugin.getConfigManager().getLockChatBlockedMessage()
+                    : plugin.getConfigManager().getChatFloodGuardBlockedMessage();
+            verdict.then(() -> player.sendMessage(MessageUtils.formatMessage(blockedMessage)));
+        }
+    }
+
+    /**
+     * Check if the player is on cooldown
+     */
+    private void checkCooldown(ChatContext context) {
+        Player player = context.getPlayer();
+        ChatControlManager chatControl = context.getChatControl();
+
+        // The manager checks the bypass permission
+        if (!chatControl.canSendMessage(player)) {
+            // Player is on cooldown
+            ChatVerdict verdict = context.getVerdict();
+            verdict.deny();
+
+            long remainingTime = chatControl.getRemainingCooldown(player);
+            String cooldownMessage = plugin.getConfigManager().getChatCooldownMessage()
+                    .replace("{time}", String.valueOf(remainingTime));
+
+            verdict.then(() -> player.sendMessage(MessageUtils.formatMessage(cooldownMessage)));
+
+            // Log cooldown violation if enabled
+            if (plugin.getConfigManager().isChatCooldownLogViolationsEnabled()) {
+                String logMessage = plugin.getConfigManager().getChatCooldownViolationLogFormat()
+                        .replace("{player}", player.getUsername());
+                verdict.then(() -> plugin.getLogger().info(logMessage));
+            }
+
+            // Debug logging
+            if (plugin.getConfigManager().isChatControlDebugEnabled()) {
+                String debugMessage = "Player " + player.getUsername() + " blocked by cooldown (" + remainingTime + "s remaining)";
+                String logFormat = plugin.getConfigManager().getChatControlDebugFormat()
+                        .replace("{component}", "Cooldown")
+                        .replace("{message}", debugMessage);
+                verdict.then(() -> plugin.getLogger().info(logFormat));
+            }
+        }
+    }
+
+    /**
+     * Check if the message repeats the player's recent messages
+     */
+    private void checkSpam(ChatContext context) {
+        Player player = context.getPlayer();
+        String message = context.getMessage();
+
+        // Check bypass permission
+        String bypassPermission = plugin.getConfigManager().getChatSpamBypassPermission();
+        if (!bypassPermission.isEmpty() && plugin.getPermissionCache().hasPermission(player, bypassPermission)) {
+            return;
+        }
+
+        // The message joins the player's history only once the verdict is applied, so a
+        // verdict dropped at the deadline leaves no trace
+        SpamDetector spamDetector = context.getChatControl().getSpamDetector();
+        long fingerprint = spamDetector.fingerprintOf(message);
+        ChatVerdict verdict = context.getVerdict();
+        verdict.then(() -> spamDetector.record(player.getUniqueId(), fingerprint));
+        if (!spamDetector.isRepeat(player.getUniqueId(), fingerprint)) {
+            return;
+        }
+
+        boolean block = !"flag".equalsIgnoreCase(plugin.getConfigManager().getChatSpamAction());
+        if (block) {
+            verdict.deny();
+            verdict.then(() -> player.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getChatSpamBlockedMessage())));
+        }
+
+        // Notify staff
+        String notifyPermission = plugin.getConfigManager().getChatSpamNotifyPermission();
+        String notifyMessage = plugin.getConfigManager().getChatSpamNotifyMessage()
+                .replace("{player}", player.getUsername())
+                .replace("{message}", message);
+        verdict.then(() -> notifyStaff(notifyPermission, notifyMessage));
+
+        if (plugin.getConfigManager().isChatSpamLogEnabled()) {
+            String logMessage = "[ChatSpam] " + player.getUsername() + (block ? " was blocked for" : " was flagged for")
+                    + " repeating: " + message;
+            verdict.then(() -> plugin.getLogger().info(logMessage));
+        }
+    }
+
+    /**
+     * Run the heuristic checks and apply the action of each one the message triggers; a
+     * fixed message replaces the context's message
+     */
+    private void checkHeuristics(ChatContext context) {
+        Player player = context.getPlayer();
+        String message = context.getMessage();
+
+        // Check bypass permission
+        String bypassPermission = plugin.getConfigManager().getChatHeuristicsBypassPermission();
+        if (!bypassPermission.isEmpty() && plugin.getPermissionCache().hasPermission(player, bypassPermission)) {
+            return;
+        }
+
+        HeuristicScanner scanner = context.getChatControl().getHeuristics();
+        HeuristicScanner.Result result = scanner.scan(message);
+        if (!result.isTriggered()) {
+            return;
+        }
+
+        String fixed = message;
+        String blockReason = null;
+        StringBuilder checks = new StringBuilder();
+        for (HeuristicScanner.Heuristic heuristic : HeuristicScanner.Heuristic.values()) {
+            if (!result.isTriggered(heuristic)) {
+                continue;
+            }
+            if (checks.length() > 0) {
+                checks.append(", ");
+            }
+            checks.append(heuristic.getConfigKey());
+
+            String action = plugin.getConfigManager().getChatHeuristicAction(heuristic.getConfigKey(), heuristic.getDefaultAction());
+            if ("flag".equalsIgnoreCase(action)) {
+                continue;
+            }
+            String rewritten = "fix".equalsIgnoreCase(action) ? scanner.fix(heuristic, fixed) : null;
+            if (rewritten != null) {
+                fixed = rewritten;
+            } else if (blockReason == null) {
+                blockReason = plugin.getConfigManager().getChatHeuristicReason(heuristic.getConfigKey(), heuristic.getDefaultReason());
+            }
+        }
+
+        ChatVerdict verdict = context.getVerdict();
+        boolean block = blockReason != null;
+        if (block) {
+            verdict.deny();
+            String blockedMessage = plugin.getConfigManager().getChatHeuristicsBlockedMessage().replace("{reason}", blockReason);
+            verdict.then(() -> player.sendMessage(MessageUtils.formatMessage(blockedMessage)));
+        } else {
+            verdict.setMessage(fixed);
+        }
+
+        // Notify staff
+        String notifyPermission = plugin.getConfigManager().getChatHeuristicsNotifyPermission();
+        String notifyMessage = plugin.getConfigManager().getChatHeuristicsNotifyMessage()
+                .replace("{player}", player.getUsername())
+                .replace("{checks}", checks)
+                .replace("{message}", message);
+        verdict.then(() -> notifyStaff(notifyPermission, notifyMessage));
+
+        if (plugin.getConfigManager().isChatHeuristicsLogEnabled()) {
+            String logMessage = "[ChatHeuristics] " + player.getUsername() + (block ? " was blocked for " : " triggered ")
+                    + checks + ": " + message;
+            verdict.then(() -> plugin.getLogger().info(logMessage));
+        }
+    }
+
+    /**
+     * Check if the message should be filtered. The filter sees the message as the
+     * heuristics left it.
+     */
+    private void checkFilter(ChatContext context) {
+        Player player = context.getPlayer();
+        ChatControlManager chatControl = context.getChatControl();
+        String message = context.getMessage();
+
+        // Hand a sample to the shadow rules so they see what the enforced rules see, once
+        // the verdict is applied so a message dropped at the deadline isn't counted
+        ChatVerdict verdict = context.getVerdict();
+        verdict.then(() -> chatControl.getShadowRules().sample(message));
+
+        // Check bypass permission
+        String bypassPermission = plugin.getConfigManager().getChatFilterBypassPermission();
+        if (!bypassPermission.isEmpty() && plugin.getPermissionCache().hasPermission(player, bypassPermission)) {
+            return;
+        }
+
+        if (!chatControl.shouldFilterMessage(message, player)) {
+            return;
+        }
+
+        // Message should be filtered
+        String action = plugin.getConfigManager().getChatFilterAction();
+
+        switch (action.toLowerCase()) {
+            case "block":
+                // Silently block the message
+                verdict.deny();
+                break;
+
+            case "replace":
+                // Replace filtered content with replacement text
+                String replacementText = plugin.getConfigManager().getChatFilterReplacementText();
+                verdict.setMessage(chatControl.replaceFilteredContent(message, replacementText, player));
+                break;
+
+            case "warn":
+            default:
+                // Block the message and warn the player; also the default if action is not recognized
+                verdict.deny();
+                String warningMessage = plugin.getConfigManager().getChatFilterBlockedMessage();
+                verdict.then(() -> player.sendMessage(MessageUtils.formatMessage(warningMessage)));
+                break;
+        }
+
+        // Log filtered message if enabled
+        if (plugin.getConfigManager().isChatFilterLogEnabled()) {
+            String logMessage = plugin.getConfigManager().getChatFilterLogFormat()
+                    .replace("{player}", player.getUsername())
+                    .replace("{message}", message);
+            verdict.then(() -> plugin.getLogger().info(logMessage));
+        }
+
+        // Debug logging
+        if (plugin.getConfigManager().isChatControlDebugEnabled()) {
+            String debugMessage = "Message from " + player.getUsername() + " filtered: " + message;
+            String logFormat = plugin.getConfigManager().getChatControlDebugFormat()
+                    .replace("{component}", "Filter")
+                    .replace("{message}", debugMessage);
+            verdict.then(() -> plugin.getLogger().info(logFormat));
+        }
+    }
+
+    /**
+     * Deliver a message that was not denied. Staff chat messages are formatted here and
+     * broadcast once the verdict is applied; public messages go on to the backend server
+     * as the checks left them and count towards the player's cooldown.
+     */
+    private void render(ChatContext context) {
+        Player player = context.getPlayer();
+        ChatVerdict verdict = context.getVerdict();
+
+        if (!context.isStaffRouted()) {
+            // Set the last message time for cooldown tracking once the message is let through
+            if (context.isChatControlled() && plugin.getConfigManager().isChatCooldownEnabled()) {
+                ChatControlManager chatControl = context.getChatControl();
+                verdict.then(() -> chatControl.setLastMessageTime(player));
+            }
+            return;
+        }
+
+        // Staff chat messages never reach public chat
+        verdict.deny();
+
+        String message = context.getMessage();
+        String usePermission = plugin.getConfigManager().getStaffChatUsePermission();
+        Component formattedMessage = MessageUtils.formatStaffChatMessage(
+                player,
+                message,
+                plugin.getConfigManager(),
+                plugin.getServer()
+        );
+
+        verdict.then(() -> {
+            // Broadcast to all staff members
+            MessageUtils.broadcastToPermission(plugin.getServer(), formattedMessage, usePermission);
+
+            // Send to Discord webhook if enabled
+            plugin.sendStaffChatMessage(player, message);
+
+            // Log to console with proper formatting
+            plugin.getLogger().info(MessageUtils.componentToPlainText(formattedMessage));
+        });
+    }
+
+    /**
+     * Send a message to every player with a permission
+     * @param permission The permission, or empty to notify nobody
+     * @param message The message to send
+     */
+    private void notifyStaff(String permission, String message) {
+        if (permission.isEmpty()) {
+            return;
+        }
+        for (Player staff : plugin.getServer().getAllPlayers()) {
+            if (plugin.getPermissionCache().hasPermission(staff, permission)) {
+                staff.sendMessage(MessageUtils.formatMessage(message));
+            }
+        }
+    }
+
+    /**
+     * A check stage with the check it is timed as and when it applies
+     */
+    private static final class StageEntry {
+        private final ChatControlMetrics.Check check;
+        private final Predicate<ChatContext> appliesTo;
+        private final ChatStage stage;
+
+        StageEntry(ChatControlMetrics.Check check, Predicate<ChatContext> appliesTo, ChatStage stage) {
+            this.check = check;
+            this.appliesTo = appliesTo;
+            this.stage = stage;
+        }
+    }
+}
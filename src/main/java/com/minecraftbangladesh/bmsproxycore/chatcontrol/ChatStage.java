@@ -0,0 +1,16 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol;
+
+/**
+ * One step of the chat pipeline. A stage reads the shared {@link ChatContext} and
+ * records its decision in it: denying the message, rewriting it or routing it to staff
+ * chat. The pipeline stops running checks once a stage has decided.
+ */
+@FunctionalInterface
+public interface ChatStage {
+
+    /**
+     * Process a message
+     * @param context The message being processed
+     */
+    void process(ChatContext context);
+}
@@ -0,0 +1,77 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol;
+
+import com.velocitypowered.api.event.player.PlayerChatEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of the chat control checks for one message: whether it is denied, the
+ * message to send if a check rewrote it, and what to do once it is decided. Checks only
+ * read shared state and fill in a verdict; what they would tell players, log or record
+ * (rate limit, spam history and shadow sampling) is held as effects, so a verdict that
+ * arrives after the deadline is dropped without changing anything.
+ */
+public final class ChatVerdict {
+
+    private final String originalMessage;
+    private String message;
+    private boolean denied;
+    private final List<Runnable> effects = new ArrayList<>(2);
+
+    public ChatVerdict(String message) {
+        this.originalMessage = message;
+        this.message = message;
+    }
+
+    /**
+     * Get the message as the checks so far have left it
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Replace the message, for checks that rewrite rather than block
+     * @param message The rewritten message
+     */
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Block the message
+     */
+    public void deny() {
+        denied = true;
+    }
+
+    public boolean isDenied() {
+        return denied;
+    }
+
+    /**
+     * Add something to do once the verdict is applied, such as telling the player why
+     * their message was blocked or notifying staff
+     * @param effect The effect
+     */
+    public void then(Runnable effect) {
+        effects.add(effect);
+    }
+
+    /**
+     * Apply the verdict to the chat event and run its effects
+     * @param event The chat event
+     */
+    @SuppressWarnings("deprecation") // setResult is deprecated but still the only way to modify chat in Velocity
+    public void applyTo(PlayerChatEvent event) {
+        if (denied) {
+            event.setResult(PlayerChatEvent.ChatResult.denied());
+        } else if (!message.equals(originalMessage)) {
+            event.setResult(PlayerChatEvent.ChatResult.message(message));
+        }
+        for (Runnable effect : effects) {
+            effect.run();
+        }
+    }
+}
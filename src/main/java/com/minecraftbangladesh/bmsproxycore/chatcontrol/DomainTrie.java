@@ -0,0 +1,106 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Set of domain names stored back to front, so a host can be checked against every
+ * entry in one walk from its last character without building a substring. An entry
+ * matches the domain itself and all of its subdomains.
+ */
+final class DomainTrie {
+
+    private final Node root = new Node();
+
+    DomainTrie(Collection<String> domains) {
+        for (String domain : domains) {
+            String name = domain.trim().toLowerCase(Locale.ROOT);
+            while (name.startsWith(".")) {
+                name = name.substring(1);
+            }
+            if (name.isEmpty()) {
+                continue;
+            }
+            Node node = root;
+            for (int i = name.length() - 1; i >= 0; i--) {
+                node = node.childOrCreate(name.charAt(i));
+            }
+            node.terminal = true;
+        }
+    }
+
+    /**
+     * Check whether a host is one of the domains or a subdomain of one
+     * @param text The text containing the host
+     * @param start The start of the host, inclusive
+     * @param end The end of the host, exclusive
+     * @return true if the host matches an entry
+     */
+    boolean matchesHost(CharSequence text, int start, int end) {
+        Node node = root;
+        for (int i = end - 1; i >= start; i--) {
+            node = node.child(Character.toLowerCase(text.charAt(i)));
+            if (node == null) {
+                return false;
+            }
+            if (node.terminal && (i == start || text.charAt(i - 1) == '.')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether a single label is one of the entries, such as a top-level domain
+     * @param text The text containing the label
+     * @param start The start of the label, inclusive
+     * @param end The end of the label, exclusive
+     * @return true if the label is an entry
+     */
+    boolean containsLabel(CharSequence text, int start, int end) {
+        Node node = root;
+        for (int i = end - 1; i >= start && node != null; i--) {
+            node = node.child(Character.toLowerCase(text.charAt(i)));
+        }
+        return node != null && node.terminal;
+    }
+
+    boolean isEmpty() {
+        return root.size == 0;
+    }
+
+    /**
+     * Trie node with its children in small parallel arrays; domains only use a few
+     * dozen distinct characters, so a linear scan is as fast as a map
+     */
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int size;
+        private boolean terminal;
+
+        Node child(char key) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node childOrCreate(char key) {
+            Node child = child(key);
+            if (child == null) {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, Math.max(2, size * 2));
+                    children = Arrays.copyOf(children, keys.length);
+                }
+                child = new Node();
+                keys[size] = key;
+                children[size++] = child;
+            }
+            return child;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.filter.FilterEngine;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.filter.RuleMonitor;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.filter.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Filter rule profiles selected by backend server. Each profile adds its own rules on top
+ * of the global rules for players on its servers. The global rules and the rules of every
+ * profile are compiled into one engine with a profile mask per rule, so a message is still
+ * scanned once no matter how many profiles there are.
+ */
+public final class FilterProfiles {
+
+    /**
+     * The profile of players on servers no other profile lists
+     */
+    public static final String DEFAULT_PROFILE = "default";
+
+    private static final FilterProfiles NONE = new FilterProfiles(Collections.singletonList(DEFAULT_PROFILE),
+            Collections.emptyMap(), Collections.singletonMap(DEFAULT_PROFILE, Collections.emptyMap()));
+
+    // Profile names by bit, the default profile first
+    private final List<String> names;
+    // Lower-cased server name to profile name
+    private final Map<String, String> serverProfiles;
+    // Profile name to its own rules and their compiled patterns, in rule order
+    private final Map<String, Map<String, Pattern>> rules;
+
+    private FilterProfiles(List<String> names, Map<String, String> serverProfiles, Map<String, Map<String, Pattern>> rules) {
+        this.names = names;
+        this.serverProfiles = serverProfiles;
+        this.rules = rules;
+    }
+
+    /**
+     * Get the profiles with no rules of their own
+     */
+    public static FilterProfiles none() {
+        return NONE;
+    }
+
+    /**
+     * Load the profiles from configuration
+     * @param plugin The plugin
+     * @param compiler Compiles a rule, returning null if it is invalid
+     * @return The loaded profiles
+     */
+    public static FilterProfiles load(BMSProxyCore plugin, Function<String, Pattern> compiler) {
+        List<String> names = new ArrayList<>();
+        names.add(DEFAULT_PROFILE);
+        Map<String, String> serverProfiles = new HashMap<>();
+        Map<String, Map<String, Pattern>> rules = new LinkedHashMap<>();
+        rules.put(DEFAULT_PROFILE, new LinkedHashMap<>());
+
+        for (String name : plugin.getConfigManager().getChatFilterProfileNames()) {
+            if (!DEFAULT_PROFILE.equals(name)) {
+                if (names.size() >= FilterEngine.MAX_PROFILES) {
+                    plugin.getLogger().warn("[ChatControl] Ignoring filter profile " + name + ": at most "
+                            + (FilterEngine.MAX_PROFILES - 1) + " profiles besides " + DEFAULT_PROFILE + " are supported");
+                    continue;
+                }
+                names.add(name);
+                rules.put(name, new LinkedHashMap<>());
+                for (String server : plugin.getConfigManager().getChatFilterProfileServers(name)) {
+                    String previous = serverProfiles.putIfAbsent(server.toLowerCase(Locale.ROOT), name);
+                    if (previous != null) {
+                        plugin.getLogger().warn("[ChatControl] Server " + server + " is listed by filter profiles "
+                                + previous + " and " + name + "; using " + previous);
+                    }
+                }
+            }
+
+            Map<String, Pattern> profileRules = rules.get(name);
+            for (String rule : plugin.getConfigManager().getChatFilterProfileRules(name)) {
+                if (profileRules.containsKey(rule)) {
+                    continue;
+                }
+                Pattern pattern = compiler.apply(rule);
+                if (pattern != null) {
+                    profileRules.put(rule, pattern);
+                } else {
+                    plugin.getLogger().warn("[ChatControl] Skipping invalid rule in filter profile " + name + ": " + rule);
+                }
+            }
+        }
+        return new FilterProfiles(Collections.unmodifiableList(names), serverProfiles, rules);
+    }
+
+    /**
+     * Get the profile for a backend server
+     * @param server The server name, or null if the player isn't on a server yet
+     * @return The name of the profile listing the server, or the default profile
+     */
+    public String getProfile(String server) {
+        if (server == null) {
+            return DEFAULT_PROFILE;
+        }
+        return serverProfiles.getOrDefault(server.toLowerCase(Locale.ROOT), DEFAULT_PROFILE);
+    }
+
+    /**
+     * Get the profile names, the default profile first
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Get the servers a profile is selected on
+     * @param profile The profile name
+     * @return The lower-cased server names
+     */
+    public List<String> getServers(String profile) {
+        List<String> servers = new ArrayList<>();
+        for (Map.Entry<String, String> entry : serverProfiles.entrySet()) {
+            if (entry.getValue().equals(profile)) {
+                servers.add(entry.getKey());
+            }
+        }
+        Collections.sort(servers);
+        return servers;
+    }
+
+    /**
+     * Get the rules a profile adds to the global rules
+     * @param profile The profile name
+     * @return The profile's own rules
+     */
+    public List<String> getRules(String profile) {
+        Map<String, Pattern> profileRules = rules.get(profile);
+        return profileRules != null ? new ArrayList<>(profileRules.keySet()) : Collections.emptyList();
+    }
+
+    /**
+     * Compile the global rules and every profile's rules into one engine. Global rules
+     * belong to every profile; a profile rule that is also a global rule or belongs to
+     * several profiles is compiled once with all their bits.
+     * @param globalRules The global rules, in priority order
+     * @param globalPatterns The compiled global patterns, parallel to globalRules
+     * @param useDfa Whether to compile supported rules into the combined DFA
+     * @param normalizer The normalizer to apply to messages before matching, or null for none
+     * @param monitor The monitor guarding regex rules
+     * @return The compiled engine
+     */
+    public FilterEngine compile(List<String> globalRules, List<Pattern> globalPatterns, boolean useDfa,
+                                TextNormalizer normalizer, RuleMonitor monitor) {
+        List<String> allRules = new ArrayList<>(globalRules);
+        List<Pattern> allPatterns = new ArrayList<>(globalPatterns);
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < globalRules.size(); i++) {
+            indexes.put(globalRules.get(i), i);
+        }
+        int total = globalRules.size();
+        for (Map<String, Pattern> profileRules : rules.values()) {
+            total += profileRules.size();
+        }
+        long[] masks = new long[total];
+        Arrays.fill(masks, 0, globalRules.size(), FilterEngine.ALL_PROFILES);
+
+        for (int bit = 0; bit < names.size(); bit++) {
+            for (Map.Entry<String, Pattern> entry : rules.get(names.get(bit)).entrySet()) {
+                Integer index = indexes.get(entry.getKey());
+                if (index == null) {
+                    index = allRules.size();
+                    indexes.put(entry.getKey(), index);
+                    allRules.add(entry.getKey());
+                    allPatterns.add(entry.getValue());
+                }
+                masks[index] |= 1L << bit;
+            }
+        }
+        return FilterEngine.compile(allRules, allPatterns, masks, names, useDfa, normalizer, monitor);
+    }
+}
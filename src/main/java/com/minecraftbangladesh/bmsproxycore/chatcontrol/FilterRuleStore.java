@@ -0,0 +1,145 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.velocitypowered.api.scheduler.ScheduledTask;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps filter-rules.yml and the live filter rules in step. Rule edits are written out
+ * after a short delay, so a burst of edits causes a single write, and the file is watched
+ * so edits made outside the game are applied without a reload.
+ */
+public class FilterRuleStore {
+
+    // Editors often write a file in several steps; wait for them to finish before reading it
+    private static final long RELOAD_DELAY_MILLIS = 500;
+
+    private final BMSProxyCore plugin;
+    private final Runnable onExternalChange;
+
+    private ScheduledTask pendingSave;
+    private ScheduledTask pendingReload;
+    private WatchService watchService;
+    private Thread watchThread;
+
+    /**
+     * @param plugin The plugin
+     * @param onExternalChange Reloads the file after it was edited outside the game
+     */
+    public FilterRuleStore(BMSProxyCore plugin, Runnable onExternalChange) {
+        this.plugin = plugin;
+        this.onExternalChange = onExternalChange;
+    }
+
+    /**
+     * Start watching the rules file for edits
+     */
+    public synchronized void start() {
+        if (watchThread != null || !plugin.getConfigManager().isChatFilterWatchEnabled()) {
+            return;
+        }
+        Path file = plugin.getConfigManager().getChatFilterRulesFile();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            file.toAbsolutePath().getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            plugin.getLogger().warn("[ChatControl] Could not watch " + file + " for changes: " + e.getMessage());
+            return;
+        }
+
+        WatchService service = watchService;
+        watchThread = new Thread(() -> watch(service, file.getFileName()), "BMSProxyCore-FilterRuleWatcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    private void watch(WatchService service, Path fileName) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (fileName.equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    scheduleReload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    /**
+     * Read the file once it has been quiet for a moment. Our own writes trigger this too;
+     * the config recognises the content it last wrote and reports no change.
+     */
+    private synchronized void scheduleReload() {
+        if (pendingReload != null) {
+            pendingReload.cancel();
+        }
+        pendingReload = plugin.getServer().getScheduler().buildTask(plugin, () -> {
+            synchronized (this) {
+                pendingReload = null;
+            }
+            onExternalChange.run();
+        }).delay(RELOAD_DELAY_MILLIS, TimeUnit.MILLISECONDS).schedule();
+    }
+
+    /**
+     * Write the rules out once no further edit arrives within the save delay
+     */
+    public synchronized void scheduleSave() {
+        if (pendingSave != null) {
+            pendingSave.cancel();
+        }
+        long delay = Math.max(0, plugin.getConfigManager().getChatFilterSaveDelayMillis());
+        pendingSave = plugin.getServer().getScheduler().buildTask(plugin, () -> {
+            synchronized (this) {
+                pendingSave = null;
+            }
+            if (!plugin.getConfigManager().saveChatFilterRules()) {
+                plugin.getLogger().error("[ChatControl] Failed to save filter rules to "
+                        + plugin.getConfigManager().getChatFilterRulesFile());
+            }
+        }).delay(delay, TimeUnit.MILLISECONDS).schedule();
+    }
+
+    /**
+     * Stop watching and write out any pending edits
+     */
+    public synchronized void shutdown() {
+        if (pendingSave != null) {
+            pendingSave.cancel();
+            pendingSave = null;
+        }
+        if (pendingReload != null) {
+            pendingReload.cancel();
+            pendingReload = null;
+        }
+        plugin.getConfigManager().saveChatFilterRules();
+
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+            watchService = null;
+        }
+        watchThread = null;
+    }
+}
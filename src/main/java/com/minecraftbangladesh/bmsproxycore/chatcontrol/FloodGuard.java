@@ -0,0 +1,386 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.utils.ConfigManager;
+import com.minecraftbangladesh.bmsproxycore.utils.MessageUtils;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.scheduler.ScheduledTask;
+import net.kyori.adventure.text.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Automatic chat lock for join and message floods. Logins and chat messages are counted
+ * in rolling one-second buckets; when either rate reaches its threshold within the window
+ * the chat is locked, either for everyone or only for accounts first seen on the network
+ * recently, and released once both rates have stayed below their thresholds for the
+ * release period. Every transition is written to an audit log.
+ */
+public class FloodGuard {
+
+    // Longest window the counters can cover
+    private static final int MAX_WINDOW_SECONDS = 300;
+
+    private static final DateTimeFormatter AUDIT_TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private final BMSProxyCore plugin;
+    private final ChatControlManager manager;
+    private final RateCounter joinCounter = new RateCounter(MAX_WINDOW_SECONDS);
+    private final RateCounter messageCounter = new RateCounter(MAX_WINDOW_SECONDS);
+
+    // When each player was first seen on the network, in epoch millis
+    private final Map<UUID, Long> firstSeen = new ConcurrentHashMap<>();
+
+    // Lines waiting to be appended by the evaluation task, off the event threads
+    private final Queue<String> pendingFirstSeen = new ConcurrentLinkedQueue<>();
+    private final Queue<String> pendingAudit = new ConcurrentLinkedQueue<>();
+
+    // Flood lock state, only changed while holding this object's lock
+    private volatile boolean active = false;
+    private volatile boolean youngAccountsOnly = false;
+    private boolean ownsChatLock = false;
+    private long engagedAt;
+    private long lastAnomalyAt;
+    private long peakJoins;
+    private long peakMessages;
+    private long holdOffUntil;
+
+    private ScheduledTask evaluationTask;
+
+    public FloodGuard(BMSProxyCore plugin, ChatControlManager manager) {
+        this.plugin = plugin;
+        this.manager = manager;
+    }
+
+    /**
+     * Load the first-seen records and start evaluating the rates every second
+     */
+    public void start() {
+        if (evaluationTask == null) {
+            loadFirstSeen();
+            evaluationTask = plugin.getServer().getScheduler().buildTask(plugin, this::tick)
+                    .delay(1, TimeUnit.SECONDS)
+                    .repeat(1, TimeUnit.SECONDS)
+                    .schedule();
+        }
+    }
+
+    /**
+     * Stop evaluating and write out anything still pending
+     */
+    public void shutdown() {
+        if (evaluationTask != null) {
+            evaluationTask.cancel();
+            evaluationTask = null;
+        }
+        flush();
+    }
+
+    /**
+     * Count a login and remember when the player was first seen
+     * @param player The player who logged in
+     */
+    public void recordJoin(Player player) {
+        joinCounter.increment();
+        long now = System.currentTimeMillis();
+        if (firstSeen.putIfAbsent(player.getUniqueId(), now) == null) {
+            pendingFirstSeen.add(player.getUniqueId() + " " + now);
+        }
+    }
+
+    /**
+     * Count a chat message. Called for every public chat message before any check runs,
+     * so a flood that is already being blocked keeps the lock engaged.
+     */
+    public void recordMessage() {
+        messageCounter.increment();
+    }
+
+    /**
+     * Check if a new-accounts-only flood lock blocks a player. A flood lock for everyone
+     * is the regular chat lock and isn't reported here.
+     * @param player The player
+     * @return true if the player may not chat because their account is new
+     */
+    public boolean isBlocking(Player player) {
+        return active && youngAccountsOnly && isYoungAccount(player);
+    }
+
+    /**
+     * Check if a player's account was first seen recently. Players seen before flood
+     * guard started recording count as new until their first login is recorded.
+     * @param player The player
+     * @return true if the account is younger than the configured age
+     */
+    public boolean isYoungAccount(Player player) {
+        Long seen = firstSeen.get(player.getUniqueId());
+        if (seen == null) {
+            return true;
+        }
+        long minutes = Math.max(0, plugin.getConfigManager().getChatFloodGuardYoungAccountMinutes());
+        return System.currentTimeMillis() - seen < TimeUnit.MINUTES.toMillis(minutes);
+    }
+
+    private void tick() {
+        evaluate();
+        flush();
+    }
+
+    /**
+     * Compare the current rates with the thresholds and engage or release the lock
+     */
+    private synchronized void evaluate() {
+        ConfigManager config = plugin.getConfigManager();
+        long now = System.currentTimeMillis();
+        if (!config.isChatFloodGuardEnabled()) {
+            if (active) {
+                release(now, "flood guard disabled");
+            }
+            return;
+        }
+
+        // Staff unlocked chat while it was locked for a flood
+        if (active && ownsChatLock && !manager.isChatLocked()) {
+            overridden(now, "chat unlocked manually");
+            return;
+        }
+
+        int window = Math.max(1, Math.min(MAX_WINDOW_SECONDS, config.getChatFloodGuardWindowSeconds()));
+        long joins = joinCounter.sum(window);
+        long messages = messageCounter.sum(window);
+        int joinThreshold = config.getChatFloodGuardJoinThreshold();
+        int messageThreshold = config.getChatFloodGuardMessageThreshold();
+        boolean joinFlood = joinThreshold > 0 && joins >= joinThreshold;
+        boolean messageFlood = messageThreshold > 0 && messages >= messageThreshold;
+
+        if (joinFlood || messageFlood) {
+            lastAnomalyAt = now;
+            if (active) {
+                peakJoins = Math.max(peakJoins, joins);
+                peakMessages = Math.max(peakMessages, messages);
+            } else if (now >= holdOffUntil) {
+                String reason = joinFlood && messageFlood ? "join and message flood"
+                        : joinFlood ? "join flood" : "message flood";
+                engage(now, reason, joins, messages, window, config.isChatFloodGuardYoungAccountsOnly());
+            }
+        } else if (active && now - lastAnomalyAt >= TimeUnit.SECONDS.toMillis(Math.max(0, config.getChatFloodGuardReleaseSeconds()))) {
+            release(now, "rates back to normal");
+        }
+    }
+
+    private void engage(long now, String reason, long joins, long messages, int window, boolean youngOnly) {
+        active = true;
+        youngAccountsOnly = youngOnly;
+        engagedAt = now;
+        peakJoins = joins;
+        peakMessages = messages;
+        if (!youngOnly && !manager.isChatLocked()) {
+            manager.setChatLocked(true);
+            ownsChatLock = true;
+        } else {
+            ownsChatLock = false;
+        }
+
+        String scope = youngOnly ? "new accounts" : "everyone";
+        String details = reason + ": " + joins + " joins and " + messages + " messages in " + window + "s";
+        if (!youngOnly && !ownsChatLock) {
+            audit("ENGAGED (chat already locked, left to staff) " + details);
+        } else {
+            audit("ENGAGED for " + scope + " " + details);
+            String template = youngOnly
+                    ? plugin.getConfigManager().getChatFloodGuardYoungLockedMessage()
+                    : plugin.getConfigManager().getChatFloodGuardLockedMessage();
+            broadcast(template.replace("{reason}", reason));
+        }
+        notifyStaff(plugin.getConfigManager().getChatFloodGuardEngagedNotifyMessage()
+                .replace("{scope}", scope)
+                .replace("{reason}", reason)
+                .replace("{joins}", String.valueOf(joins))
+                .replace("{messages}", String.valueOf(messages))
+                .replace("{window}", String.valueOf(window)));
+    }
+
+    private void release(long now, String reason) {
+        boolean announce = ownsChatLock || youngAccountsOnly;
+        if (ownsChatLock && manager.isChatLocked()) {
+            manager.setChatLocked(false);
+        }
+        audit("RELEASED (" + reason + ") after " + TimeUnit.MILLISECONDS.toSeconds(now - engagedAt)
+                + "s, peak " + peakJoins + " joins and " + peakMessages + " messages per window");
+        reset();
+        if (announce) {
+            broadcast(plugin.getConfigManager().getChatFloodGuardReleasedMessage());
+        }
+        notifyStaff(plugin.getConfigManager().getChatFloodGuardReleasedNotifyMessage().replace("{reason}", reason));
+    }
+
+    /**
+     * Staff took over: drop the flood lock without touching the chat lock, and hold off
+     * engaging again for one release period so the lock isn't immediately reinstated
+     */
+    private void overridden(long now, String reason) {
+        holdOffUntil = now + TimeUnit.SECONDS.toMillis(Math.max(0, plugin.getConfigManager().getChatFloodGuardReleaseSeconds()));
+        audit("OVERRIDDEN (" + reason + ") after " + TimeUnit.MILLISECONDS.toSeconds(now - engagedAt) + "s");
+        reset();
+    }
+
+    private void reset() {
+        active = false;
+        youngAccountsOnly = false;
+        ownsChatLock = false;
+        peakJoins = 0;
+        peakMessages = 0;
+    }
+
+    /**
+     * Record a manual chat lock change, and hand control of the lock back to staff
+     * @param locked The new chat lock state
+     * @param actor Who changed it
+     */
+    public synchronized void handleManualToggle(boolean locked, String actor) {
+        if (!plugin.getConfigManager().isChatFloodGuardEnabled() && !active) {
+            return;
+        }
+        audit("MANUAL " + (locked ? "lock" : "unlock") + " by " + actor);
+        if (active && (!locked || ownsChatLock)) {
+            overridden(System.currentTimeMillis(), (locked ? "chat locked" : "chat unlocked") + " by " + actor);
+        }
+    }
+
+    private void broadcast(String message) {
+        Component formatted = MessageUtils.formatMessage(message);
+        for (Player player : plugin.getServer().getAllPlayers()) {
+            player.sendMessage(formatted);
+        }
+    }
+
+    private void notifyStaff(String message) {
+        String notifyPermission = plugin.getConfigManager().getChatFloodGuardNotifyPermission();
+        if (notifyPermission.isEmpty()) {
+            return;
+        }
+        Component formatted = MessageUtils.formatMessage(message);
+        for (Player staff : plugin.getServer().getAllPlayers()) {
+            if (plugin.getPermissionCache().hasPermission(staff, notifyPermission)) {
+                staff.sendMessage(formatted);
+            }
+        }
+    }
+
+    private void audit(String entry) {
+        plugin.getLogger().info("[FloodGuard] " + entry);
+        pendingAudit.add("[" + AUDIT_TIME_FORMAT.format(Instant.now()) + "] " + entry);
+    }
+
+    /**
+     * Append pending audit entries and first-seen records to their files
+     */
+    private void flush() {
+        ConfigManager config = plugin.getConfigManager();
+        append(pendingAudit, config.getChatFloodGuardAuditFile(), "flood guard audit log");
+        append(pendingFirstSeen, config.getChatFloodGuardFirstSeenFile(), "first-seen records");
+    }
+
+    private synchronized void append(Queue<String> lines, String fileName, String description) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        Path file = plugin.getDataDirectory().resolve(fileName);
+        try {
+            Path parent = file.getParent();
+            if (parent != null && !Files.exists(parent)) {
+                Files.createDirectories(parent);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                String line;
+                while ((line = lines.poll()) != null) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().error("Failed to write " + description + " to " + file, e);
+        }
+    }
+
+    private void loadFirstSeen() {
+        Path file = plugin.getDataDirectory().resolve(plugin.getConfigManager().getChatFloodGuardFirstSeenFile());
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int space = line.indexOf(' ');
+                if (space <= 0) {
+                    continue;
+                }
+                try {
+                    firstSeen.merge(UUID.fromString(line.substring(0, space)),
+                            Long.parseLong(line.substring(space + 1).trim()), Math::min);
+                } catch (IllegalArgumentException e) {
+                    // Skip damaged lines rather than losing the rest of the file
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().error("Failed to load first-seen records from " + file, e);
+        }
+    }
+
+    /**
+     * Check if a flood lock is currently engaged
+     * @return true while engaged
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Check if the current flood lock only applies to new accounts
+     * @return true if only new accounts are locked
+     */
+    public boolean isYoungAccountsOnly() {
+        return youngAccountsOnly;
+    }
+
+    /**
+     * Get logins counted within the configured window
+     * @return Number of logins
+     */
+    public long getJoinRate() {
+        return joinCounter.sum(Math.min(MAX_WINDOW_SECONDS, plugin.getConfigManager().getChatFloodGuardWindowSeconds()));
+    }
+
+    /**
+     * Get chat messages counted within the configured window
+     * @return Number of messages
+     */
+    public long getMessageRate() {
+        return messageCounter.sum(Math.min(MAX_WINDOW_SECONDS, plugin.getConfigManager().getChatFloodGuardWindowSeconds()));
+    }
+
+    /**
+     * Get the number of players with a first-seen record
+     * @return Number of known players
+     */
+    public int getKnownPlayerCount() {
+        return firstSeen.size();
+    }
+}
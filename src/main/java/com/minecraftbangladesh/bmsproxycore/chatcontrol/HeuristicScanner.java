@@ -0,0 +1,440 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.utils.ConfigManager;
+
+import java.util.Locale;
+
+/**
+ * Structural checks run on every chat message: excessive capitals, long runs of the same
+ * character, words mixing look-alike scripts (homoglyph spam) or stacking combining marks,
+ * and links or IP addresses to domains that aren't allowed. Every heuristic is computed in
+ * the same single pass over the message, and the pass doesn't allocate: counters live in a
+ * per-thread result, and hosts are checked against tries without building substrings.
+ */
+public class HeuristicScanner {
+
+    /**
+     * The heuristics, in the order their actions are applied
+     */
+    public enum Heuristic {
+        CAPS("caps", "fix", "too many capital letters"),
+        REPEATED_CHARACTERS("repeated-characters", "fix", "too many repeated characters"),
+        MIXED_SCRIPTS("mixed-scripts", "block", "suspicious unicode characters"),
+        LINKS("links", "block", "links are not allowed");
+
+        private final String configKey;
+        private final String defaultAction;
+        private final String defaultReason;
+
+        Heuristic(String configKey, String defaultAction, String defaultReason) {
+            this.configKey = configKey;
+            this.defaultAction = defaultAction;
+            this.defaultReason = defaultReason;
+        }
+
+        public String getConfigKey() {
+            return configKey;
+        }
+
+        public String getDefaultAction() {
+            return defaultAction;
+        }
+
+        public String getDefaultReason() {
+            return defaultReason;
+        }
+    }
+
+    // Scripts with letters that render like Latin ones, as bits of a word's script mask
+    private static final int SCRIPT_LATIN = 1;
+    private static final int SCRIPT_CYRILLIC = 1 << 1;
+    private static final int SCRIPT_GREEK = 1 << 2;
+    private static final int SCRIPT_OTHER_CONFUSABLE = 1 << 3;
+
+    // What a run of host characters turned out to be
+    private static final int NOT_A_LINK = 0;
+    private static final int ALLOWED_LINK = 1;
+    private static final int BLOCKED_LINK = 2;
+    private static final int IP_ADDRESS = 3;
+
+    private final BMSProxyCore plugin;
+    private volatile Settings settings;
+    private final ThreadLocal<Result> results = ThreadLocal.withInitial(Result::new);
+
+    public HeuristicScanner(BMSProxyCore plugin) {
+        this.plugin = plugin;
+        reload();
+    }
+
+    /**
+     * Read the thresholds and domain lists from configuration
+     */
+    public void reload() {
+        settings = new Settings(plugin.getConfigManager());
+    }
+
+    /**
+     * Scan a message. The returned result belongs to the calling thread and is reused
+     * by its next scan.
+     * @param message The message to scan
+     * @return What the scan found, with the heuristics the message triggers
+     */
+    public Result scan(String message) {
+        Settings current = settings;
+        Result result = results.get();
+        result.reset();
+
+        int runChar = -1;
+        int run = 0;
+        int marks = 0;
+        int wordScripts = 0;
+        int hostStart = -1;
+        int length = message.length();
+        for (int i = 0; i < length; ) {
+            int cp = Character.codePointAt(message, i);
+            int type = Character.getType(cp);
+            boolean letter = Character.isLetter(cp);
+
+            if (letter) {
+                result.letters++;
+                if (Character.isUpperCase(cp)) {
+                    result.uppercase++;
+                }
+            }
+
+            if (Character.isWhitespace(cp)) {
+                runChar = -1;
+                run = 0;
+            } else {
+                int folded = Character.toLowerCase(cp);
+                run = folded == runChar ? run + 1 : 1;
+                runChar = folded;
+                result.longestRun = Math.max(result.longestRun, run);
+            }
+
+            boolean mark = type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK;
+            marks = mark ? marks + 1 : 0;
+            result.longestMarkRun = Math.max(result.longestMarkRun, marks);
+            if (letter) {
+                wordScripts |= scriptOf(cp);
+            } else if (!mark && !Character.isDigit(cp)) {
+                countWord(result, wordScripts);
+                wordScripts = 0;
+            }
+
+            if (isHostChar(cp)) {
+                if (hostStart < 0) {
+                    hostStart = i;
+                }
+            } else if (hostStart >= 0) {
+                countHost(result, classifyHost(message, hostStart, i, current));
+                hostStart = -1;
+            }
+
+            i += Character.charCount(cp);
+        }
+        countWord(result, wordScripts);
+        if (hostStart >= 0) {
+            countHost(result, classifyHost(message, hostStart, length, current));
+        }
+
+        if (current.capsEnabled && result.letters >= current.capsMinLetters
+                && result.uppercase * 100L > (long) current.capsMaxPercent * result.letters) {
+            result.trigger(Heuristic.CAPS);
+        }
+        if (current.repeatsEnabled && result.longestRun > current.repeatsMaxRun) {
+            result.trigger(Heuristic.REPEATED_CHARACTERS);
+        }
+        if (current.scriptsEnabled && (result.mixedScriptWords > current.scriptsMaxWords
+                || result.longestMarkRun > current.scriptsMaxMarks)) {
+            result.trigger(Heuristic.MIXED_SCRIPTS);
+        }
+        if (current.linksEnabled && (result.blockedLinks > 0 || (current.blockIps && result.ipAddresses > 0))) {
+            result.trigger(Heuristic.LINKS);
+        }
+        return result;
+    }
+
+    /**
+     * Rewrite a message so it no longer triggers a heuristic
+     * @param heuristic The heuristic the message triggered
+     * @param message The message
+     * @return The rewritten message, or null if the heuristic can't be fixed
+     */
+    public String fix(Heuristic heuristic, String message) {
+        Settings current = settings;
+        switch (heuristic) {
+            case CAPS:
+                return message.toLowerCase(Locale.ROOT);
+            case REPEATED_CHARACTERS:
+                return collapseRuns(message, Math.max(1, current.repeatsMaxRun));
+            case LINKS:
+                return replaceLinks(message, current);
+            default:
+                return null;
+        }
+    }
+
+    private static void countWord(Result result, int wordScripts) {
+        if (Integer.bitCount(wordScripts) > 1) {
+            result.mixedScriptWords++;
+        }
+    }
+
+    private static void countHost(Result result, int host) {
+        if (host == ALLOWED_LINK) {
+            result.links++;
+        } else if (host == BLOCKED_LINK) {
+            result.links++;
+            result.blockedLinks++;
+        } else if (host == IP_ADDRESS) {
+            result.ipAddresses++;
+        }
+    }
+
+    private static int scriptOf(int cp) {
+        if (cp < 0x80) {
+            return SCRIPT_LATIN;
+        }
+        switch (Character.UnicodeScript.of(cp)) {
+            case LATIN:
+                return SCRIPT_LATIN;
+            case CYRILLIC:
+                return SCRIPT_CYRILLIC;
+            case GREEK:
+                return SCRIPT_GREEK;
+            case ARMENIAN:
+            case CHEROKEE:
+                return SCRIPT_OTHER_CONFUSABLE;
+            default:
+                return 0; // Scripts without Latin look-alikes may be mixed freely
+        }
+    }
+
+    private static boolean isHostChar(int cp) {
+        return (cp >= 'a' && cp <= 'z') || (cp >= 'A' && cp <= 'Z') || (cp >= '0' && cp <= '9') || cp == '.' || cp == '-';
+    }
+
+    /**
+     * Decide whether a run of host characters is a link, and whether it is allowed
+     */
+    private static int classifyHost(CharSequence text, int start, int end, Settings current) {
+        // Sentence punctuation isn't part of the host: "see example.com."
+        while (start < end && (text.charAt(start) == '.' || text.charAt(start) == '-')) {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) == '.') {
+            end--;
+        }
+
+        int dots = 0;
+        int lastDot = -1;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '.') {
+                dots++;
+                lastDot = i;
+            }
+        }
+        if (dots == 0 || lastDot == start) {
+            return NOT_A_LINK;
+        }
+        if (dots == 3 && isIpv4(text, start, end)) {
+            return IP_ADDRESS;
+        }
+
+        int tldLength = end - lastDot - 1;
+        if (tldLength < 2) {
+            return NOT_A_LINK;
+        }
+        for (int i = lastDot + 1; i < end; i++) {
+            if (!Character.isLetter(text.charAt(i))) {
+                return NOT_A_LINK;
+            }
+        }
+        if (!current.tlds.isEmpty() && !current.tlds.containsLabel(text, lastDot + 1, end)) {
+            return NOT_A_LINK; // "hello.there" is a typo, not a link
+        }
+        return current.allowedDomains.matchesHost(text, start, end) ? ALLOWED_LINK : BLOCKED_LINK;
+    }
+
+    private static boolean isIpv4(CharSequence text, int start, int end) {
+        int value = 0;
+        int digits = 0;
+        for (int i = start; i <= end; i++) {
+            char c = i < end ? text.charAt(i) : '.';
+            if (c == '.') {
+                if (digits == 0 || value > 255) {
+                    return false;
+                }
+                value = 0;
+                digits = 0;
+            } else if (c >= '0' && c <= '9' && digits < 3) {
+                value = value * 10 + (c - '0');
+                digits++;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String collapseRuns(String message, int maxRun) {
+        StringBuilder result = new StringBuilder(message.length());
+        int runChar = -1;
+        int run = 0;
+        for (int i = 0; i < message.length(); ) {
+            int cp = message.codePointAt(i);
+            int folded = Character.isWhitespace(cp) ? -1 : Character.toLowerCase(cp);
+            run = folded != -1 && folded == runChar ? run + 1 : 1;
+            runChar = folded;
+            if (run <= maxRun) {
+                result.appendCodePoint(cp);
+            }
+            i += Character.charCount(cp);
+        }
+        return result.toString();
+    }
+
+    private static String replaceLinks(String message, Settings current) {
+        StringBuilder result = new StringBuilder(message.length());
+        int copied = 0;
+        int hostStart = -1;
+        for (int i = 0; i <= message.length(); i++) {
+            boolean hostChar = i < message.length() && isHostChar(message.charAt(i));
+            if (hostChar) {
+                if (hostStart < 0) {
+                    hostStart = i;
+                }
+                continue;
+            }
+            if (hostStart >= 0) {
+                int host = classifyHost(message, hostStart, i, current);
+                if (host == BLOCKED_LINK || (host == IP_ADDRESS && current.blockIps)) {
+                    int end = i;
+                    while (end > hostStart && message.charAt(end - 1) == '.') {
+                        end--;
+                    }
+                    result.append(message, copied, hostStart).append(current.linkReplacement);
+                    copied = end;
+                }
+                hostStart = -1;
+            }
+        }
+        result.append(message, copied, message.length());
+        return result.toString();
+    }
+
+    /**
+     * What a scan found in a message
+     */
+    public static final class Result {
+        private int letters;
+        private int uppercase;
+        private int longestRun;
+        private int longestMarkRun;
+        private int mixedScriptWords;
+        private int links;
+        private int blockedLinks;
+        private int ipAddresses;
+        private int triggered;
+
+        void reset() {
+            letters = 0;
+            uppercase = 0;
+            longestRun = 0;
+            longestMarkRun = 0;
+            mixedScriptWords = 0;
+            links = 0;
+            blockedLinks = 0;
+            ipAddresses = 0;
+            triggered = 0;
+        }
+
+        void trigger(Heuristic heuristic) {
+            triggered |= 1 << heuristic.ordinal();
+        }
+
+        /**
+         * Check whether the message triggered any heuristic
+         */
+        public boolean isTriggered() {
+            return triggered != 0;
+        }
+
+        /**
+         * Check whether the message triggered a heuristic
+         * @param heuristic The heuristic
+         */
+        public boolean isTriggered(Heuristic heuristic) {
+            return (triggered & (1 << heuristic.ordinal())) != 0;
+        }
+
+        public int getLetters() {
+            return letters;
+        }
+
+        public int getUppercase() {
+            return uppercase;
+        }
+
+        public int getLongestRun() {
+            return longestRun;
+        }
+
+        public int getLongestMarkRun() {
+            return longestMarkRun;
+        }
+
+        public int getMixedScriptWords() {
+            return mixedScriptWords;
+        }
+
+        public int getLinks() {
+            return links;
+        }
+
+        public int getBlockedLinks() {
+            return blockedLinks;
+        }
+
+        public int getIpAddresses() {
+            return ipAddresses;
+        }
+    }
+
+    /**
+     * Thresholds and domain lists read once per reload rather than on every message
+     */
+    private static final class Settings {
+        final boolean capsEnabled;
+        final int capsMinLetters;
+        final int capsMaxPercent;
+        final boolean repeatsEnabled;
+        final int repeatsMaxRun;
+        final boolean scriptsEnabled;
+        final int scriptsMaxWords;
+        final int scriptsMaxMarks;
+        final boolean linksEnabled;
+        final boolean blockIps;
+        final String linkReplacement;
+        final DomainTrie allowedDomains;
+        final DomainTrie tlds;
+
+        Settings(ConfigManager config) {
+            capsEnabled = config.isChatHeuristicEnabled(Heuristic.CAPS.getConfigKey());
+            capsMinLetters = config.getChatHeuristicsCapsMinLetters();
+            capsMaxPercent = config.getChatHeuristicsCapsMaxPercent();
+            repeatsEnabled = config.isChatHeuristicEnabled(Heuristic.REPEATED_CHARACTERS.getConfigKey());
+            repeatsMaxRun = config.getChatHeuristicsRepeatsMaxRun();
+            scriptsEnabled = config.isChatHeuristicEnabled(Heuristic.MIXED_SCRIPTS.getConfigKey());
+            scriptsMaxWords = config.getChatHeuristicsScriptsMaxWords();
+            scriptsMaxMarks = config.getChatHeuristicsScriptsMaxMarks();
+            linksEnabled = config.isChatHeuristicEnabled(Heuristic.LINKS.getConfigKey());
+            blockIps = config.isChatHeuristicsLinksBlockIps();
+            linkReplacement = config.getChatHeuristicsLinksReplacement();
+            allowedDomains = new DomainTrie(config.getChatHeuristicsLinksAllowedDomains());
+            tlds = new DomainTrie(config.getChatHeuristicsLinksTlds());
+        }
+    }
+}
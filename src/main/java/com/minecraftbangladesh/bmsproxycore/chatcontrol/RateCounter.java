@@ -0,0 +1,62 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free sliding window counter over one-second buckets. Each bucket packs the
+ * second it belongs to in its high 32 bits and its count in the low 32 bits, so a
+ * stale bucket is recognised and restarted by whichever increment reaches it first.
+ */
+final class RateCounter {
+
+    private final AtomicLongArray buckets;
+
+    /**
+     * @param seconds The longest window the counter can report on
+     */
+    RateCounter(int seconds) {
+        buckets = new AtomicLongArray(seconds);
+    }
+
+    void increment() {
+        long second = currentSecond();
+        int index = (int) (second % buckets.length());
+        while (true) {
+            long packed = buckets.get(index);
+            long updated = (packed >>> 32) == second ? packed + 1 : (second << 32) | 1;
+            if (buckets.compareAndSet(index, packed, updated)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Count events over the whole window
+     */
+    long sum() {
+        return sum(buckets.length());
+    }
+
+    /**
+     * Count events over the last few seconds, including the current one
+     * @param seconds The window length, capped at the counter's length
+     */
+    long sum(int seconds) {
+        long second = currentSecond();
+        int window = Math.max(1, Math.min(seconds, buckets.length()));
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            long packed = buckets.get(i);
+            long age = (second - (packed >>> 32)) & 0xFFFFFFFFL;
+            if (packed != 0 && age < window) {
+                total += packed & 0xFFFFFFFFL;
+            }
+        }
+        return total;
+    }
+
+    private static long currentSecond() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime()) & 0xFFFFFFFFL;
+    }
+}
@@ -0,0 +1,229 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol;
+
+import com.minecraftbangladesh.bmsproxycore.utils.CooldownService;
+
+import java.util.UUID;
+
+/**
+ * Per-player chat rate limiter. Every player's state is a single packed long kept in a
+ * {@link CooldownService} table, expiring once it is equivalent to having no state.
+ *
+ * <p>Limits are given as an interval, the average gap between messages a player's
+ * permission tier allows. Each mode reads it differently:</p>
+ * <ul>
+ *   <li>{@link Mode#COOLDOWN}: a fixed gap of one interval after every message</li>
+ *   <li>{@link Mode#TOKEN_BUCKET}: one message regained per interval, with room for a
+ *   burst of several messages in a row</li>
+ *   <li>{@link Mode#SLIDING_WINDOW}: at most window / interval messages in any window</li>
+ * </ul>
+ */
+public class RateLimiter {
+
+    /**
+     * How the interval is enforced
+     */
+    public enum Mode {
+        COOLDOWN("cooldown"),
+        TOKEN_BUCKET("token-bucket"),
+        SLIDING_WINDOW("sliding-window");
+
+        private final String configName;
+
+        Mode(String configName) {
+            this.configName = configName;
+        }
+
+        public String getConfigName() {
+            return configName;
+        }
+
+        /**
+         * Parse a mode from the config
+         * @param name The configured name
+         * @return The mode, or COOLDOWN if the name is unknown
+         */
+        public static Mode fromConfig(String name) {
+            for (Mode mode : values()) {
+                if (mode.configName.equalsIgnoreCase(name)) {
+                    return mode;
+                }
+            }
+            return COOLDOWN;
+        }
+    }
+
+    // Sliding window state: window index in the high 32 bits, then the current and previous window counts
+    private static final int COUNT_BITS = 16;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    // Times are on the CooldownService clock, which never reads 0, so 0 means "no state"
+    private final CooldownService.Table states;
+    private volatile Mode mode = Mode.COOLDOWN;
+
+    public RateLimiter(CooldownService.Table states) {
+        this.states = states;
+    }
+
+    /**
+     * Switch the limiting mode. Players' state is dropped when the mode changes, since
+     * each mode packs it differently.
+     * @param newMode The mode to use
+     */
+    public void setMode(Mode newMode) {
+        if (mode != newMode) {
+            mode = newMode;
+            states.clear();
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Get how long a player has to wait before their next message is allowed
+     * @param playerId The player
+     * @param intervalMillis The player's interval, or 0 for no limit
+     * @param burst Messages a full token bucket holds
+     * @param windowMillis Length of the sliding window
+     * @return The wait in milliseconds, 0 if a message is allowed now
+     */
+    public long getWaitMillis(UUID playerId, long intervalMillis, int burst, long windowMillis) {
+        if (intervalMillis <= 0) {
+            return 0;
+        }
+        long packed = states.get(playerId);
+        if (packed == 0) {
+            return 0;
+        }
+        long now = CooldownService.now();
+        switch (mode) {
+            case TOKEN_BUCKET:
+                return Math.max(0, packed - burstTolerance(intervalMillis, burst) - now);
+            case SLIDING_WINDOW:
+                return slidingWindowWait(packed, now, intervalMillis, windowMillis);
+            default:
+                return Math.max(0, packed + intervalMillis - now);
+        }
+    }
+
+    /**
+     * Record a message a player sent
+     * @param playerId The player
+     * @param intervalMillis The player's interval, or 0 for no limit
+     * @param windowMillis Length of the sliding window
+     */
+    public void record(UUID playerId, long intervalMillis, long windowMillis) {
+        if (intervalMillis <= 0) {
+            return;
+        }
+        long now = CooldownService.now();
+        switch (mode) {
+            case TOKEN_BUCKET:
+                // Generic cell rate algorithm: the state is the time the bucket will be full again
+                states.update(playerId, packed -> Math.max(packed, now) + intervalMillis, full -> full);
+                break;
+            case SLIDING_WINDOW:
+                long window = Math.max(1, windowMillis);
+                states.update(playerId, packed -> slidingWindowRecord(packed, now, window),
+                        packed -> ((packed >>> 32) + 2) * window);
+                break;
+            default:
+                states.update(playerId, packed -> now, last -> last + intervalMillis);
+                break;
+        }
+    }
+
+    /**
+     * How far the token bucket's full time may run ahead of now before it is empty
+     */
+    private static long burstTolerance(long intervalMillis, int burst) {
+        return intervalMillis * (Math.max(1, burst) - 1);
+    }
+
+    private static long slidingWindowRecord(long packed, long now, long windowMillis) {
+        long window = Math.max(1, windowMillis);
+        long index = now / window;
+        long stateIndex = packed >>> 32;
+        long currentCount = (packed >>> COUNT_BITS) & COUNT_MASK;
+        long previousCount = packed & COUNT_MASK;
+
+        if (packed == 0 || index - stateIndex > 1) {
+            currentCount = 0;
+            previousCount = 0;
+        } else if (index != stateIndex) {
+            previousCount = currentCount;
+            currentCount = 0;
+        }
+        currentCount = Math.min(COUNT_MASK, currentCount + 1);
+        return (index << 32) | (currentCount << COUNT_BITS) | previousCount;
+    }
+
+    /**
+     * The sliding window count is estimated from two fixed windows: the previous window's
+     * count weighted by how much of it still overlaps the sliding window, plus the current count.
+     */
+    private static long slidingWindowWait(long packed, long now, long intervalMillis, long windowMillis) {
+        long window = Math.max(1, windowMillis);
+        long limit = Math.max(1, window / intervalMillis);
+        long index = now / window;
+        long stateIndex = packed >>> 32;
+        long currentCount = (packed >>> COUNT_BITS) & COUNT_MASK;
+        long previousCount = packed & COUNT_MASK;
+
+        if (index - stateIndex > 1) {
+            return 0;
+        }
+        if (index != stateIndex) {
+            previousCount = currentCount;
+            currentCount = 0;
+        }
+
+        long elapsed = now - index * window;
+        if (currentCount < limit) {
+            if (previousCount == 0) {
+                return 0;
+            }
+            // Wait until the previous window's weighted share leaves room for one more message
+            long needed = firstAllowedElapsed(window, previousCount, limit - currentCount);
+            return Math.max(0, needed - elapsed);
+        }
+        // The current window is full; wait for it to become the previous window and decay enough
+        return window - elapsed + firstAllowedElapsed(window, currentCount, limit);
+    }
+
+    /**
+     * Find the first millisecond into a window at which a message is allowed, which is when
+     * previousCount * (window - elapsed) / window < free: the weighted estimate is strictly
+     * below the limit, the same inequality that admits a message
+     * @return The elapsed time in milliseconds, 0 or less if a message is allowed right away
+     */
+    private static long firstAllowedElapsed(long window, long previousCount, long free) {
+        long share = window * free;
+        long ceilShare = (share + previousCount - 1) / previousCount;
+        return window - ceilShare + 1;
+    }
+
+    /**
+     * Forget a player's state
+     * @param playerId The player
+     */
+    public void remove(UUID playerId) {
+        states.remove(playerId);
+    }
+
+    /**
+     * Forget every player's state
+     */
+    public void clear() {
+        states.clear();
+    }
+
+    /**
+     * Get the number of players with limiter state
+     * @return Number of tracked players
+     */
+    public int getTrackedPlayerCount() {
+        return states.size();
+    }
+}
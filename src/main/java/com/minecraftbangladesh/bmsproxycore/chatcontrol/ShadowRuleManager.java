@@ -0,0 +1,216 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.filter.FilterEngine;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.filter.RuleMonitor;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.filter.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Filter rules in shadow mode. Shadow rules are evaluated against a sample of live chat
+ * on a background thread and only record matches and timing; they never block or change
+ * a chat event. Once a shadow rule looks right it can be promoted to an enforced rule.
+ */
+public class ShadowRuleManager {
+
+    private final BMSProxyCore plugin;
+
+    // Creates the same normalizer the enforced rules use, so shadow hits predict enforcement
+    private final Supplier<TextNormalizer> normalizerFactory;
+
+    // Shadow rules, replaced copy-on-write under ruleLock, and the engine compiled from them
+    private final Object ruleLock = new Object();
+    private volatile List<String> rules = Collections.emptyList();
+    private volatile List<Pattern> patterns = Collections.emptyList();
+    private volatile FilterEngine engine = FilterEngine.compile(Collections.emptyList(), Collections.emptyList());
+
+    // Hits and regex timing per shadow rule
+    private final RuleMonitor monitor;
+
+    // Single worker with a bounded queue; samples are dropped when it falls behind
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder sampledMessages = new LongAdder();
+    private final LongAdder droppedMessages = new LongAdder();
+    private final ChatControlMetrics.LatencyHistogram evaluationLatency = new ChatControlMetrics.LatencyHistogram();
+
+    /**
+     * @param plugin The plugin
+     * @param normalizerFactory Creates the normalizer of the enforced filter engine, or null if normalization is off
+     */
+    public ShadowRuleManager(BMSProxyCore plugin, Supplier<TextNormalizer> normalizerFactory) {
+        this.plugin = plugin;
+        this.normalizerFactory = normalizerFactory;
+        this.monitor = new RuleMonitor(plugin.getConfigManager().getChatFilterRuleTimeBudget(), (rule, elapsedNanos) ->
+                plugin.getLogger().warn("[ChatControl] Quarantined shadow rule " + rule + " after it ran for "
+                        + (elapsedNanos / 1_000_000L) + "ms on a single message"));
+
+        int queueSize = Math.max(1, plugin.getConfigManager().getChatFilterShadowQueueSize());
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), r -> {
+            Thread thread = new Thread(r, "BMSProxyCore-Shadow-Filter");
+            thread.setDaemon(true);
+            return thread;
+        }, (task, pool) -> droppedMessages.increment());
+    }
+
+    /**
+     * Queue a chat message for shadow evaluation if it is sampled. Never blocks.
+     * @param message The message as sent
+     */
+    public void sample(String message) {
+        if (rules.isEmpty()) {
+            return;
+        }
+
+        int samplePercent = plugin.getConfigManager().getChatFilterShadowSamplePercent();
+        if (samplePercent <= 0 || (samplePercent < 100 && ThreadLocalRandom.current().nextInt(100) >= samplePercent)) {
+            return;
+        }
+
+        executor.execute(() -> evaluate(message));
+    }
+
+    /**
+     * Evaluate every shadow rule against a sampled message
+     * @param message The sampled message
+     */
+    private void evaluate(String message) {
+        long start = System.nanoTime();
+        int matched = engine.recordAllMatches(message);
+        evaluationLatency.record(System.nanoTime() - start);
+        sampledMessages.increment();
+
+        if (matched > 0 && plugin.getConfigManager().isChatControlDebugEnabled()) {
+            plugin.getLogger().info("[ChatControl-Debug] " + matched + " shadow rule(s) matched: " + message);
+        }
+    }
+
+    /**
+     * Add a shadow rule
+     * @param rule The regex pattern to add
+     * @return true if the rule was added, false if it already exists or is invalid
+     */
+    public boolean addRule(String rule) {
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(rule,
+                    plugin.getConfigManager().isChatFilterCaseSensitive() ? 0 : Pattern.CASE_INSENSITIVE);
+        } catch (PatternSyntaxException e) {
+            return false;
+        }
+
+        synchronized (ruleLock) {
+            if (rules.contains(rule)) {
+                return false;
+            }
+            List<String> newRules = new ArrayList<>(rules);
+            List<Pattern> newPatterns = new ArrayList<>(patterns);
+            newRules.add(rule);
+            newPatterns.add(pattern);
+            publish(newRules, newPatterns);
+        }
+        return true;
+    }
+
+    /**
+     * Remove a shadow rule
+     * @param rule The regex pattern to remove
+     * @return true if the rule was removed, false if it isn't a shadow rule
+     */
+    public boolean removeRule(String rule) {
+        synchronized (ruleLock) {
+            int index = rules.indexOf(rule);
+            if (index == -1) {
+                return false;
+            }
+            List<String> newRules = new ArrayList<>(rules);
+            List<Pattern> newPatterns = new ArrayList<>(patterns);
+            newRules.remove(index);
+            newPatterns.remove(index);
+            publish(newRules, newPatterns);
+        }
+        return true;
+    }
+
+    /**
+     * Recompile the shadow engine after the filter configuration was reloaded
+     */
+    public void recompile() {
+        synchronized (ruleLock) {
+            publish(rules, patterns);
+        }
+    }
+
+    /**
+     * Publish new rule lists and recompile the shadow engine. Must be called while holding ruleLock.
+     * Shadow rules are compiled with the enforced engine's mode and normalizer, so their hits
+     * are what the rule would catch once promoted. They apply to every server, so profiles
+     * don't come into it.
+     */
+    private void publish(List<String> newRules, List<Pattern> newPatterns) {
+        rules = Collections.unmodifiableList(newRules);
+        patterns = Collections.unmodifiableList(newPatterns);
+        monitor.setBudgetMillis(plugin.getConfigManager().getChatFilterRuleTimeBudget());
+        boolean useDfa = "dfa".equalsIgnoreCase(plugin.getConfigManager().getChatFilterEngineMode());
+        engine = FilterEngine.compile(rules, patterns, useDfa, normalizerFactory.get(), monitor);
+    }
+
+    /**
+     * Get all shadow rules
+     * @return Immutable snapshot of the shadow rules
+     */
+    public List<String> getRules() {
+        return rules;
+    }
+
+    /**
+     * Get the hit and timing profile of a shadow rule
+     * @param rule The rule source
+     * @return The profile, or null if the rule isn't a shadow rule
+     */
+    public RuleMonitor.Profile getProfile(String rule) {
+        return monitor.getProfile(rule);
+    }
+
+    /**
+     * Get the number of messages evaluated against the shadow rules
+     * @return The number of sampled messages
+     */
+    public long getSampledMessageCount() {
+        return sampledMessages.sum();
+    }
+
+    /**
+     * Get the number of sampled messages dropped because the evaluator fell behind
+     * @return The number of dropped messages
+     */
+    public long getDroppedMessageCount() {
+        return droppedMessages.sum();
+    }
+
+    /**
+     * Get the time taken to evaluate all shadow rules against one message
+     * @return The evaluation latency histogram
+     */
+    public ChatControlMetrics.LatencyHistogram getEvaluationLatency() {
+        return evaluationLatency;
+    }
+
+    /**
+     * Stop the evaluator thread
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
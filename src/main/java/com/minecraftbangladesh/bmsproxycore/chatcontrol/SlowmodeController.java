@@ -0,0 +1,233 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.utils.MessageUtils;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.scheduler.ScheduledTask;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptive slowmode. Chat throughput is counted globally and per backend server, and
+ * when a rate crosses its trigger the slowmode level rises and every cooldown is
+ * stretched by a configurable step per level. Levels rise as soon as the rate calls for
+ * it and fall back one at a time once the rate has stayed lower for the decay period.
+ */
+public class SlowmodeController {
+
+    // Counters cover the last minute in one-second buckets
+    private static final int WINDOW_SECONDS = 60;
+
+    private final BMSProxyCore plugin;
+    private final RateCounter globalCounter = new RateCounter(WINDOW_SECONDS);
+    private final Map<String, RateCounter> serverCounters = new ConcurrentHashMap<>();
+
+    private final Level globalLevel = new Level();
+    private final Map<String, Level> serverLevels = new ConcurrentHashMap<>();
+
+    private ScheduledTask evaluationTask;
+
+    public SlowmodeController(BMSProxyCore plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Start re-evaluating slowmode levels every second
+     */
+    public void start() {
+        if (evaluationTask == null) {
+            evaluationTask = plugin.getServer().getScheduler().buildTask(plugin, this::evaluate)
+                    .delay(1, TimeUnit.SECONDS)
+                    .repeat(1, TimeUnit.SECONDS)
+                    .schedule();
+        }
+    }
+
+    /**
+     * Stop re-evaluating
+     */
+    public void shutdown() {
+        if (evaluationTask != null) {
+            evaluationTask.cancel();
+            evaluationTask = null;
+        }
+    }
+
+    /**
+     * Count a chat message. Called for every public chat message before any check runs,
+     * so messages blocked by the lock, cooldowns or spam detection still count.
+     * @param player The sending player
+     */
+    public void recordMessage(Player player) {
+        globalCounter.increment();
+        String server = getServerName(player);
+        if (server != null) {
+            serverCounters.computeIfAbsent(server, name -> new RateCounter(WINDOW_SECONDS)).increment();
+        }
+    }
+
+    /**
+     * Get the factor a player's cooldown is currently stretched by
+     * @param player The player
+     * @return The multiplier in percent, 100 when slowmode is inactive
+     */
+    public int getCooldownMultiplierPercent(Player player) {
+        if (!plugin.getConfigManager().isChatSlowmodeEnabled()) {
+            return 100;
+        }
+        int level = globalLevel.get();
+        String server = getServerName(player);
+        if (server != null) {
+            Level serverLevel = serverLevels.get(server);
+            if (serverLevel != null) {
+                level = Math.max(level, serverLevel.get());
+            }
+        }
+        return 100 + level * Math.max(0, plugin.getConfigManager().getChatSlowmodeStepPercent());
+    }
+
+    /**
+     * Re-evaluate the global and per-server levels from the current rates
+     */
+    private void evaluate() {
+        if (!plugin.getConfigManager().isChatSlowmodeEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int decayMillis = Math.max(0, plugin.getConfigManager().getChatSlowmodeDecaySeconds()) * 1000;
+        int maxLevel = Math.max(0, plugin.getConfigManager().getChatSlowmodeMaxLevel());
+
+        long globalRate = globalCounter.sum();
+        int globalTarget = targetLevel(globalRate, plugin.getConfigManager().getChatSlowmodeGlobalTrigger(), maxLevel);
+        int previous = globalLevel.get();
+        int current = globalLevel.adjust(globalTarget, now, decayMillis);
+        if (current != previous) {
+            announce(null, previous, current, globalRate);
+        }
+
+        int serverTrigger = plugin.getConfigManager().getChatSlowmodeServerTrigger();
+        for (Map.Entry<String, RateCounter> entry : serverCounters.entrySet()) {
+            long serverRate = entry.getValue().sum();
+            Level level = serverLevels.computeIfAbsent(entry.getKey(), name -> new Level());
+            previous = level.get();
+            current = level.adjust(targetLevel(serverRate, serverTrigger, maxLevel), now, decayMillis);
+            if (current != previous) {
+                announce(entry.getKey(), previous, current, serverRate);
+            }
+        }
+    }
+
+    /**
+     * Each full trigger's worth of messages per minute above the trigger adds a level
+     */
+    static int targetLevel(long perMinute, int trigger, int maxLevel) {
+        if (trigger <= 0 || perMinute < trigger) {
+            return 0;
+        }
+        return (int) Math.min(maxLevel, 1 + (perMinute - trigger) / trigger);
+    }
+
+    private void announce(String server, int previous, int current, long perMinute) {
+        String scope = server == null ? "global" : server;
+        String template = current > previous
+                ? plugin.getConfigManager().getChatSlowmodeRaisedMessage()
+                : plugin.getConfigManager().getChatSlowmodeLoweredMessage();
+        String message = template
+                .replace("{scope}", scope)
+                .replace("{level}", String.valueOf(current))
+                .replace("{multiplier}", String.format("%.1f", (100 + current * Math.max(0, plugin.getConfigManager().getChatSlowmodeStepPercent())) / 100.0))
+                .replace("{rate}", String.valueOf(perMinute));
+
+        String notifyPermission = plugin.getConfigManager().getChatSlowmodeNotifyPermission();
+        for (Player staff : plugin.getServer().getAllPlayers()) {
+            if (!notifyPermission.isEmpty() && plugin.getPermissionCache().hasPermission(staff, notifyPermission)) {
+                staff.sendMessage(MessageUtils.formatMessage(message));
+            }
+        }
+        plugin.getLogger().info("[ChatSlowmode] " + scope + " slowmode level " + previous + " -> " + current
+                + " at " + perMinute + " messages/min");
+    }
+
+    private static String getServerName(Player player) {
+        return player.getCurrentServer().map(connection -> connection.getServerInfo().getName()).orElse(null);
+    }
+
+    /**
+     * Get the global slowmode level
+     * @return The level, 0 when inactive
+     */
+    public int getGlobalLevel() {
+        return globalLevel.get();
+    }
+
+    /**
+     * Get messages sent across the proxy in the last minute
+     * @return Messages per minute
+     */
+    public long getGlobalRate() {
+        return globalCounter.sum();
+    }
+
+    /**
+     * Get a server's slowmode level
+     * @param server The server name
+     * @return The level, 0 when inactive
+     */
+    public int getServerLevel(String server) {
+        Level level = serverLevels.get(server);
+        return level == null ? 0 : level.get();
+    }
+
+    /**
+     * Get messages sent on a server in the last minute
+     * @param server The server name
+     * @return Messages per minute
+     */
+    public long getServerRate(String server) {
+        RateCounter counter = serverCounters.get(server);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Get every server currently in slowmode
+     * @return Server names mapped to their level
+     */
+    public Map<String, Integer> getActiveServerLevels() {
+        Map<String, Integer> result = new TreeMap<>();
+        for (Map.Entry<String, Level> entry : serverLevels.entrySet()) {
+            if (entry.getValue().get() > 0) {
+                result.put(entry.getKey(), entry.getValue().get());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Slowmode level of one scope. Only the evaluation task changes it.
+     */
+    private static final class Level {
+        private volatile int level;
+        private long lastChange;
+
+        int get() {
+            return level;
+        }
+
+        int adjust(int target, long now, int decayMillis) {
+            if (target > level) {
+                level = target;
+                lastChange = now;
+            } else if (target < level && now - lastChange >= decayMillis) {
+                level--;
+                lastChange = now;
+            } else if (target >= level) {
+                // Still busy: restart the decay period
+                lastChange = now;
+            }
+            return level;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.filter.TextNormalizer;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detects players repeating the same or nearly the same message. Each message is
+ * normalized and reduced to a 64-bit SimHash over character trigrams; a player's
+ * recent fingerprints are kept in a small ring, and a message is a repeat when too
+ * many of them are within the configured Hamming distance.
+ */
+public class SpamDetector {
+
+    /**
+     * Returned by {@link #fingerprintOf} for messages too short to track
+     */
+    public static final long NO_FINGERPRINT = 0L;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final BMSProxyCore plugin;
+
+    // Normalizes evasions like "H3LLO", "hellooooo" and zero-width characters before hashing
+    private final TextNormalizer normalizer = new TextNormalizer(true, true, true, 1);
+
+    // Per-thread SimHash bit weights so fingerprinting doesn't allocate
+    private final ThreadLocal<int[]> weights = ThreadLocal.withInitial(() -> new int[64]);
+
+    private final Map<UUID, PlayerWindow> windows = new ConcurrentHashMap<>();
+
+    public SpamDetector(BMSProxyCore plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Normalize a message and compute the fingerprint it is tracked by
+     * @param message The message as sent
+     * @return The fingerprint, or {@link #NO_FINGERPRINT} if the message is too short to track
+     */
+    public long fingerprintOf(String message) {
+        TextNormalizer.Normalized normalized = normalizer.normalize(message);
+        int minLength = plugin.getConfigManager().getChatSpamMinLength();
+        if (countLettersAndDigits(normalized) < Math.max(1, minLength)) {
+            return NO_FINGERPRINT; // Short messages like "gg" are repeated legitimately
+        }
+        long fingerprint = fingerprint(normalized);
+        return fingerprint == NO_FINGERPRINT ? 1L : fingerprint;
+    }
+
+    /**
+     * Check whether a message repeats the player's recent messages, without recording it
+     * @param playerId The sending player
+     * @param fingerprint The message's fingerprint from {@link #fingerprintOf}
+     * @return true if the message is a repeat above the configured limit
+     */
+    public boolean isRepeat(UUID playerId, long fingerprint) {
+        if (fingerprint == NO_FINGERPRINT) {
+            return false;
+        }
+        PlayerWindow window = windows.get(playerId);
+        if (window == null) {
+            return false;
+        }
+        long windowMillis = plugin.getConfigManager().getChatSpamWindowSeconds() * 1000L;
+        int maxDistance = maxHammingDistance(plugin.getConfigManager().getChatSpamSimilarityPercent());
+        int similar = window.countSimilar(fingerprint, System.currentTimeMillis(), windowMillis, maxDistance);
+        return similar >= Math.max(1, plugin.getConfigManager().getChatSpamMaxRepeats());
+    }
+
+    /**
+     * Add a message to the player's recent messages
+     * @param playerId The sending player
+     * @param fingerprint The message's fingerprint from {@link #fingerprintOf}
+     */
+    public void record(UUID playerId, long fingerprint) {
+        if (fingerprint == NO_FINGERPRINT) {
+            return;
+        }
+        int windowSize = Math.max(1, plugin.getConfigManager().getChatSpamWindowSize());
+        windows.computeIfAbsent(playerId, id -> new PlayerWindow(windowSize))
+                .add(fingerprint, System.currentTimeMillis(), windowSize);
+    }
+
+    /**
+     * Compute the SimHash of normalized text over trigrams of its letters and digits.
+     * Text with fewer than three letters and digits hashes as a whole.
+     * @param text The normalized text
+     * @return The 64-bit fingerprint
+     */
+    long fingerprint(CharSequence text) {
+        int[] bitWeights = weights.get();
+        Arrays.fill(bitWeights, 0);
+
+        long whole = FNV_OFFSET;
+        char first = 0;
+        char second = 0;
+        int seen = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                continue;
+            }
+            whole = (whole ^ c) * FNV_PRIME;
+            if (++seen >= 3) {
+                long feature = mix(((long) first << 32) | ((long) second << 16) | c);
+                for (int bit = 0; bit < 64; bit++) {
+                    bitWeights[bit] += ((feature >>> bit) & 1L) != 0 ? 1 : -1;
+                }
+            }
+            first = second;
+            second = c;
+        }
+
+        if (seen < 3) {
+            return mix(whole);
+        }
+        long result = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (bitWeights[bit] > 0) {
+                result |= 1L << bit;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Convert a similarity percentage into the largest Hamming distance that still counts as similar
+     * @param similarityPercent Required similarity, 0-100
+     * @return The maximum number of differing fingerprint bits
+     */
+    static int maxHammingDistance(int similarityPercent) {
+        int percent = Math.min(100, Math.max(0, similarityPercent));
+        return (64 * (100 - percent)) / 100;
+    }
+
+    private static int countLettersAndDigits(CharSequence text) {
+        int count = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            if (Character.isLetterOrDigit(text.charAt(i))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // MurmurHash3 finalizer, spreads feature bits evenly over the fingerprint
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Forget a player's recent messages
+     * @param playerId The player
+     */
+    public void handlePlayerDisconnect(UUID playerId) {
+        windows.remove(playerId);
+    }
+
+    /**
+     * Forget every player's recent messages
+     */
+    public void clear() {
+        windows.clear();
+    }
+
+    /**
+     * Get the number of players with tracked messages
+     * @return Number of tracked players
+     */
+    public int getTrackedPlayerCount() {
+        return windows.size();
+    }
+
+    /**
+     * Ring of a player's recent fingerprints and when they were sent
+     */
+    private static final class PlayerWindow {
+        private long[] fingerprints;
+        private long[] times;
+        private int next;
+
+        PlayerWindow(int size) {
+            fingerprints = new long[size];
+            times = new long[size];
+        }
+
+        /**
+         * Count recent messages similar to a fingerprint
+         */
+        synchronized int countSimilar(long fingerprint, long now, long windowMillis, int maxDistance) {
+            int similar = 0;
+            for (int i = 0; i < fingerprints.length; i++) {
+                if (times[i] != 0 && now - times[i] <= windowMillis
+                        && Long.bitCount(fingerprints[i] ^ fingerprint) <= maxDistance) {
+                    similar++;
+                }
+            }
+            return similar;
+        }
+
+        /**
+         * Add a fingerprint to the ring, overwriting the oldest
+         */
+        synchronized void add(long fingerprint, long now, int size) {
+            if (fingerprints.length != size) {
+                // Window size was changed by a reload
+                fingerprints = new long[size];
+                times = new long[size];
+                next = 0;
+            }
+            fingerprints[next] = fingerprint;
+            times[next] = now;
+            next = (next + 1) % fingerprints.length;
+        }
+    }
+}
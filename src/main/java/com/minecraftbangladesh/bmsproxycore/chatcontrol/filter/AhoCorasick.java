@@ -0,0 +1,207 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol.filter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton over the required literals of all filter rules. A single
+ * pass over a message reports every rule that has at least one literal in it.
+ * Transitions for ASCII input are precomputed into a dense table; other characters
+ * follow the trie edges and failure links.
+ */
+final class AhoCorasick {
+
+    private static final int ASCII = 128;
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final int[] asciiDelta;
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] fail;
+    private final int[][] outputs;
+
+    private AhoCorasick(int[] asciiDelta, char[][] edgeChars, int[][] edgeTargets, int[] fail, int[][] outputs) {
+        this.asciiDelta = asciiDelta;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.outputs = outputs;
+    }
+
+    /**
+     * Scan a message and set the bit of every rule whose literal occurs in it
+     *
+     * @param text The message to scan
+     * @param hits Bitset of rule ids, indexed by id
+     */
+    void scan(CharSequence text, long[] hits) {
+        int state = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = LiteralExtractor.fold(text.charAt(i));
+            if (c < ASCII) {
+                state = asciiDelta[state * ASCII + c];
+            } else {
+                state = step(state, c);
+            }
+            for (int rule : outputs[state]) {
+                hits[rule >>> 6] |= 1L << rule;
+            }
+        }
+    }
+
+    private int step(int state, char c) {
+        while (true) {
+            int next = edge(state, c);
+            if (next >= 0) {
+                return next;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = fail[state];
+        }
+    }
+
+    private int edge(int state, char c) {
+        int index = Arrays.binarySearch(edgeChars[state], c);
+        return index >= 0 ? edgeTargets[state][index] : -1;
+    }
+
+    /**
+     * Number of states in the automaton
+     */
+    int size() {
+        return fail.length;
+    }
+
+    /**
+     * Collects literals and builds the automaton
+     */
+    static final class Builder {
+        private final List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        private final List<List<Integer>> terminals = new ArrayList<>();
+
+        Builder() {
+            newState();
+        }
+
+        private int newState() {
+            trie.add(new TreeMap<>());
+            terminals.add(new ArrayList<>());
+            return trie.size() - 1;
+        }
+
+        /**
+         * Add a folded literal belonging to a rule
+         */
+        Builder add(String literal, int ruleId) {
+            int state = 0;
+            for (int i = 0; i < literal.length(); i++) {
+                char c = literal.charAt(i);
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = newState();
+                    trie.get(state).put(c, next);
+                }
+                state = next;
+            }
+            if (!terminals.get(state).contains(ruleId)) {
+                terminals.get(state).add(ruleId);
+            }
+            return this;
+        }
+
+        AhoCorasick build() {
+            int count = trie.size();
+            int[] fail = new int[count];
+            char[][] edgeChars = new char[count][];
+            int[][] edgeTargets = new int[count][];
+            int[][] outputs = new int[count][];
+            int[] asciiDelta = new int[count * ASCII];
+
+            for (int state = 0; state < count; state++) {
+                TreeMap<Character, Integer> edges = trie.get(state);
+                edgeChars[state] = new char[edges.size()];
+                edgeTargets[state] = new int[edges.size()];
+                int i = 0;
+                for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                    edgeChars[state][i] = edge.getKey();
+                    edgeTargets[state][i] = edge.getValue();
+                    i++;
+                }
+            }
+
+            // Breadth-first over the trie so failure targets are finished before their dependents
+            Map<Integer, int[]> mergedOutputs = new HashMap<>();
+            Queue<Integer> queue = new ArrayDeque<>();
+            mergedOutputs.put(0, toArray(terminals.get(0)));
+            for (int c = 0; c < ASCII; c++) {
+                Integer child = trie.get(0).get((char) c);
+                asciiDelta[c] = child != null ? child : 0;
+            }
+            for (int child : trie.get(0).values()) {
+                fail[child] = 0;
+                queue.add(child);
+            }
+
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                int[] own = toArray(terminals.get(state));
+                int[] inherited = mergedOutputs.get(fail[state]);
+                mergedOutputs.put(state, concat(own, inherited));
+
+                for (int c = 0; c < ASCII; c++) {
+                    Integer child = trie.get(state).get((char) c);
+                    asciiDelta[state * ASCII + c] = child != null ? child : asciiDelta[fail[state] * ASCII + c];
+                }
+
+                for (Map.Entry<Character, Integer> edge : trie.get(state).entrySet()) {
+                    int child = edge.getValue();
+                    int target = fail[state];
+                    Integer next;
+                    while ((next = trie.get(target).get(edge.getKey())) == null && target != 0) {
+                        target = fail[target];
+                    }
+                    fail[child] = next != null ? next : 0;
+                    queue.add(child);
+                }
+            }
+
+            for (int state = 0; state < count; state++) {
+                int[] merged = mergedOutputs.get(state);
+                outputs[state] = merged != null ? merged : NO_OUTPUT;
+            }
+
+            return new AhoCorasick(asciiDelta, edgeChars, edgeTargets, fail, outputs);
+        }
+
+        private static int[] toArray(List<Integer> values) {
+            if (values.isEmpty()) {
+                return NO_OUTPUT;
+            }
+            int[] result = new int[values.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = values.get(i);
+            }
+            return result;
+        }
+
+        private static int[] concat(int[] a, int[] b) {
+            if (b == null || b.length == 0) {
+                return a;
+            }
+            if (a.length == 0) {
+                return b;
+            }
+            int[] result = Arrays.copyOf(a, a.length + b.length);
+            System.arraycopy(b, 0, result, a.length, b.length);
+            return result;
+        }
+    }
+}
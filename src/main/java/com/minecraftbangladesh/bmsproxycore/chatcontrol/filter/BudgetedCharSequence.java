@@ -0,0 +1,81 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol.filter;
+
+/**
+ * CharSequence view of a message that stops a running regex once its time budget is
+ * spent or its thread is interrupted. java.util.regex reads the input through
+ * {@link #charAt(int)} on every step, including while backtracking, so checking
+ * there bounds even catastrophic patterns. The clock is only read every
+ * {@value #CHECK_INTERVAL} reads to keep the common case cheap.
+ */
+final class BudgetedCharSequence implements CharSequence {
+
+    private static final int CHECK_INTERVAL = 1024;
+
+    private CharSequence text = "";
+    private boolean limited;
+    private long deadline;
+    private int countdown;
+
+    /**
+     * Point this view at a new input
+     *
+     * @param text The input to expose
+     * @param limited Whether the deadline applies
+     * @param deadline The {@link System#nanoTime()} after which reads fail
+     */
+    void reset(CharSequence text, boolean limited, long deadline) {
+        this.text = text;
+        this.limited = limited;
+        this.deadline = deadline;
+        this.countdown = CHECK_INTERVAL;
+    }
+
+    @Override
+    public int length() {
+        return text.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (--countdown <= 0) {
+            check();
+        }
+        return text.charAt(index);
+    }
+
+    private void check() {
+        countdown = CHECK_INTERVAL;
+        if (Thread.currentThread().isInterrupted()) {
+            throw new BudgetExceededException(true);
+        }
+        if (limited && System.nanoTime() - deadline > 0) {
+            throw new BudgetExceededException(false);
+        }
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return text.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+
+    /**
+     * Thrown out of a running match when the budget is spent or the thread is interrupted
+     */
+    static final class BudgetExceededException extends RuntimeException {
+        private final boolean interrupted;
+
+        BudgetExceededException(boolean interrupted) {
+            super(interrupted ? "interrupted" : "time budget exceeded", null, false, false);
+            this.interrupted = interrupted;
+        }
+
+        boolean isInterrupted() {
+            return interrupted;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable set of chars stored as sorted, non-overlapping inclusive ranges
+ */
+final class CharSet {
+
+    static final CharSet DIGIT = builder().add('0', '9').build();
+    static final CharSet WORD = builder().add('a', 'z').add('A', 'Z').add('0', '9').add('_').build();
+    static final CharSet SPACE = builder().add(' ').add('\t', '\r').build();
+    // Everything but line terminators, as matched by '.' without DOTALL
+    static final CharSet DOT = builder().add('\n').add('\r').add('\u0085').add('\u2028', '\u2029').build().negate();
+
+    // Pairs of [low, high] chars
+    private final char[] ranges;
+
+    private CharSet(char[] ranges) {
+        this.ranges = ranges;
+    }
+
+    boolean contains(char c) {
+        int low = 0;
+        int high = ranges.length / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (c < ranges[mid * 2]) {
+                high = mid - 1;
+            } else if (c > ranges[mid * 2 + 1]) {
+                low = mid + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Complement of this set over all chars
+     */
+    CharSet negate() {
+        Builder builder = builder();
+        int next = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (ranges[i] > next) {
+                builder.add((char) next, (char) (ranges[i] - 1));
+            }
+            next = ranges[i + 1] + 1;
+        }
+        if (next <= Character.MAX_VALUE) {
+            builder.add((char) next, Character.MAX_VALUE);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Add the other case of every ASCII letter in the set, like Pattern.CASE_INSENSITIVE
+     */
+    CharSet foldAsciiCase() {
+        Builder builder = builder().addAll(this);
+        for (char c = 'a'; c <= 'z'; c++) {
+            char upper = (char) (c - 'a' + 'A');
+            if (contains(c)) {
+                builder.add(upper);
+            }
+            if (contains(upper)) {
+                builder.add(c);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Add the start of every range, and the char after every range, to a list of class boundaries
+     */
+    void collectBoundaries(List<Integer> boundaries) {
+        for (int i = 0; i < ranges.length; i += 2) {
+            boundaries.add((int) ranges[i]);
+            boundaries.add(ranges[i + 1] + 1);
+        }
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    static final class Builder {
+        private final List<char[]> pending = new ArrayList<>();
+
+        Builder add(char c) {
+            return add(c, c);
+        }
+
+        Builder add(char low, char high) {
+            pending.add(new char[]{low, high});
+            return this;
+        }
+
+        Builder addAll(CharSet set) {
+            for (int i = 0; i < set.ranges.length; i += 2) {
+                add(set.ranges[i], set.ranges[i + 1]);
+            }
+            return this;
+        }
+
+        CharSet build() {
+            pending.sort((a, b) -> Character.compare(a[0], b[0]));
+            char[] merged = new char[pending.size() * 2];
+            int count = 0;
+            for (char[] range : pending) {
+                if (count > 0 && range[0] <= merged[count - 1] + 1) {
+                    if (range[1] > merged[count - 1]) {
+                        merged[count - 1] = range[1];
+                    }
+                } else {
+                    merged[count++] = range[0];
+                    merged[count++] = range[1];
+                }
+            }
+            return new CharSet(Arrays.copyOf(merged, count));
+        }
+    }
+}
@@ -0,0 +1,593 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Combined DFA over every supported filter rule, with accepting transitions tagged
+ * by rule id. The rules are compiled into one Thompson NFA; DFA states are built
+ * lazily from ordered NFA thread lists and cached, so a message is matched in a
+ * single left-to-right pass without backtracking.
+ *
+ * Threads inside a DFA state are kept in order of their start position, which makes
+ * the start of every match a fixed function of the transition taken. That lets the
+ * same DFA report match spans (earliest start for every match end) as well as the
+ * set of matching rules.
+ *
+ * Messages containing line terminators or surrogate pairs are not scanned; the
+ * caller falls back to java.util.regex for them.
+ */
+final class DfaMatcher {
+
+    /**
+     * Receives match spans as they are found
+     */
+    interface SpanConsumer {
+        void accept(int rule, int start, int end);
+    }
+
+    // Cap on cached DFA states; the cache is flushed and rebuilt when exceeded
+    private static final int MAX_DFA_STATES = 10_000;
+    // Cap on NFA states across all rules
+    static final int MAX_NFA_STATES = 50_000;
+
+    // NFA state types
+    private static final int CHAR = 0;
+    private static final int SPLIT = 1;
+    private static final int ASSERT = 2;
+    private static final int MATCH = 3;
+
+    // DFA state flags
+    private static final int PREV_WORD = 1;
+    private static final int BASE_LETTER_OR_DIGIT = 2;
+    private static final int AT_START = 4;
+
+    // Alphabet class flags
+    private static final int CLASS_WORD = 1;
+    private static final int CLASS_NON_SPACING_MARK = 2;
+    private static final int CLASS_LETTER_OR_DIGIT = 4;
+    private static final int CLASS_UNSAFE = 8;
+
+    // How \b classifies chars differs between JDK versions, so probe the running one
+    private static final boolean UNICODE_WORD_BOUNDARY = Pattern.compile("\\b").matcher("\u00e9").find();
+    private static final boolean NON_SPACING_MARK_JOINS_WORD = probeNonSpacingMarkRule();
+
+    // NFA
+    private final int[] types;
+    private final int[] outs;
+    private final int[][] splits;
+    private final CharSet[] sets;
+    private final int[] args;
+    private final int start;
+
+    // Alphabet: every char maps to a class whose members behave identically
+    private final char[] classOf;
+    private final int[] classFlags;
+    private final char[] classRepresentative;
+    private final int endOfInput;
+
+    private final int epsilonEdges;
+
+    private final Map<StateKey, DState> cache = new HashMap<>();
+    private volatile DState initial;
+
+    // Per-thread start positions of the current and next threads, grown on demand
+    private final ThreadLocal<int[][]> startScratch = ThreadLocal.withInitial(() -> new int[][]{new int[16], new int[16]});
+
+    private DfaMatcher(int[] types, int[] outs, int[][] splits, CharSet[] sets, int[] args, int start) {
+        this.types = types;
+        this.outs = outs;
+        this.splits = splits;
+        this.sets = sets;
+        this.args = args;
+        this.start = start;
+
+        int edges = 0;
+        for (int i = 0; i < types.length; i++) {
+            edges += types[i] == SPLIT ? splits[i].length : 1;
+        }
+        this.epsilonEdges = edges;
+
+        // Split the alphabet wherever any char set, or any property the assertions depend on, changes
+        List<Integer> boundaries = new ArrayList<>();
+        for (CharSet set : sets) {
+            if (set != null) {
+                set.collectBoundaries(boundaries);
+            }
+        }
+        int[] sortedBoundaries = boundaries.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+
+        this.classOf = new char[Character.MAX_VALUE + 1];
+        Map<Long, Integer> classIds = new HashMap<>();
+        List<Integer> flags = new ArrayList<>();
+        List<Character> representatives = new ArrayList<>();
+        int interval = 0;
+        int boundaryIndex = 0;
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            while (boundaryIndex < sortedBoundaries.length && sortedBoundaries[boundaryIndex] <= c) {
+                boundaryIndex++;
+                interval = boundaryIndex;
+            }
+            int charFlags = charFlags((char) c);
+            long key = ((long) interval << 4) | charFlags;
+            Integer id = classIds.get(key);
+            if (id == null) {
+                id = flags.size();
+                classIds.put(key, id);
+                flags.add(charFlags);
+                representatives.add((char) c);
+            }
+            classOf[c] = (char) id.intValue();
+        }
+
+        this.classFlags = flags.stream().mapToInt(Integer::intValue).toArray();
+        this.classRepresentative = new char[representatives.size()];
+        for (int i = 0; i < classRepresentative.length; i++) {
+            classRepresentative[i] = representatives.get(i);
+        }
+        this.endOfInput = classRepresentative.length;
+    }
+
+    private static boolean probeNonSpacingMarkRule() {
+        java.util.regex.Matcher matcher = Pattern.compile("\\b").matcher("a\u0301");
+        return !(matcher.find(1) && matcher.start() == 1);
+    }
+
+    private static int charFlags(char c) {
+        int flags = 0;
+        if (c == '_' || (UNICODE_WORD_BOUNDARY ? Character.isLetterOrDigit(c) : CharSet.WORD.contains(c))) {
+            flags |= CLASS_WORD;
+        }
+        if (NON_SPACING_MARK_JOINS_WORD && Character.getType(c) == Character.NON_SPACING_MARK) {
+            flags |= CLASS_NON_SPACING_MARK;
+        }
+        if (Character.isLetterOrDigit(c)) {
+            flags |= CLASS_LETTER_OR_DIGIT;
+        }
+        if (Character.isSurrogate(c) || c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+            flags |= CLASS_UNSAFE;
+        }
+        return flags;
+    }
+
+    /**
+     * Scan a message and set the bit of every rule that matches it
+     *
+     * @param text The message
+     * @param matched Bitset of rule ids to set
+     * @return false if the message can't be scanned by the DFA and must use the regex fallback
+     */
+    boolean matchRules(CharSequence text, long[] matched) {
+        DState state = initialState();
+        for (int i = 0, length = text.length(); i < length; i++) {
+            int charClass = classOf[text.charAt(i)];
+            if ((classFlags[charClass] & CLASS_UNSAFE) != 0) {
+                return false;
+            }
+            Transition transition = transition(state, charClass);
+            for (int rule : transition.matchRules) {
+                matched[rule >>> 6] |= 1L << rule;
+            }
+            state = transition.target;
+        }
+        for (int rule : transition(state, endOfInput).matchRules) {
+            matched[rule >>> 6] |= 1L << rule;
+        }
+        return true;
+    }
+
+    /**
+     * Scan a message and report, for every rule and every position where a match of it
+     * ends, the earliest start of such a match
+     *
+     * @param text The message
+     * @param consumer Receives each span
+     * @return false if the message can't be scanned by the DFA and must use the regex fallback
+     */
+    boolean matchSpans(CharSequence text, SpanConsumer consumer) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            if ((classFlags[classOf[text.charAt(i)]] & CLASS_UNSAFE) != 0) {
+                return false;
+            }
+        }
+
+        int[][] scratch = startScratch.get();
+        int[] starts = scratch[0];
+        int[] nextStarts = scratch[1];
+
+        DState state = initialState();
+        for (int i = 0; i <= length; i++) {
+            int charClass = i < length ? classOf[text.charAt(i)] : endOfInput;
+            Transition transition = transition(state, charClass);
+
+            for (int m = 0; m < transition.matchRules.length; m++) {
+                int source = transition.matchSources[m];
+                consumer.accept(transition.matchRules[m], source >= 0 ? starts[source] : i, i);
+            }
+
+            if (i < length) {
+                int[] sources = transition.threadSources;
+                if (sources.length > nextStarts.length) {
+                    int size = Math.max(sources.length, nextStarts.length * 2);
+                    starts = Arrays.copyOf(starts, size);
+                    nextStarts = new int[size];
+                    scratch[0] = starts;
+                    scratch[1] = nextStarts;
+                }
+                for (int t = 0; t < sources.length; t++) {
+                    nextStarts[t] = sources[t] >= 0 ? starts[sources[t]] : i;
+                }
+                int[] swap = starts;
+                starts = nextStarts;
+                nextStarts = swap;
+                scratch[0] = starts;
+                scratch[1] = nextStarts;
+                state = transition.target;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of DFA states currently cached
+     */
+    synchronized int cachedStates() {
+        return cache.size();
+    }
+
+    private DState initialState() {
+        DState state = initial;
+        if (state == null) {
+            synchronized (this) {
+                state = initial;
+                if (state == null) {
+                    state = intern(new int[0], AT_START);
+                    initial = state;
+                }
+            }
+        }
+        return state;
+    }
+
+    private Transition transition(DState state, int charClass) {
+        Transition transition = state.transitions[charClass];
+        if (transition == null) {
+            synchronized (this) {
+                transition = state.transitions[charClass];
+                if (transition == null) {
+                    transition = computeTransition(state, charClass);
+                    state.transitions[charClass] = transition;
+                }
+            }
+        }
+        return transition;
+    }
+
+    private Transition computeTransition(DState state, int charClass) {
+        boolean end = charClass == endOfInput;
+        int flags = end ? 0 : classFlags[charClass];
+        boolean prevWord = (state.flags & PREV_WORD) != 0;
+        boolean baseLetterOrDigit = (state.flags & BASE_LETTER_OR_DIGIT) != 0;
+        boolean nonSpacingMark = (flags & CLASS_NON_SPACING_MARK) != 0;
+        boolean nextWord = !end && (nonSpacingMark ? baseLetterOrDigit : (flags & CLASS_WORD) != 0);
+        boolean atStart = (state.flags & AT_START) != 0;
+
+        // Follow epsilon edges from every thread, in start order, then from a fresh thread starting here
+        Closure closure = new Closure(types.length, epsilonEdges);
+        for (int t = 0; t < state.threads.length; t++) {
+            follow(state.threads[t], t, closure, prevWord, nextWord, atStart, end);
+        }
+        follow(start, -1, closure, prevWord, nextWord, atStart, end);
+
+        if (end) {
+            return new Transition(null, new int[0], closure.matchRules(), closure.matchSources());
+        }
+
+        // Step every char thread over the input class
+        char c = classRepresentative[charClass];
+        boolean[] seen = new boolean[types.length];
+        int[] threads = new int[closure.charCount];
+        int[] sources = new int[closure.charCount];
+        int count = 0;
+        for (int i = 0; i < closure.charCount; i++) {
+            int nfaState = closure.charStates[i];
+            int target = outs[nfaState];
+            if (sets[nfaState].contains(c) && !seen[target]) {
+                seen[target] = true;
+                threads[count] = target;
+                sources[count] = closure.charSources[i];
+                count++;
+            }
+        }
+
+        int targetFlags = (nextWord ? PREV_WORD : 0)
+                | ((nonSpacingMark ? baseLetterOrDigit : (flags & CLASS_LETTER_OR_DIGIT) != 0) ? BASE_LETTER_OR_DIGIT : 0);
+        DState target = intern(Arrays.copyOf(threads, count), targetFlags);
+        return new Transition(target, Arrays.copyOf(sources, count), closure.matchRules(), closure.matchSources());
+    }
+
+    private void follow(int nfaState, int source, Closure closure,
+                        boolean prevWord, boolean nextWord, boolean atStart, boolean atEnd) {
+        int[] stack = closure.stack;
+        int top = 0;
+        stack[top++] = nfaState;
+        while (top > 0) {
+            int current = stack[--top];
+            if (closure.visited[current]) {
+                continue;
+            }
+            closure.visited[current] = true;
+
+            switch (types[current]) {
+                case CHAR:
+                    closure.addChar(current, source);
+                    break;
+                case MATCH:
+                    closure.addMatch(args[current], source);
+                    break;
+                case SPLIT: {
+                    int[] alternatives = splits[current];
+                    // Push in reverse so the first alternative is explored first
+                    for (int i = alternatives.length - 1; i >= 0; i--) {
+                        if (!closure.visited[alternatives[i]]) {
+                            stack[top++] = alternatives[i];
+                        }
+                    }
+                    break;
+                }
+                case ASSERT: {
+                    boolean holds;
+                    switch (args[current]) {
+                        case RegexSubsetParser.Assertion.BEGIN:
+                            holds = atStart;
+                            break;
+                        case RegexSubsetParser.Assertion.END:
+                            holds = atEnd;
+                            break;
+                        case RegexSubsetParser.Assertion.WORD_BOUNDARY:
+                            holds = prevWord != nextWord;
+                            break;
+                        default:
+                            holds = prevWord == nextWord;
+                            break;
+                    }
+                    if (holds && !closure.visited[outs[current]]) {
+                        stack[top++] = outs[current];
+                    }
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+    }
+
+    private DState intern(int[] threads, int flags) {
+        StateKey key = new StateKey(threads, flags);
+        DState state = cache.get(key);
+        if (state == null) {
+            if (cache.size() >= MAX_DFA_STATES) {
+                // Scans in progress keep their own references; new scans rebuild from scratch
+                cache.clear();
+                initial = null;
+            }
+            state = new DState(threads, flags, endOfInput + 1);
+            cache.put(key, state);
+        }
+        return state;
+    }
+
+    /**
+     * Builds the combined NFA from parsed rules
+     */
+    static final class Builder {
+        private final List<Integer> types = new ArrayList<>();
+        private final List<Integer> outs = new ArrayList<>();
+        private final List<int[]> splits = new ArrayList<>();
+        private final List<CharSet> sets = new ArrayList<>();
+        private final List<Integer> args = new ArrayList<>();
+        private final List<Integer> ruleEntries = new ArrayList<>();
+
+        /**
+         * Add a parsed rule; on failure the builder is left unchanged
+         *
+         * @return false if the rule would make the NFA too large
+         */
+        boolean add(RegexSubsetParser.Node root, int ruleId) {
+            int mark = types.size();
+            try {
+                int match = newState(MATCH, -1, null, null, ruleId);
+                ruleEntries.add(compile(root, match));
+                return true;
+            } catch (IllegalStateException e) {
+                truncate(mark);
+                return false;
+            }
+        }
+
+        DfaMatcher build() {
+            int[] entries = ruleEntries.stream().mapToInt(Integer::intValue).toArray();
+            int start = newState(SPLIT, -1, entries, null, 0);
+            int size = types.size();
+            int[][] splitArray = new int[size][];
+            for (int i = 0; i < size; i++) {
+                splitArray[i] = splits.get(i);
+            }
+            return new DfaMatcher(
+                    types.stream().mapToInt(Integer::intValue).toArray(),
+                    outs.stream().mapToInt(Integer::intValue).toArray(),
+                    splitArray,
+                    sets.toArray(new CharSet[0]),
+                    args.stream().mapToInt(Integer::intValue).toArray(),
+                    start);
+        }
+
+        private int compile(RegexSubsetParser.Node node, int next) {
+            if (node instanceof RegexSubsetParser.CharNode) {
+                return newState(CHAR, next, null, ((RegexSubsetParser.CharNode) node).set, 0);
+            }
+            if (node instanceof RegexSubsetParser.Sequence) {
+                List<RegexSubsetParser.Node> elements = ((RegexSubsetParser.Sequence) node).elements;
+                for (int i = elements.size() - 1; i >= 0; i--) {
+                    next = compile(elements.get(i), next);
+                }
+                return next;
+            }
+            if (node instanceof RegexSubsetParser.Alternation) {
+                List<RegexSubsetParser.Node> branches = ((RegexSubsetParser.Alternation) node).branches;
+                int[] entries = new int[branches.size()];
+                for (int i = 0; i < entries.length; i++) {
+                    entries[i] = compile(branches.get(i), next);
+                }
+                return newState(SPLIT, -1, entries, null, 0);
+            }
+            if (node instanceof RegexSubsetParser.Assertion) {
+                return newState(ASSERT, next, null, null, ((RegexSubsetParser.Assertion) node).kind);
+            }
+
+            RegexSubsetParser.Repeat repeat = (RegexSubsetParser.Repeat) node;
+            int current;
+            if (repeat.max == RegexSubsetParser.Repeat.UNBOUNDED) {
+                // Loop: split into another copy of the body or on to the continuation
+                int loop = newState(SPLIT, -1, new int[]{next}, null, 0);
+                int body = compile(repeat.node, loop);
+                splits.set(loop, new int[]{body, next});
+                current = loop;
+            } else {
+                current = next;
+                for (int i = repeat.min; i < repeat.max; i++) {
+                    current = newState(SPLIT, -1, new int[]{compile(repeat.node, current), next}, null, 0);
+                }
+            }
+            for (int i = 0; i < repeat.min; i++) {
+                current = compile(repeat.node, current);
+            }
+            return current;
+        }
+
+        private int newState(int type, int out, int[] split, CharSet set, int arg) {
+            if (types.size() >= MAX_NFA_STATES) {
+                throw new IllegalStateException("NFA too large");
+            }
+            types.add(type);
+            outs.add(out);
+            splits.add(split);
+            sets.add(set);
+            args.add(arg);
+            return types.size() - 1;
+        }
+
+        private void truncate(int size) {
+            while (types.size() > size) {
+                int last = types.size() - 1;
+                types.remove(last);
+                outs.remove(last);
+                splits.remove(last);
+                sets.remove(last);
+                args.remove(last);
+            }
+        }
+    }
+
+    /**
+     * Scratch state for one epsilon closure
+     */
+    private static final class Closure {
+        final boolean[] visited;
+        final int[] stack;
+        final int[] charStates;
+        final int[] charSources;
+        int charCount;
+        final List<Integer> matchRules = new ArrayList<>();
+        final List<Integer> matchSources = new ArrayList<>();
+
+        Closure(int size, int edges) {
+            visited = new boolean[size];
+            // Each edge is pushed at most once per closure
+            stack = new int[edges + 1];
+            charStates = new int[size];
+            charSources = new int[size];
+        }
+
+        void addChar(int state, int source) {
+            charStates[charCount] = state;
+            charSources[charCount] = source;
+            charCount++;
+        }
+
+        void addMatch(int rule, int source) {
+            // The first thread to reach a rule's match has the earliest start
+            if (!matchRules.contains(rule)) {
+                matchRules.add(rule);
+                matchSources.add(source);
+            }
+        }
+
+        int[] matchRules() {
+            return matchRules.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        int[] matchSources() {
+            return matchSources.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    private static final class DState {
+        final int[] threads;
+        final int flags;
+        final Transition[] transitions;
+
+        DState(int[] threads, int flags, int classes) {
+            this.threads = threads;
+            this.flags = flags;
+            this.transitions = new Transition[classes];
+        }
+    }
+
+    private static final class Transition {
+        final DState target;
+        // For each thread of the target, the index of the source thread, or -1 for a thread starting here
+        final int[] threadSources;
+        // Rules whose match ends before the consumed char, with the source thread of the earliest start
+        final int[] matchRules;
+        final int[] matchSources;
+
+        Transition(DState target, int[] threadSources, int[] matchRules, int[] matchSources) {
+            this.target = target;
+            this.threadSources = threadSources;
+            this.matchRules = matchRules;
+            this.matchSources = matchSources;
+        }
+    }
+
+    private static final class StateKey {
+        final int[] threads;
+        final int flags;
+        final int hash;
+
+        StateKey(int[] threads, int flags) {
+            this.threads = threads;
+            this.flags = flags;
+            this.hash = Arrays.hashCode(threads) * 31 + flags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof StateKey)) {
+                return false;
+            }
+            StateKey other = (StateKey) o;
+            return flags == other.flags && Arrays.equals(threads, other.threads);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
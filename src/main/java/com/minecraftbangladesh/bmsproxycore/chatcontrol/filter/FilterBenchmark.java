@@ -0,0 +1,172 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the literal-prefiltered engine and the DFA engine with a sequential scan
+ * over every pattern, using synthetic rules shaped like the default word-alternation rules
+ */
+public final class FilterBenchmark {
+
+    private static final String[] SAMPLE_WORDS = {
+            "hello", "anyone", "want", "to", "play", "bedwars", "with", "me", "gg", "nice",
+            "game", "where", "is", "the", "lobby", "how", "do", "i", "join", "skyblock",
+            "thanks", "for", "help", "lol", "what", "server", "are", "you", "on", "brb"
+    };
+
+    private FilterBenchmark() {
+    }
+
+    /**
+     * Run the benchmark
+     *
+     * @param ruleCount Number of synthetic rules to generate
+     * @param messageCount Number of synthetic messages to check
+     * @param seed Random seed for rule and message generation
+     * @return The benchmark result
+     */
+    public static Result run(int ruleCount, int messageCount, long seed) {
+        Random random = new Random(seed);
+
+        // Generate rules like "(?i)\b(word|words|worded)\b" over random made-up words
+        List<String> rules = new ArrayList<>(ruleCount);
+        List<String> ruleWords = new ArrayList<>(ruleCount);
+        List<Pattern> patterns = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            String word = randomWord(random);
+            String rule = "(?i)\\b(" + word + "|" + word + "s|" + word + "ed)\\b";
+            rules.add(rule);
+            ruleWords.add(word);
+            patterns.add(Pattern.compile(rule, Pattern.CASE_INSENSITIVE));
+        }
+
+        // Generate chat-like messages, a few percent of which contain a filtered word
+        List<String> messages = new ArrayList<>(messageCount);
+        for (int i = 0; i < messageCount; i++) {
+            StringBuilder message = new StringBuilder();
+            int words = 3 + random.nextInt(10);
+            for (int w = 0; w < words; w++) {
+                if (w > 0) {
+                    message.append(' ');
+                }
+                if (ruleCount > 0 && random.nextInt(100) < 1) {
+                    message.append(ruleWords.get(random.nextInt(ruleCount)).toUpperCase());
+                } else {
+                    message.append(SAMPLE_WORDS[random.nextInt(SAMPLE_WORDS.length)]);
+                }
+            }
+            messages.add(message.toString());
+        }
+
+        long compileStart = System.nanoTime();
+        FilterEngine engine = FilterEngine.compile(rules, patterns);
+        long compileNanos = System.nanoTime() - compileStart;
+        FilterEngine dfaEngine = FilterEngine.compile(rules, patterns, true);
+
+        // Warm up every path before timing
+        for (int round = 0; round < 3; round++) {
+            for (String message : messages) {
+                sequentialMatch(patterns, message);
+                engine.findFirstMatch(message);
+                dfaEngine.findFirstMatch(message);
+            }
+        }
+
+        long sequentialStart = System.nanoTime();
+        int sequentialMatches = 0;
+        for (String message : messages) {
+            if (sequentialMatch(patterns, message) >= 0) {
+                sequentialMatches++;
+            }
+        }
+        long sequentialNanos = System.nanoTime() - sequentialStart;
+
+        long engineStart = System.nanoTime();
+        int engineMatches = 0;
+        int mismatches = 0;
+        for (String message : messages) {
+            if (engine.findFirstMatch(message) >= 0) {
+                engineMatches++;
+            }
+        }
+        long engineNanos = System.nanoTime() - engineStart;
+
+        long dfaStart = System.nanoTime();
+        for (String message : messages) {
+            dfaEngine.findFirstMatch(message);
+        }
+        long dfaNanos = System.nanoTime() - dfaStart;
+
+        // Verify every approach agrees on every message
+        for (String message : messages) {
+            int expected = sequentialMatch(patterns, message);
+            if (expected != engine.findFirstMatch(message) || expected != dfaEngine.findFirstMatch(message)) {
+                mismatches++;
+            }
+        }
+
+        return new Result(ruleCount, messageCount, engine.getPrefilteredRuleCount(), engine.getAutomatonSize(),
+                compileNanos, sequentialNanos, engineNanos, dfaNanos, dfaEngine.getDfaStateCount(),
+                sequentialMatches, engineMatches, mismatches);
+    }
+
+    private static int sequentialMatch(List<Pattern> patterns, String message) {
+        for (int i = 0; i < patterns.size(); i++) {
+            if (patterns.get(i).matcher(message).find()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String randomWord(Random random) {
+        int length = 4 + random.nextInt(5);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    /**
+     * Timings and match counts of a benchmark run
+     */
+    public static class Result {
+        public final int ruleCount;
+        public final int messageCount;
+        public final int prefilteredRules;
+        public final int automatonStates;
+        public final long compileNanos;
+        public final long sequentialNanos;
+        public final long engineNanos;
+        public final long dfaNanos;
+        public final int dfaStates;
+        public final int sequentialMatches;
+        public final int engineMatches;
+        public final int mismatches;
+
+        Result(int ruleCount, int messageCount, int prefilteredRules, int automatonStates, long compileNanos,
+               long sequentialNanos, long engineNanos, long dfaNanos, int dfaStates,
+               int sequentialMatches, int engineMatches, int mismatches) {
+            this.ruleCount = ruleCount;
+            this.messageCount = messageCount;
+            this.prefilteredRules = prefilteredRules;
+            this.automatonStates = automatonStates;
+            this.compileNanos = compileNanos;
+            this.sequentialNanos = sequentialNanos;
+            this.engineNanos = engineNanos;
+            this.dfaNanos = dfaNanos;
+            this.dfaStates = dfaStates;
+            this.sequentialMatches = sequentialMatches;
+            this.engineMatches = engineMatches;
+            this.mismatches = mismatches;
+        }
+
+        public double getSpeedup() {
+            return engineNanos == 0 ? 0.0 : (double) sequentialNanos / engineNanos;
+        }
+    }
+}
@@ -0,0 +1,697 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled set of filter rules. The required literals of every rule are combined
+ * into one Aho-Corasick automaton; a message is scanned once and only the rules
+ * whose literals occurred (plus rules without extractable literals) are confirmed
+ * with their full regex.
+ *
+ * In DFA mode, rules within the supported regex subset are instead compiled into
+ * one combined DFA that decides all of them in a single pass. The remaining
+ * slow-path rules keep the prefilter and java.util.regex confirmation.
+ *
+ * With a {@link TextNormalizer}, rules are matched against the normalized message
+ * and match spans are mapped back to the original message.
+ *
+ * With a {@link RuleMonitor}, regex confirmations share a time budget per message,
+ * are profiled per rule, and rules that blow the budget are quarantined. The rule
+ * reported by {@link #findFirstMatch(String)} also has its hit counter incremented.
+ *
+ * Rules can be scoped to named profiles. Every rule carries a bitmask of the profiles
+ * it belongs to, and lookups take the mask of the profiles to check: all profiles share
+ * the one automaton and scan, and rules outside the mask are skipped before their regex
+ * runs. Profile 0 is the base profile, used when no other profile applies.
+ */
+public final class FilterEngine {
+
+    /**
+     * Receives match spans found in a message
+     */
+    public interface MatchConsumer {
+        /**
+         * @param rule The index of the matching rule
+         * @param start The start of the match, inclusive
+         * @param end The end of the match, exclusive
+         */
+        void accept(int rule, int start, int end);
+    }
+
+    /**
+     * Profile mask that selects every rule, whatever profiles it is scoped to
+     */
+    public static final long ALL_PROFILES = -1L;
+
+    /**
+     * Profile mask that selects only the rules scoped to every profile. No profile is
+     * given this bit, so it matches rules compiled with {@link #ALL_PROFILES} and nothing else.
+     */
+    public static final long GLOBAL_ONLY = Long.MIN_VALUE;
+
+    /**
+     * The most profiles an engine can have, one per bit of a profile mask except the
+     * bit reserved for {@link #GLOBAL_ONLY}
+     */
+    public static final int MAX_PROFILES = 63;
+
+    private final List<String> rules;
+    private final Pattern[] patterns;
+    private final AhoCorasick automaton;
+    // Rules that must always be confirmed with their regex, as a bitset
+    private final long[] alwaysCheck;
+    private final int prefilteredCount;
+
+    // DFA mode: the combined DFA, the rules it decides, and why the others were left out
+    private final DfaMatcher dfa;
+    private final long[] dfaRules;
+    private final Map<Integer, String> slowPathReasons;
+
+    // Applied to messages before matching, or null to match the message as sent
+    private final TextNormalizer normalizer;
+
+    // Budget, profiling and quarantine of regex rules, or null to run them unguarded
+    private final RuleMonitor monitor;
+    private final RuleMonitor.Profile[] profiles;
+
+    // Profiles each rule belongs to as a bitmask, parallel to rules, and the profile names by bit
+    private final long[] ruleProfiles;
+    private final List<String> profileNames;
+
+    // Results of confirming a rule with its regex
+    private static final int NO_MATCH = 0;
+    private static final int MATCH = 1;
+    private static final int OUT_OF_BUDGET = -1;
+
+    // Per-thread scratch bitsets and reusable matchers so scanning a message doesn't allocate
+    private final ThreadLocal<long[][]> scratch;
+    private final ThreadLocal<Matcher[]> matchers;
+    private final ThreadLocal<BudgetedCharSequence> guards = ThreadLocal.withInitial(BudgetedCharSequence::new);
+
+    private FilterEngine(List<String> rules, Pattern[] patterns, AhoCorasick automaton, long[] alwaysCheck,
+                         int prefilteredCount, DfaMatcher dfa, long[] dfaRules, Map<Integer, String> slowPathReasons,
+                         TextNormalizer normalizer, RuleMonitor monitor, long[] ruleProfiles, List<String> profileNames) {
+        this.rules = rules;
+        this.patterns = patterns;
+        this.automaton = automaton;
+        this.alwaysCheck = alwaysCheck;
+        this.prefilteredCount = prefilteredCount;
+        this.dfa = dfa;
+        this.dfaRules = dfaRules;
+        this.slowPathReasons = slowPathReasons;
+        this.normalizer = normalizer;
+        this.monitor = monitor;
+        this.profiles = monitor != null ? monitor.profilesFor(rules) : null;
+        this.ruleProfiles = ruleProfiles;
+        this.profileNames = profileNames;
+        this.scratch = ThreadLocal.withInitial(() -> new long[][]{new long[alwaysCheck.length], new long[alwaysCheck.length]});
+        this.matchers = ThreadLocal.withInitial(() -> new Matcher[patterns.length]);
+    }
+
+    /**
+     * Compile a filter engine from rules and their compiled patterns
+     *
+     * @param rules The rule sources, in priority order
+     * @param patterns The compiled patterns, parallel to rules
+     * @return The compiled engine
+     */
+    public static FilterEngine compile(List<String> rules, List<Pattern> patterns) {
+        return compile(rules, patterns, false);
+    }
+
+    /**
+     * Compile a filter engine from rules and their compiled patterns
+     *
+     * @param rules The rule sources, in priority order
+     * @param patterns The compiled patterns, parallel to rules
+     * @param useDfa Whether to compile supported rules into the combined DFA
+     * @return The compiled engine
+     */
+    public static FilterEngine compile(List<String> rules, List<Pattern> patterns, boolean useDfa) {
+        return compile(rules, patterns, useDfa, null, null);
+    }
+
+    /**
+     * Compile a filter engine from rules and their compiled patterns
+     *
+     * @param rules The rule sources, in priority order
+     * @param patterns The compiled patterns, parallel to rules
+     * @param useDfa Whether to compile supported rules into the combined DFA
+     * @param normalizer The normalizer to apply to messages before matching, or null for none
+     * @param monitor The monitor guarding regex rules, or null to run them unguarded
+     * @return The compiled engine
+     */
+    public static FilterEngine compile(List<String> rules, List<Pattern> patterns, boolean useDfa,
+                                       TextNormalizer normalizer, RuleMonitor monitor) {
+        return compile(rules, patterns, null, Collections.singletonList("default"), useDfa, normalizer, monitor);
+    }
+
+    /**
+     * Compile a filter engine from rules scoped to profiles
+     *
+     * @param rules The rule sources, in priority order
+     * @param patterns The compiled patterns, parallel to rules
+     * @param ruleProfiles The profile mask of each rule, parallel to rules, or null to put every rule in every profile
+     * @param profileNames The profile names, by bit; the first is the base profile
+     * @param useDfa Whether to compile supported rules into the combined DFA
+     * @param normalizer The normalizer to apply to messages before matching, or null for none
+     * @param monitor The monitor guarding regex rules, or null to run them unguarded
+     * @return The compiled engine
+     */
+    public static FilterEngine compile(List<String> rules, List<Pattern> patterns, long[] ruleProfiles,
+                                       List<String> profileNames, boolean useDfa,
+                                       TextNormalizer normalizer, RuleMonitor monitor) {
+        if (profileNames.isEmpty() || profileNames.size() > MAX_PROFILES) {
+            throw new IllegalArgumentException("An engine needs between 1 and " + MAX_PROFILES + " profiles");
+        }
+        int count = rules.size();
+        long[] masks = new long[count];
+        if (ruleProfiles == null) {
+            Arrays.fill(masks, ALL_PROFILES);
+        } else {
+            System.arraycopy(ruleProfiles, 0, masks, 0, count);
+        }
+        int words = (count + 63) >>> 6;
+        long[] dfaRules = new long[words];
+        Map<Integer, String> slowPathReasons = new LinkedHashMap<>();
+        DfaMatcher dfa = null;
+
+        if (useDfa) {
+            DfaMatcher.Builder dfaBuilder = new DfaMatcher.Builder();
+            for (int id = 0; id < count; id++) {
+                try {
+                    RegexSubsetParser.Node root = RegexSubsetParser.parse(patterns.get(id));
+                    if (dfaBuilder.add(root, id)) {
+                        dfaRules[id >>> 6] |= 1L << id;
+                    } else {
+                        slowPathReasons.put(id, "combined automaton size limit reached");
+                    }
+                } catch (RegexSubsetParser.UnsupportedRegexException e) {
+                    slowPathReasons.put(id, e.getMessage());
+                }
+            }
+            dfa = dfaBuilder.build();
+        }
+
+        // Prefilter the rules the DFA doesn't decide
+        long[] alwaysCheck = new long[words];
+        AhoCorasick.Builder builder = new AhoCorasick.Builder();
+        int prefiltered = 0;
+        for (int id = 0; id < count; id++) {
+            if ((dfaRules[id >>> 6] & (1L << id)) != 0) {
+                continue;
+            }
+            Set<String> literals = LiteralExtractor.extract(rules.get(id));
+            if (literals == null) {
+                alwaysCheck[id >>> 6] |= 1L << id;
+                continue;
+            }
+            for (String literal : literals) {
+                builder.add(literal, id);
+            }
+            prefiltered++;
+        }
+
+        return new FilterEngine(Collections.unmodifiableList(new ArrayList<>(rules)),
+                patterns.toArray(new Pattern[0]), builder.build(), alwaysCheck, prefiltered,
+                dfa, dfaRules, Collections.unmodifiableMap(slowPathReasons), normalizer, monitor,
+                masks, Collections.unmodifiableList(new ArrayList<>(profileNames)));
+    }
+
+    /**
+     * Find the first rule, in rule order, that matches a message
+     *
+     * @param message The message to check
+     * @return The index of the matching rule, or -1 if no rule matches
+     */
+    public int findFirstMatch(String message) {
+        return findFirstMatch(message, ALL_PROFILES);
+    }
+
+    /**
+     * Find the first rule, in rule order, of the given profiles that matches a message
+     *
+     * @param message The message to check
+     * @param profileMask The profiles whose rules apply, see {@link #getProfileMask(String)}
+     * @return The index of the matching rule, or -1 if no rule matches
+     */
+    public int findFirstMatch(String message, long profileMask) {
+        if (patterns.length == 0) {
+            return -1;
+        }
+        CharSequence text = normalizer != null ? normalizer.normalize(message) : message;
+
+        long[][] buffers = scratch.get();
+        long[] candidates = buffers[0];
+        long[] confirmed = buffers[1];
+        System.arraycopy(alwaysCheck, 0, candidates, 0, alwaysCheck.length);
+        automaton.scan(text, candidates);
+
+        if (dfa != null && !dfa.matchRules(text, confirmed)) {
+            // The DFA can't scan this message; confirm its rules with their regex instead
+            for (int word = 0; word < candidates.length; word++) {
+                candidates[word] |= dfaRules[word];
+                confirmed[word] = 0;
+            }
+        }
+
+        Matcher[] ruleMatchers = matchers.get();
+        long deadline = System.nanoTime() + budgetNanos();
+        boolean inBudget = true;
+        int match = -1;
+        for (int word = 0; word < candidates.length; word++) {
+            long matchedBits = confirmed[word];
+            long candidateBits = candidates[word] | matchedBits;
+            candidates[word] = 0;
+            confirmed[word] = 0;
+            while (match < 0 && candidateBits != 0) {
+                int bit = Long.numberOfTrailingZeros(candidateBits);
+                int id = (word << 6) + bit;
+                candidateBits &= candidateBits - 1;
+                if ((ruleProfiles[id] & profileMask) == 0) {
+                    continue; // Scoped to other profiles
+                }
+                if ((matchedBits & (1L << bit)) != 0) {
+                    match = id;
+                } else if (inBudget) {
+                    int result = confirm(ruleMatchers, id, text, deadline, null);
+                    if (result == MATCH) {
+                        match = id;
+                    } else if (result == OUT_OF_BUDGET) {
+                        inBudget = false; // Keep clearing the scratch bits, but run no more regexes
+                    }
+                }
+            }
+        }
+        if (match >= 0 && profiles != null) {
+            profiles[match].recordHit();
+        }
+        return match;
+    }
+
+    /**
+     * Report every match span of every rule in a message. DFA rules report, for each
+     * position where a match ends, the earliest start of a match ending there; regex
+     * rules report the matches found by {@link Matcher#find()}. Spans may overlap and
+     * are not reported in any particular order. Spans are always relative to the
+     * original message, also when the engine normalizes it.
+     *
+     * @param message The message to scan
+     * @param consumer Receives each span
+     */
+    public void findAllMatches(String message, MatchConsumer consumer) {
+        findAllMatches(message, ALL_PROFILES, consumer);
+    }
+
+    /**
+     * Report every match span of every rule of the given profiles in a message,
+     * as described in {@link #findAllMatches(String, MatchConsumer)}
+     *
+     * @param message The message to scan
+     * @param profileMask The profiles whose rules apply, see {@link #getProfileMask(String)}
+     * @param consumer Receives each span
+     */
+    public void findAllMatches(String message, long profileMask, MatchConsumer consumer) {
+        if (patterns.length == 0) {
+            return;
+        }
+        if (profileMask != ALL_PROFILES) {
+            // The DFA reports spans of all its rules at once; drop those of other profiles
+            MatchConsumer target = consumer;
+            consumer = (rule, start, end) -> {
+                if ((ruleProfiles[rule] & profileMask) != 0) {
+                    target.accept(rule, start, end);
+                }
+            };
+        }
+        CharSequence text = message;
+        if (normalizer != null) {
+            TextNormalizer.Normalized normalized = normalizer.normalize(message);
+            MatchConsumer target = consumer;
+            consumer = (rule, start, end) -> target.accept(rule,
+                    normalized.originalStart(start), normalized.originalEnd(end));
+            text = normalized;
+        }
+
+        long[] candidates = scratch.get()[0];
+        System.arraycopy(alwaysCheck, 0, candidates, 0, alwaysCheck.length);
+        automaton.scan(text, candidates);
+
+        if (dfa != null && !dfa.matchSpans(text, consumer::accept)) {
+            for (int word = 0; word < candidates.length; word++) {
+                candidates[word] |= dfaRules[word];
+            }
+        }
+
+        Matcher[] ruleMatchers = matchers.get();
+        long deadline = System.nanoTime() + budgetNanos();
+        boolean inBudget = true;
+        for (int word = 0; word < candidates.length; word++) {
+            long bits = candidates[word];
+            candidates[word] = 0;
+            while (inBudget && bits != 0) {
+                int id = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if ((ruleProfiles[id] & profileMask) == 0) {
+                    continue;
+                }
+                inBudget = confirm(ruleMatchers, id, text, deadline, consumer) != OUT_OF_BUDGET;
+            }
+        }
+    }
+
+    /**
+     * Evaluate every rule against a message and increment the hit counter of each rule
+     * that matches, rather than only the first one. Used to measure rules side by side.
+     *
+     * @param message The message to check
+     * @return The number of rules that matched
+     */
+    public int recordAllMatches(String message) {
+        long[] seen = scratch.get()[1];
+        findAllMatches(message, (rule, start, end) -> seen[rule >>> 6] |= 1L << rule);
+
+        int matched = 0;
+        for (int word = 0; word < seen.length; word++) {
+            long bits = seen[word];
+            seen[word] = 0;
+            matched += Long.bitCount(bits);
+            while (profiles != null && bits != 0) {
+                profiles[(word << 6) + Long.numberOfTrailingZeros(bits)].recordHit();
+                bits &= bits - 1;
+            }
+        }
+        return matched;
+    }
+
+    private long budgetNanos() {
+        return monitor != null ? monitor.getBudgetNanos() : 0;
+    }
+
+    /**
+     * Run a rule's regex against a message within the message's time budget
+     *
+     * @param ruleMatchers This thread's matchers, indexed by rule
+     * @param id The rule index
+     * @param text The message to match
+     * @param deadline When the message's budget runs out, if the monitor sets one
+     * @param consumer Receives every match span, or null to stop at the first match
+     * @return MATCH, NO_MATCH, or OUT_OF_BUDGET if the budget ran out or the thread was interrupted
+     */
+    private int confirm(Matcher[] ruleMatchers, int id, CharSequence text, long deadline, MatchConsumer consumer) {
+        if (monitor == null) {
+            return find(matcher(ruleMatchers, id, text), id, consumer) ? MATCH : NO_MATCH;
+        }
+
+        RuleMonitor.Profile profile = profiles[id];
+        if (profile.isQuarantined()) {
+            return NO_MATCH;
+        }
+
+        BudgetedCharSequence guarded = guards.get();
+        guarded.reset(text, monitor.getBudgetNanos() > 0, deadline);
+        long start = System.nanoTime();
+        try {
+            return find(matcher(ruleMatchers, id, guarded), id, consumer) ? MATCH : NO_MATCH;
+        } catch (BudgetedCharSequence.BudgetExceededException e) {
+            if (!e.isInterrupted()) {
+                monitor.onBudgetExceeded(profile, System.nanoTime() - start);
+            }
+            return OUT_OF_BUDGET;
+        } finally {
+            profile.record(System.nanoTime() - start);
+        }
+    }
+
+    private static boolean find(Matcher matcher, int id, MatchConsumer consumer) {
+        if (consumer == null) {
+            return matcher.find();
+        }
+        boolean found = false;
+        while (matcher.find()) {
+            found = true;
+            consumer.accept(id, matcher.start(), matcher.end());
+        }
+        return found;
+    }
+
+    /**
+     * Get this thread's matcher for a rule, reset to a new input
+     *
+     * @param ruleMatchers This thread's matchers, indexed by rule
+     * @param id The rule index
+     * @param message The input to match against
+     * @return The reset matcher
+     */
+    private Matcher matcher(Matcher[] ruleMatchers, int id, CharSequence message) {
+        Matcher matcher = ruleMatchers[id];
+        if (matcher == null) {
+            matcher = patterns[id].matcher(message);
+            ruleMatchers[id] = matcher;
+        } else {
+            matcher.reset(message);
+        }
+        return matcher;
+    }
+
+    /**
+     * Replace every match of every rule with replacement text. Spans from all rules
+     * are collected in one scan, overlapping spans are merged, and the result is
+     * built in a single buffer. Empty matches are ignored.
+     *
+     * @param message The original message
+     * @param replacement The text to put in place of each merged span
+     * @return The message with matched content replaced
+     */
+    public String replaceMatches(String message, String replacement) {
+        return replaceMatches(message, ALL_PROFILES, replacement);
+    }
+
+    /**
+     * Replace every match of every rule of the given profiles with replacement text,
+     * as described in {@link #replaceMatches(String, String)}
+     *
+     * @param message The original message
+     * @param profileMask The profiles whose rules apply, see {@link #getProfileMask(String)}
+     * @param replacement The text to put in place of each merged span
+     * @return The message with matched content replaced
+     */
+    public String replaceMatches(String message, long profileMask, String replacement) {
+        SpanBuffer spans = new SpanBuffer();
+        findAllMatches(message, profileMask, spans);
+        if (spans.size == 0) {
+            return message;
+        }
+
+        // Packed as start << 32 | end, so sorting orders by start, then end
+        long[] packed = spans.packed;
+        Arrays.sort(packed, 0, spans.size);
+
+        StringBuilder result = new StringBuilder(message.length());
+        int copied = 0;
+        int i = 0;
+        while (i < spans.size) {
+            int start = (int) (packed[i] >>> 32);
+            int end = (int) packed[i];
+            i++;
+            while (i < spans.size && (int) (packed[i] >>> 32) < end) {
+                end = Math.max(end, (int) packed[i]);
+                i++;
+            }
+            result.append(message, copied, start).append(replacement);
+            copied = end;
+        }
+        result.append(message, copied, message.length());
+        return result.toString();
+    }
+
+    /**
+     * Get the source of a rule
+     *
+     * @param index The rule index
+     * @return The rule's regex source
+     */
+    public String getRule(int index) {
+        return rules.get(index);
+    }
+
+    /**
+     * Get the compiled pattern of a rule
+     *
+     * @param index The rule index
+     * @return The rule's compiled pattern
+     */
+    public Pattern getPattern(int index) {
+        return patterns[index];
+    }
+
+    /**
+     * Get the number of rules in this engine
+     *
+     * @return The rule count
+     */
+    public int getRuleCount() {
+        return patterns.length;
+    }
+
+    /**
+     * Get the number of rules that are gated by the literal prefilter
+     *
+     * @return The number of prefiltered rules
+     */
+    public int getPrefilteredRuleCount() {
+        return prefilteredCount;
+    }
+
+    /**
+     * Get the number of states in the literal automaton
+     *
+     * @return The automaton size
+     */
+    public int getAutomatonSize() {
+        return automaton.size();
+    }
+
+    /**
+     * Check whether this engine was compiled in DFA mode
+     *
+     * @return true if supported rules run on the combined DFA
+     */
+    public boolean isDfaEnabled() {
+        return dfa != null;
+    }
+
+    /**
+     * Get the number of rules decided by the combined DFA
+     *
+     * @return The number of DFA rules
+     */
+    public int getDfaRuleCount() {
+        int count = 0;
+        for (long word : dfaRules) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Get the index of a rule in this engine
+     *
+     * @param rule The rule source
+     * @return The rule index, or -1 if the rule isn't in this engine
+     */
+    public int getRuleIndex(String rule) {
+        return rules.indexOf(rule);
+    }
+
+    /**
+     * Check whether a rule is decided by the combined DFA
+     *
+     * @param index The rule index
+     * @return true if the rule runs on the DFA
+     */
+    public boolean isDfaRule(int index) {
+        return (dfaRules[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Get the profiles a rule belongs to
+     *
+     * @param index The rule index
+     * @return The rule's profile mask
+     */
+    public long getRuleProfiles(int index) {
+        return ruleProfiles[index];
+    }
+
+    /**
+     * Get the names of this engine's profiles, by bit
+     *
+     * @return The profile names; the first is the base profile
+     */
+    public List<String> getProfileNames() {
+        return profileNames;
+    }
+
+    /**
+     * Get the mask that selects a profile's rules
+     *
+     * @param profile The profile name
+     * @return The profile's mask, or the base profile's mask if this engine has no such profile
+     */
+    public long getProfileMask(String profile) {
+        int bit = profile != null ? profileNames.indexOf(profile) : -1;
+        return 1L << Math.max(0, bit);
+    }
+
+    /**
+     * Get the number of rules that apply to a profile
+     *
+     * @param profileMask The profile's mask
+     * @return The number of rules in the profile
+     */
+    public int getProfileRuleCount(long profileMask) {
+        int count = 0;
+        for (long mask : ruleProfiles) {
+            if ((mask & profileMask) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Check whether this engine normalizes messages before matching
+     *
+     * @return true if messages are normalized
+     */
+    public boolean isNormalizing() {
+        return normalizer != null;
+    }
+
+    /**
+     * Get the number of DFA states built so far
+     *
+     * @return The number of cached DFA states, 0 if not in DFA mode
+     */
+    public int getDfaStateCount() {
+        return dfa != null ? dfa.cachedStates() : 0;
+    }
+
+    /**
+     * Get the rules that run on java.util.regex in DFA mode, with the reason each one
+     * couldn't be compiled into the DFA
+     *
+     * @return Map of rule index to reason, empty if not in DFA mode
+     */
+    public Map<Integer, String> getSlowPathRules() {
+        return slowPathReasons;
+    }
+
+    /**
+     * Growable list of non-empty spans packed into longs
+     */
+    private static final class SpanBuffer implements MatchConsumer {
+        long[] packed = new long[8];
+        int size;
+
+        @Override
+        public void accept(int rule, int start, int end) {
+            if (end <= start) {
+                return;
+            }
+            if (size == packed.length) {
+                packed = Arrays.copyOf(packed, size * 2);
+            }
+            packed[size++] = ((long) start << 32) | end;
+        }
+    }
+}
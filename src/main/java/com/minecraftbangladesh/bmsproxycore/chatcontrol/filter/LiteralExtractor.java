@@ -0,0 +1,441 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol.filter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Extracts the literals a filter rule requires from its regex source. For a rule
+ * the extractor returns a set of case-folded strings such that every match of the
+ * rule contains at least one of them; rules where no such set can be proven (or
+ * where every candidate is too short to be selective) yield null and must always
+ * be checked with the full regex.
+ */
+final class LiteralExtractor {
+
+    // Cap on the number of alternatives tracked per set, to bound cross products
+    private static final int MAX_SET_SIZE = 64;
+
+    // Literals shorter than this match almost every message and are not worth prefiltering on
+    private static final int MIN_LITERAL_LENGTH = 2;
+
+    private static final Set<String> EMPTY = Collections.singleton("");
+
+    private final String regex;
+    private int pos;
+
+    private LiteralExtractor(String regex) {
+        this.regex = regex;
+    }
+
+    /**
+     * Extract the required literals of a rule
+     *
+     * @param regex The regex source of the rule
+     * @return The required literals in folded form, or null if the rule must always be checked
+     */
+    static Set<String> extract(String regex) {
+        try {
+            LiteralExtractor extractor = new LiteralExtractor(regex);
+            Result result = extractor.parseAlternation();
+            if (extractor.pos != regex.length()) {
+                return null;
+            }
+            Set<String> required = result.required;
+            return minLength(required) >= MIN_LITERAL_LENGTH ? required : null;
+        } catch (UnsupportedOperationException | IndexOutOfBoundsException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Fold a character the same way for literals and scanned text. Upper-then-lower
+     * covers every pair that Pattern's case-insensitive matching treats as equal.
+     */
+    static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private Result parseAlternation() {
+        Result result = parseSequence();
+        while (pos < regex.length() && regex.charAt(pos) == '|') {
+            pos++;
+            result = Result.union(result, parseSequence());
+        }
+        return result;
+    }
+
+    private Result parseSequence() {
+        List<Result> elements = new ArrayList<>();
+        while (pos < regex.length()) {
+            char c = regex.charAt(pos);
+            if (c == '|' || c == ')') {
+                break;
+            }
+            if (regex.startsWith("\\Q", pos)) {
+                // Quoted text is a run of literals; a trailing quantifier binds to the last one only
+                int end = regex.indexOf("\\E", pos + 2);
+                String quoted = end < 0 ? regex.substring(pos + 2) : regex.substring(pos + 2, end);
+                pos = end < 0 ? regex.length() : end + 2;
+                for (int i = 0; i < quoted.length(); i++) {
+                    Result literal = Result.literal(fold(quoted.charAt(i)));
+                    elements.add(i == quoted.length() - 1 ? parseQuantified(literal) : literal);
+                }
+                continue;
+            }
+            elements.add(parseQuantified(parseAtom()));
+        }
+        return Result.sequence(elements);
+    }
+
+    private Result parseQuantified(Result atom) {
+        if (pos >= regex.length()) {
+            return atom;
+        }
+
+        int min;
+        int max;
+        char c = regex.charAt(pos);
+        if (c == '?') {
+            min = 0;
+            max = 1;
+            pos++;
+        } else if (c == '*') {
+            min = 0;
+            max = Integer.MAX_VALUE;
+            pos++;
+        } else if (c == '+') {
+            min = 1;
+            max = Integer.MAX_VALUE;
+            pos++;
+        } else if (c == '{') {
+            int close = regex.indexOf('}', pos);
+            String[] bounds = regex.substring(pos + 1, close).split(",", -1);
+            min = Integer.parseInt(bounds[0].trim());
+            max = bounds.length == 1 ? min
+                    : bounds[1].trim().isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(bounds[1].trim());
+            pos = close + 1;
+        } else {
+            return atom;
+        }
+
+        // Lazy and possessive modifiers don't change what can match
+        if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) {
+            pos++;
+        }
+
+        if (min == 0) {
+            return Result.unknown();
+        }
+        if (min == 1 && max == 1) {
+            return atom;
+        }
+        return new Result(null, atom.required, atom.prefix, atom.suffix);
+    }
+
+    private Result parseAtom() {
+        char c = regex.charAt(pos++);
+        switch (c) {
+            case '(':
+                return parseGroup();
+            case '[':
+                return parseCharClass();
+            case '\\':
+                return parseEscape();
+            case '.':
+                return Result.unknown();
+            case '^':
+            case '$':
+                return Result.exact(EMPTY);
+            default:
+                return Result.literal(fold(c));
+        }
+    }
+
+    private Result parseGroup() {
+        boolean lookaround = false;
+
+        if (regex.charAt(pos) == '?') {
+            pos++;
+            char kind = regex.charAt(pos);
+            if (kind == ':' || kind == '>') {
+                pos++;
+            } else if (kind == '=' || kind == '!') {
+                pos++;
+                lookaround = true;
+            } else if (kind == '<') {
+                pos++;
+                char next = regex.charAt(pos);
+                if (next == '=' || next == '!') {
+                    pos++;
+                    lookaround = true;
+                } else {
+                    // Named group
+                    pos = regex.indexOf('>', pos) + 1;
+                }
+            } else {
+                // Inline flags, either "(?flags)" or "(?flags:X)"
+                int start = pos;
+                while (regex.charAt(pos) != ')' && regex.charAt(pos) != ':') {
+                    pos++;
+                }
+                String flags = regex.substring(start, pos);
+                if (flags.indexOf('x') >= 0) {
+                    // Comments mode changes how the rest of the pattern is parsed
+                    throw new UnsupportedOperationException("comments mode");
+                }
+                if (regex.charAt(pos) == ')') {
+                    pos++;
+                    return Result.exact(EMPTY);
+                }
+                pos++;
+            }
+        }
+
+        Result inner = parseAlternation();
+        if (regex.charAt(pos) != ')') {
+            throw new UnsupportedOperationException("unbalanced group");
+        }
+        pos++;
+
+        // Lookarounds consume nothing
+        return lookaround ? Result.exact(EMPTY) : inner;
+    }
+
+    private Result parseCharClass() {
+        Set<String> chars = new LinkedHashSet<>();
+        boolean simple = true;
+
+        if (regex.charAt(pos) == '^') {
+            simple = false;
+            pos++;
+        }
+
+        int depth = 1;
+        boolean first = true;
+        while (depth > 0) {
+            char c = regex.charAt(pos++);
+            if (c == '\\') {
+                char escaped = regex.charAt(pos++);
+                if (escaped == 'Q') {
+                    throw new UnsupportedOperationException("quoting inside class");
+                }
+                if (Character.isLetterOrDigit(escaped)) {
+                    simple = false;
+                    if ((escaped == 'p' || escaped == 'P') && regex.charAt(pos) == '{') {
+                        pos = regex.indexOf('}', pos) + 1;
+                    }
+                } else {
+                    chars.add(String.valueOf(fold(escaped)));
+                }
+            } else if (c == '[') {
+                simple = false;
+                depth++;
+            } else if (c == ']' && !first) {
+                depth--;
+            } else if (c == '-' || c == '&') {
+                simple = false;
+            } else {
+                chars.add(String.valueOf(fold(c)));
+            }
+            first = false;
+        }
+
+        if (!simple || chars.isEmpty() || chars.size() > 8) {
+            return Result.unknown();
+        }
+        return Result.exact(chars);
+    }
+
+    private Result parseEscape() {
+        char c = regex.charAt(pos++);
+        switch (c) {
+            case 'b':
+            case 'B':
+            case 'A':
+            case 'z':
+            case 'Z':
+            case 'G':
+                return Result.exact(EMPTY);
+            case 't':
+                return Result.literal('\t');
+            case 'n':
+                return Result.literal('\n');
+            case 'r':
+                return Result.literal('\r');
+            case 'f':
+                return Result.literal('\f');
+            case 'a':
+                return Result.literal('\u0007');
+            case 'e':
+                return Result.literal('\u001B');
+            case 'p':
+            case 'P':
+            case 'N':
+            case 'x':
+                if (pos < regex.length() && regex.charAt(pos) == '{') {
+                    pos = regex.indexOf('}', pos) + 1;
+                } else if (c == 'x') {
+                    pos += 2;
+                } else if (c != 'N') {
+                    pos++;
+                }
+                return Result.unknown();
+            case 'u':
+                pos += 4;
+                return Result.unknown();
+            case 'c':
+                pos++;
+                return Result.unknown();
+            case 'k':
+                pos = regex.indexOf('>', pos) + 1;
+                return Result.unknown();
+            default:
+                if (Character.isDigit(c)) {
+                    // Back reference or octal escape
+                    while (pos < regex.length() && Character.isDigit(regex.charAt(pos))) {
+                        pos++;
+                    }
+                    return Result.unknown();
+                }
+                if (Character.isLetter(c)) {
+                    // Predefined classes such as \d, \w, \s, \R, \X
+                    return Result.unknown();
+                }
+                return Result.literal(fold(c));
+        }
+    }
+
+    private static int minLength(Set<String> set) {
+        int min = Integer.MAX_VALUE;
+        for (String s : set) {
+            min = Math.min(min, s.length());
+        }
+        return min;
+    }
+
+    /**
+     * Concatenate every string of one set with every string of another
+     *
+     * @return The cross product, or null if it would exceed the size cap
+     */
+    private static Set<String> cross(Set<String> left, Set<String> right) {
+        if (left.size() * right.size() > MAX_SET_SIZE) {
+            return null;
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for (String l : left) {
+            for (String r : right) {
+                result.add(l + r);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * What is known about the text matched by a regex fragment. Every set is
+     * non-null; a set containing the empty string carries no information.
+     */
+    private static final class Result {
+        // The fragment matches exactly one of these strings, or null if unknown
+        final Set<String> exact;
+        // Every match contains one of these strings
+        final Set<String> required;
+        // Every match starts with one of these strings
+        final Set<String> prefix;
+        // Every match ends with one of these strings
+        final Set<String> suffix;
+
+        Result(Set<String> exact, Set<String> required, Set<String> prefix, Set<String> suffix) {
+            this.exact = exact;
+            this.required = required;
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        static Result exact(Set<String> strings) {
+            return new Result(strings, strings, strings, strings);
+        }
+
+        static Result literal(char c) {
+            return exact(Collections.singleton(String.valueOf(c)));
+        }
+
+        static Result unknown() {
+            return new Result(null, EMPTY, EMPTY, EMPTY);
+        }
+
+        static Result union(Result a, Result b) {
+            Set<String> exact = a.exact != null && b.exact != null ? merge(a.exact, b.exact) : null;
+            return new Result(exact, orEmpty(merge(a.required, b.required)),
+                    orEmpty(merge(a.prefix, b.prefix)), orEmpty(merge(a.suffix, b.suffix)));
+        }
+
+        static Result sequence(List<Result> elements) {
+            List<Set<String>> candidates = new ArrayList<>();
+            Set<String> run = EMPTY;
+            Set<String> prefix = null;
+
+            for (Result element : elements) {
+                if (element.exact != null) {
+                    Set<String> joined = cross(run, element.exact);
+                    if (joined != null) {
+                        run = joined;
+                        continue;
+                    }
+                    // Too many combinations; close the current run and start over
+                    candidates.add(run);
+                    if (prefix == null) {
+                        prefix = run;
+                    }
+                    run = element.exact;
+                } else {
+                    Set<String> joined = cross(run, element.prefix);
+                    if (joined == null) {
+                        joined = run;
+                    }
+                    candidates.add(joined);
+                    candidates.add(element.required);
+                    if (prefix == null) {
+                        prefix = joined;
+                    }
+                    run = element.suffix;
+                }
+            }
+            candidates.add(run);
+
+            if (prefix == null) {
+                return exact(run);
+            }
+            return new Result(null, best(candidates), prefix, run);
+        }
+
+        private static Set<String> best(List<Set<String>> candidates) {
+            Set<String> best = EMPTY;
+            int bestLength = 0;
+            for (Set<String> candidate : candidates) {
+                int length = minLength(candidate);
+                if (length > bestLength || (length == bestLength && length > 0 && candidate.size() < best.size())) {
+                    best = candidate;
+                    bestLength = length;
+                }
+            }
+            return best;
+        }
+
+        private static Set<String> merge(Set<String> a, Set<String> b) {
+            if (a.size() + b.size() > MAX_SET_SIZE) {
+                return null;
+            }
+            Set<String> result = new LinkedHashSet<>(a);
+            result.addAll(b);
+            return result;
+        }
+
+        private static Set<String> orEmpty(Set<String> set) {
+            return set != null ? set : EMPTY;
+        }
+    }
+}
@@ -0,0 +1,442 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Parses the subset of java.util.regex syntax that the DFA engine can run: literals,
+ * character classes with ranges, the predefined classes \d \w \s and their negations,
+ * '.', groups, alternation, greedy and lazy quantifiers, ^ $ \b \B, \Q..\E quoting and
+ * the case-insensitive flag. Anything else (back references, lookarounds, possessive
+ * quantifiers, Unicode properties, other flags) is rejected with the reason.
+ */
+final class RegexSubsetParser {
+
+    private final String regex;
+    private int pos;
+    private boolean caseInsensitive;
+
+    private RegexSubsetParser(String regex, boolean caseInsensitive) {
+        this.regex = regex;
+        this.caseInsensitive = caseInsensitive;
+    }
+
+    /**
+     * Parse a compiled pattern into a syntax tree
+     *
+     * @param pattern The compiled pattern
+     * @return The root node
+     * @throws UnsupportedRegexException If the pattern uses a feature the DFA engine can't run
+     */
+    static Node parse(Pattern pattern) throws UnsupportedRegexException {
+        if ((pattern.flags() & ~Pattern.CASE_INSENSITIVE) != 0) {
+            throw new UnsupportedRegexException("compile flags other than CASE_INSENSITIVE");
+        }
+
+        String regex = pattern.pattern();
+        for (int i = 0; i < regex.length(); i++) {
+            if (Character.isSurrogate(regex.charAt(i))) {
+                throw new UnsupportedRegexException("supplementary characters");
+            }
+        }
+
+        RegexSubsetParser parser = new RegexSubsetParser(regex, (pattern.flags() & Pattern.CASE_INSENSITIVE) != 0);
+        try {
+            Node node = parser.parseAlternation();
+            if (parser.pos != regex.length()) {
+                throw new UnsupportedRegexException("unbalanced ')'");
+            }
+            return node;
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            throw new UnsupportedRegexException("unrecognised syntax");
+        }
+    }
+
+    private Node parseAlternation() throws UnsupportedRegexException {
+        List<Node> branches = new ArrayList<>();
+        branches.add(parseSequence());
+        while (pos < regex.length() && regex.charAt(pos) == '|') {
+            pos++;
+            branches.add(parseSequence());
+        }
+        return branches.size() == 1 ? branches.get(0) : new Alternation(branches);
+    }
+
+    private Node parseSequence() throws UnsupportedRegexException {
+        List<Node> elements = new ArrayList<>();
+        while (pos < regex.length()) {
+            char c = regex.charAt(pos);
+            if (c == '|' || c == ')') {
+                break;
+            }
+            if (regex.startsWith("\\Q", pos)) {
+                // Quoted text is a run of literals; a trailing quantifier binds to the last one only
+                int end = regex.indexOf("\\E", pos + 2);
+                String quoted = end < 0 ? regex.substring(pos + 2) : regex.substring(pos + 2, end);
+                pos = end < 0 ? regex.length() : end + 2;
+                for (int i = 0; i < quoted.length(); i++) {
+                    Node literal = literal(quoted.charAt(i));
+                    elements.add(i == quoted.length() - 1 ? parseQuantified(literal) : literal);
+                }
+                continue;
+            }
+            elements.add(parseQuantified(parseAtom()));
+        }
+        return elements.size() == 1 ? elements.get(0) : new Sequence(elements);
+    }
+
+    private Node parseQuantified(Node atom) throws UnsupportedRegexException {
+        if (pos >= regex.length()) {
+            return atom;
+        }
+
+        int min;
+        int max;
+        char c = regex.charAt(pos);
+        if (c == '?') {
+            min = 0;
+            max = 1;
+        } else if (c == '*') {
+            min = 0;
+            max = Repeat.UNBOUNDED;
+        } else if (c == '+') {
+            min = 1;
+            max = Repeat.UNBOUNDED;
+        } else if (c == '{') {
+            int close = regex.indexOf('}', pos);
+            String[] bounds = regex.substring(pos + 1, close).split(",", -1);
+            min = Integer.parseInt(bounds[0]);
+            max = bounds.length == 1 ? min : bounds[1].isEmpty() ? Repeat.UNBOUNDED : Integer.parseInt(bounds[1]);
+            pos = close;
+        } else {
+            return atom;
+        }
+        pos++;
+
+        if (pos < regex.length()) {
+            if (regex.charAt(pos) == '+') {
+                throw new UnsupportedRegexException("possessive quantifier");
+            }
+            if (regex.charAt(pos) == '?') {
+                // Lazy quantifiers match the same strings; only span selection differs
+                pos++;
+            }
+        }
+
+        if (min > Repeat.MAX_COUNT || (max != Repeat.UNBOUNDED && max > Repeat.MAX_COUNT)) {
+            throw new UnsupportedRegexException("repetition count above " + Repeat.MAX_COUNT);
+        }
+        return new Repeat(atom, min, max);
+    }
+
+    private Node parseAtom() throws UnsupportedRegexException {
+        char c = regex.charAt(pos++);
+        switch (c) {
+            case '(':
+                return parseGroup();
+            case '[':
+                return new CharNode(finishSet(parseCharClass()));
+            case '\\':
+                return parseEscape();
+            case '.':
+                return new CharNode(CharSet.DOT);
+            case '^':
+                return new Assertion(Assertion.BEGIN);
+            case '$':
+                return new Assertion(Assertion.END);
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+                throw new UnsupportedRegexException("dangling quantifier");
+            default:
+                return literal(c);
+        }
+    }
+
+    private Node parseGroup() throws UnsupportedRegexException {
+        boolean savedCaseInsensitive = caseInsensitive;
+
+        if (regex.charAt(pos) == '?') {
+            pos++;
+            char kind = regex.charAt(pos);
+            if (kind == ':') {
+                pos++;
+            } else if (kind == '<' && Character.isLetter(regex.charAt(pos + 1))) {
+                // Named group
+                pos = regex.indexOf('>', pos) + 1;
+            } else if (kind == '=' || kind == '!' || kind == '<') {
+                throw new UnsupportedRegexException("lookaround");
+            } else if (kind == '>') {
+                throw new UnsupportedRegexException("atomic group");
+            } else {
+                boolean enable = true;
+                boolean inlineFlags = true;
+                while (inlineFlags) {
+                    char flag = regex.charAt(pos++);
+                    switch (flag) {
+                        case 'i':
+                            caseInsensitive = enable;
+                            break;
+                        case '-':
+                            enable = false;
+                            break;
+                        case ')':
+                            // "(?i)" applies to the rest of the enclosing group
+                            return new Sequence(new ArrayList<>());
+                        case ':':
+                            inlineFlags = false;
+                            break;
+                        default:
+                            throw new UnsupportedRegexException("inline flag '" + flag + "'");
+                    }
+                }
+            }
+        }
+
+        Node inner = parseAlternation();
+        if (pos >= regex.length() || regex.charAt(pos) != ')') {
+            throw new UnsupportedRegexException("unclosed group");
+        }
+        pos++;
+        caseInsensitive = savedCaseInsensitive;
+        return inner;
+    }
+
+    private CharSet.Builder parseCharClass() throws UnsupportedRegexException {
+        CharSet.Builder builder = CharSet.builder();
+        boolean negated = false;
+        if (regex.charAt(pos) == '^') {
+            negated = true;
+            pos++;
+        }
+
+        boolean first = true;
+        while (true) {
+            char c = regex.charAt(pos++);
+            if (c == ']' && !first) {
+                break;
+            }
+            first = false;
+
+            if (c == '[' || (c == '&' && regex.charAt(pos) == '&')) {
+                throw new UnsupportedRegexException("nested or intersected character class");
+            }
+
+            char low;
+            if (c == '\\') {
+                CharSet predefined = predefinedClass(regex.charAt(pos));
+                if (predefined != null) {
+                    pos++;
+                    builder.addAll(predefined);
+                    continue;
+                }
+                low = parseEscapedChar();
+            } else {
+                low = c;
+            }
+
+            // Range such as a-z; a '-' right before ']' is a literal
+            if (regex.charAt(pos) == '-' && regex.charAt(pos + 1) != ']') {
+                pos++;
+                char highStart = regex.charAt(pos++);
+                char high;
+                if (highStart == '\\') {
+                    if (predefinedClass(regex.charAt(pos)) != null) {
+                        throw new UnsupportedRegexException("range ending in a predefined class");
+                    }
+                    high = parseEscapedChar();
+                } else if (highStart == '[') {
+                    throw new UnsupportedRegexException("nested or intersected character class");
+                } else {
+                    high = highStart;
+                }
+                builder.add(low, high);
+            } else {
+                builder.add(low);
+            }
+        }
+
+        if (!negated) {
+            return builder;
+        }
+        // Case folding applies before negation, as in Pattern
+        CharSet positive = finishSet(builder);
+        return CharSet.builder().addAll(positive.negate());
+    }
+
+    private CharSet finishSet(CharSet.Builder builder) {
+        CharSet set = builder.build();
+        return caseInsensitive ? set.foldAsciiCase() : set;
+    }
+
+    private Node parseEscape() throws UnsupportedRegexException {
+        char c = regex.charAt(pos);
+        CharSet predefined = predefinedClass(c);
+        if (predefined != null) {
+            pos++;
+            return new CharNode(predefined);
+        }
+
+        switch (c) {
+            case 'b':
+                pos++;
+                return new Assertion(Assertion.WORD_BOUNDARY);
+            case 'B':
+                pos++;
+                return new Assertion(Assertion.NOT_WORD_BOUNDARY);
+            case 'A':
+                pos++;
+                return new Assertion(Assertion.BEGIN);
+            case 'z':
+            case 'Z':
+                pos++;
+                return new Assertion(Assertion.END);
+            default:
+                return literal(parseEscapedChar());
+        }
+    }
+
+    /**
+     * Parse the char of an escape sequence, positioned after the backslash
+     */
+    private char parseEscapedChar() throws UnsupportedRegexException {
+        char c = regex.charAt(pos++);
+        switch (c) {
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            case 'a':
+                return '\u0007';
+            case 'e':
+                return '\u001B';
+            case 'x':
+                if (regex.charAt(pos) == '{') {
+                    throw new UnsupportedRegexException("\\x{...} escape");
+                }
+                pos += 2;
+                return (char) Integer.parseInt(regex.substring(pos - 2, pos), 16);
+            case 'u':
+                pos += 4;
+                char unicode = (char) Integer.parseInt(regex.substring(pos - 4, pos), 16);
+                if (Character.isSurrogate(unicode)) {
+                    throw new UnsupportedRegexException("supplementary characters");
+                }
+                return unicode;
+            case '0': {
+                int start = pos;
+                while (pos < regex.length() && pos - start < 3 && regex.charAt(pos) >= '0' && regex.charAt(pos) <= '7') {
+                    pos++;
+                }
+                int value = Integer.parseInt(regex.substring(start, pos), 8);
+                if (value > 0xFF) {
+                    pos--;
+                    value >>= 3;
+                }
+                return (char) value;
+            }
+            default:
+                if (Character.isLetterOrDigit(c)) {
+                    throw new UnsupportedRegexException("escape \\" + c);
+                }
+                return c;
+        }
+    }
+
+    private static CharSet predefinedClass(char c) {
+        switch (c) {
+            case 'd':
+                return CharSet.DIGIT;
+            case 'D':
+                return CharSet.DIGIT.negate();
+            case 'w':
+                return CharSet.WORD;
+            case 'W':
+                return CharSet.WORD.negate();
+            case 's':
+                return CharSet.SPACE;
+            case 'S':
+                return CharSet.SPACE.negate();
+            default:
+                return null;
+        }
+    }
+
+    private Node literal(char c) {
+        CharSet set = CharSet.builder().add(c).build();
+        return new CharNode(caseInsensitive ? set.foldAsciiCase() : set);
+    }
+
+    /**
+     * Node of the parsed regex
+     */
+    abstract static class Node {
+    }
+
+    static final class CharNode extends Node {
+        final CharSet set;
+
+        CharNode(CharSet set) {
+            this.set = set;
+        }
+    }
+
+    static final class Sequence extends Node {
+        final List<Node> elements;
+
+        Sequence(List<Node> elements) {
+            this.elements = elements;
+        }
+    }
+
+    static final class Alternation extends Node {
+        final List<Node> branches;
+
+        Alternation(List<Node> branches) {
+            this.branches = branches;
+        }
+    }
+
+    static final class Repeat extends Node {
+        static final int UNBOUNDED = -1;
+        static final int MAX_COUNT = 100;
+
+        final Node node;
+        final int min;
+        final int max;
+
+        Repeat(Node node, int min, int max) {
+            this.node = node;
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    static final class Assertion extends Node {
+        static final int BEGIN = 0;
+        static final int END = 1;
+        static final int WORD_BOUNDARY = 2;
+        static final int NOT_WORD_BOUNDARY = 3;
+
+        final int kind;
+
+        Assertion(int kind) {
+            this.kind = kind;
+        }
+    }
+
+    /**
+     * Thrown when a rule uses a regex feature outside the supported subset
+     */
+    static final class UnsupportedRegexException extends Exception {
+        UnsupportedRegexException(String reason) {
+            super(reason);
+        }
+    }
+}
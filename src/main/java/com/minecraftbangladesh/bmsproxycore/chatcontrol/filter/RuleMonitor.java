@@ -0,0 +1,185 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol.filter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-message time budget, per-rule profiling and quarantine for the regex rules of
+ * a {@link FilterEngine}, plus hit counters for every rule. Profiles are keyed by rule
+ * source, so counters, timings and quarantine survive engine rebuilds after rule edits.
+ */
+public final class RuleMonitor {
+
+    /**
+     * Notified when a rule is quarantined
+     */
+    public interface QuarantineListener {
+        /**
+         * @param rule The rule source
+         * @param elapsedNanos How long the rule ran before it was stopped
+         */
+        void onQuarantine(String rule, long elapsedNanos);
+    }
+
+    private final Map<String, Profile> profiles = new ConcurrentHashMap<>();
+    private final QuarantineListener listener;
+    private volatile long budgetNanos;
+
+    /**
+     * Create a monitor
+     *
+     * @param budgetMillis The regex time budget per message in milliseconds, or 0 for no limit
+     * @param listener Notified when a rule is quarantined
+     */
+    public RuleMonitor(long budgetMillis, QuarantineListener listener) {
+        this.listener = listener;
+        setBudgetMillis(budgetMillis);
+    }
+
+    /**
+     * Set the regex time budget per message
+     *
+     * @param budgetMillis The budget in milliseconds, or 0 for no limit
+     */
+    public void setBudgetMillis(long budgetMillis) {
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, budgetMillis));
+    }
+
+    long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * Get the profiles for an engine's rules, creating missing ones and dropping
+     * profiles of rules that no longer exist
+     */
+    Profile[] profilesFor(List<String> rules) {
+        Profile[] result = new Profile[rules.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = profiles.computeIfAbsent(rules.get(i), Profile::new);
+        }
+        Set<String> current = new HashSet<>(rules);
+        profiles.keySet().removeIf(rule -> !current.contains(rule));
+        return result;
+    }
+
+    /**
+     * Called when a rule ran out of the message budget. The rule is only quarantined if
+     * it used at least half the budget itself, so a rule that happened to run after a
+     * slow one isn't blamed for it.
+     */
+    void onBudgetExceeded(Profile profile, long elapsedNanos) {
+        if (elapsedNanos * 2 < budgetNanos || profile.quarantined) {
+            return;
+        }
+        profile.quarantined = true;
+        if (listener != null) {
+            listener.onQuarantine(profile.rule, elapsedNanos);
+        }
+    }
+
+    /**
+     * Get the profile of a rule
+     *
+     * @param rule The rule source
+     * @return The profile, or null if the rule hasn't been compiled into an engine
+     */
+    public Profile getProfile(String rule) {
+        return profiles.get(rule);
+    }
+
+    /**
+     * Get the profiles of every rule in the current engine
+     *
+     * @return The profiles, in no particular order
+     */
+    public List<Profile> getProfiles() {
+        return new ArrayList<>(profiles.values());
+    }
+
+    /**
+     * Get every quarantined rule
+     *
+     * @return The quarantined rule sources
+     */
+    public List<String> getQuarantinedRules() {
+        List<String> result = new ArrayList<>();
+        for (Profile profile : profiles.values()) {
+            if (profile.quarantined) {
+                result.add(profile.rule);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drop all profiles, resetting every counter and releasing every quarantined rule
+     */
+    public void reset() {
+        profiles.clear();
+    }
+
+    /**
+     * Evaluation statistics of one rule
+     */
+    public static final class Profile {
+        private final String rule;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private volatile boolean quarantined;
+
+        private Profile(String rule) {
+            this.rule = rule;
+        }
+
+        void record(long nanos) {
+            evaluations.increment();
+            totalNanos.add(nanos);
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+        }
+
+        void recordHit() {
+            hits.increment();
+        }
+
+        public String getRule() {
+            return rule;
+        }
+
+        /**
+         * Get how often this rule was the one that filtered a message
+         */
+        public long getHits() {
+            return hits.sum();
+        }
+
+        public long getEvaluations() {
+            return evaluations.sum();
+        }
+
+        public long getAverageNanos() {
+            long count = evaluations.sum();
+            return count == 0 ? 0 : totalNanos.sum() / count;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        public boolean isQuarantined() {
+            return quarantined;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.minecraftbangladesh.bmsproxycore.chatcontrol.filter;
+
+import java.text.Normalizer;
+
+/**
+ * Normalizes chat text before it is matched against the filter rules, so rules can
+ * stay simple literals instead of spelling out every evasion.
+ *
+ * Every BMP character is mapped through one precomputed table that folds case,
+ * reduces accented and compatibility forms (fullwidth, superscript, ...) to their
+ * base letter, maps confusable letters from other scripts and leetspeak digits to
+ * Latin letters, and strips zero-width and combining characters. Runs of the same
+ * character are then collapsed. The normalized text remembers where each of its
+ * characters came from in the original, so match spans can be mapped back.
+ */
+public final class TextNormalizer {
+
+    // Table value for characters that are removed; U+FFFF is a noncharacter and never maps to itself
+    private static final char STRIP = '\uFFFF';
+
+    // Leetspeak substitutions. '!' and '|' are left out since they commonly follow or separate words.
+    private static final String LEETSPEAK = "0o1i3e4a5s7t8b9g@a$s";
+
+    // Capital letters whose lowercase form looks like a different Latin letter, mapped before case folding
+    private static final String CAPITAL_CONFUSABLES = "ΗhΝnΜmΥyΒbВbНhМmТtКk";
+
+    // Lowercase letters from other scripts that render like a Latin letter
+    private static final String CONFUSABLES =
+            // Cyrillic
+            "аaбbвbгrдdеeёeһhіiїiјjкkмmнhоoпnрpсcтtуyўyхxьbѕsԁdԛqԝwғfқkҝkүyұyҽeӏl"
+            // Greek
+            + "αaβbγyδdεeζzηnθoιiκkμuνvοoρpσoτtυuχxωwϲcϳj"
+            // Latin letters without a decomposition
+            + "ıiȷjłløođdħhŧtƀbɡgɢgɪiʟlɴnʀrʏyᴀaᴄcᴅdᴇeᴊjᴋkᴍmᴏoᴘpᴛtᴜuᴠvᴡwᴢz";
+
+    private final char[] table;
+    private final int maxRepeat;
+    private final ThreadLocal<Normalized> buffers = ThreadLocal.withInitial(Normalized::new);
+
+    /**
+     * Create a normalizer
+     *
+     * @param leetspeak Whether to map leetspeak digits and symbols to letters
+     * @param confusables Whether to map confusable letters from other scripts to Latin letters
+     * @param stripInvisible Whether to remove zero-width, formatting and combining characters
+     * @param maxRepeat The longest run of one character to keep, or 0 to keep runs intact
+     */
+    public TextNormalizer(boolean leetspeak, boolean confusables, boolean stripInvisible, int maxRepeat) {
+        this.maxRepeat = Math.max(0, maxRepeat);
+        this.table = BaseTable.TABLE.clone();
+
+        if (!stripInvisible) {
+            for (int c = 0; c < table.length; c++) {
+                if (table[c] == STRIP) {
+                    table[c] = (char) c;
+                }
+            }
+        }
+        if (confusables) {
+            for (int i = 0; i < CAPITAL_CONFUSABLES.length(); i += 2) {
+                table[CAPITAL_CONFUSABLES.charAt(i)] = CAPITAL_CONFUSABLES.charAt(i + 1);
+            }
+            applyPairs(CONFUSABLES);
+        }
+        if (leetspeak) {
+            applyPairs(LEETSPEAK);
+        }
+    }
+
+    /**
+     * Redirect every character that currently maps to the first char of a pair to the second
+     */
+    private void applyPairs(String pairs) {
+        char[] redirect = new char[table.length];
+        for (int i = 0; i < pairs.length(); i += 2) {
+            redirect[pairs.charAt(i)] = pairs.charAt(i + 1);
+        }
+        for (int c = 0; c < table.length; c++) {
+            char mapped = table[c];
+            if (mapped != STRIP && redirect[mapped] != 0) {
+                table[c] = redirect[mapped];
+            }
+        }
+    }
+
+    /**
+     * Normalize a message. The returned text is reused by the next call on the same
+     * thread, so it must not be kept beyond the current match.
+     *
+     * @param input The original message
+     * @return The normalized text, with offsets back into the original
+     */
+    public Normalized normalize(CharSequence input) {
+        Normalized out = buffers.get();
+        int length = input.length();
+        out.ensureCapacity(length);
+
+        char[] chars = out.chars;
+        int[] offsets = out.offsets;
+        int size = 0;
+        int run = 0;
+        for (int i = 0; i < length; i++) {
+            char mapped = table[input.charAt(i)];
+            if (mapped == STRIP) {
+                continue;
+            }
+            if (size > 0 && chars[size - 1] == mapped) {
+                if (maxRepeat > 0 && ++run > maxRepeat) {
+                    continue; // Collapsed into the run before it
+                }
+            } else {
+                run = 1;
+            }
+            chars[size] = mapped;
+            offsets[size] = i;
+            size++;
+        }
+        offsets[size] = length;
+        out.length = size;
+        return out;
+    }
+
+    /**
+     * Normalized text with a map from each of its characters back to the original
+     */
+    public static final class Normalized implements CharSequence {
+        private char[] chars = new char[64];
+        // offsets[i] is the original index of chars[i]; offsets[length] is the original length
+        private int[] offsets = new int[65];
+        private int length;
+
+        private void ensureCapacity(int capacity) {
+            if (chars.length < capacity) {
+                int size = Math.max(capacity, chars.length * 2);
+                chars = new char[size];
+                offsets = new int[size + 1];
+            }
+        }
+
+        /**
+         * Map the start of a span in the normalized text to the original text
+         *
+         * @param index The start index in the normalized text, inclusive
+         * @return The start index in the original text
+         */
+        public int originalStart(int index) {
+            return offsets[index];
+        }
+
+        /**
+         * Map the end of a span in the normalized text to the original text. The mapped
+         * span also covers characters that were stripped or collapsed after its last character.
+         *
+         * @param index The end index in the normalized text, exclusive
+         * @return The end index in the original text
+         */
+        public int originalEnd(int index) {
+            return offsets[index];
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+            }
+            return chars[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+            }
+            return new String(chars, start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, 0, length);
+        }
+    }
+
+    /**
+     * Case folding, decomposition and stripping shared by every normalizer, computed once
+     */
+    private static final class BaseTable {
+        static final char[] TABLE = build();
+
+        private static char[] build() {
+            char[] table = new char[0x10000];
+            for (int c = 0; c < table.length; c++) {
+                table[c] = baseOf((char) c);
+            }
+            // Hangul fillers render as blank space but aren't formatting characters
+            table['\u115F'] = STRIP;
+            table['\u1160'] = STRIP;
+            table['\u3164'] = STRIP;
+            table['\uFFA0'] = STRIP;
+            return table;
+        }
+
+        private static char baseOf(char c) {
+            if (Character.isSurrogate(c) || c == STRIP) {
+                return c;
+            }
+            switch (Character.getType(c)) {
+                case Character.NON_SPACING_MARK:
+                case Character.ENCLOSING_MARK:
+                case Character.FORMAT:
+                    return STRIP;
+                default:
+                    break;
+            }
+
+            // Reduce to a single base character if the compatibility decomposition has one
+            char base = c;
+            String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFKD);
+            char single = 0;
+            int count = 0;
+            for (int i = 0; i < decomposed.length(); i++) {
+                char d = decomposed.charAt(i);
+                if (Character.getType(d) != Character.NON_SPACING_MARK) {
+                    single = d;
+                    count++;
+                }
+            }
+            if (count == 1 && !Character.isSurrogate(single)) {
+                base = single;
+            }
+
+            char folded = LiteralExtractor.fold(base);
+            return folded == STRIP ? base : folded;
+        }
+    }
+}
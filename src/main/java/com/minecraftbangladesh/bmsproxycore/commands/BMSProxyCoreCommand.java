@@ -1,6 +1,8 @@
 package com.minecraftbangladesh.bmsproxycore.commands;
 
 import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.ChatControlMetrics;
+import com.minecraftbangladesh.bmsproxycore.messaging.PrivateMessagePipeline;
 import com.minecraftbangladesh.bmsproxycore.utils.MessageUtils;
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
@@ -111,6 +113,33 @@ public class BMSProxyCoreCommand implements SimpleCommand {
         source.sendMessage(MessageUtils.formatMessage("&7- Private Messages: " +
             (privateMessagesEnabled ? "&aEnabled" : "&cDisabled")));
 
+        if (privateMessagesEnabled && plugin.getMessagingManager() != null) {
+            PrivateMessagePipeline pipeline = plugin.getMessagingManager().getPipeline();
+            source.sendMessage(MessageUtils.formatMessage("  &7- Pipeline: " +
+                (pipeline.isAsync() ? "&aAsync" : "&eInline")));
+            for (PrivateMessagePipeline.Stage stage : PrivateMessagePipeline.Stage.values()) {
+                PrivateMessagePipeline.StageMetrics metrics = pipeline.getMetrics(stage);
+                source.sendMessage(MessageUtils.formatMessage(String.format(
+                    "    &7- %s: &f%d &7runs, avg &f%.1fµs&7, max &f%.1fµs",
+                    stage.name().toLowerCase(), metrics.getCount(), metrics.getAverageMicros(), metrics.getMaxMicros())));
+            }
+        }
+
+        boolean chatControlEnabled = plugin.isChatControlModuleEnabled();
+        source.sendMessage(MessageUtils.formatMessage("&7- Chat Control: " +
+            (chatControlEnabled ? "&aEnabled" : "&cDisabled")));
+
+        if (chatControlEnabled && plugin.getChatControlManager() != null) {
+            ChatControlMetrics metrics = plugin.getChatControlManager().getMetrics();
+            for (ChatControlMetrics.Check check : ChatControlMetrics.Check.values()) {
+                ChatControlMetrics.LatencyHistogram histogram = metrics.getHistogram(check);
+                source.sendMessage(MessageUtils.formatMessage(String.format(
+                    "    &7- %s: &f%d &7checks, avg &f%.1fµs&7, p99 &f%.1fµs",
+                    check.name().toLowerCase(), histogram.getCount(), histogram.getAverageMicros(),
+                    histogram.getPercentileMicros(99))));
+            }
+        }
+
         boolean lobbyCommandEnabled = plugin.isLobbyCommandModuleEnabled();
         source.sendMessage(MessageUtils.formatMessage("&7- Lobby Command: " +
             (lobbyCommandEnabled ? "&aEnabled" : "&cDisabled")));
@@ -119,6 +148,16 @@ public class BMSProxyCoreCommand implements SimpleCommand {
             String targetServer = plugin.getConfigManager().getLobbyTargetServer();
             source.sendMessage(MessageUtils.formatMessage("  &7- Target Server: &f" + targetServer));
         }
+
+        source.sendMessage(MessageUtils.formatMessage(""));
+        source.sendMessage(MessageUtils.formatMessage("&6Permission Cache: " +
+            (plugin.getConfigManager().isPermissionCacheEnabled() ? "&aEnabled" : "&cDisabled")));
+        if (plugin.getConfigManager().isPermissionCacheEnabled()) {
+            source.sendMessage(MessageUtils.formatMessage(String.format(
+                "&7- &f%d &7players cached, &f%d &7nodes each, refreshed every &f%ds",
+                plugin.getPermissionCache().getCachedPlayerCount(), plugin.getPermissionCache().getNodeCount(),
+                plugin.getConfigManager().getPermissionCacheTtlSeconds())));
+        }
     }
 
     private void handleModules(CommandSource source) {
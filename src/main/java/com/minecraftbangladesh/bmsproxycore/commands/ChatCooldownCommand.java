@@ -1,6 +1,9 @@
 package com.minecraftbangladesh.bmsproxycore.commands;
 
 import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.RateLimiter;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.SlowmodeController;
+import com.minecraftbangladesh.bmsproxycore.utils.CooldownService;
 import com.minecraftbangladesh.bmsproxycore.utils.MessageUtils;
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
@@ -117,6 +120,29 @@ public class ChatCooldownCommand implements SimpleCommand {
             source.sendMessage(MessageUtils.formatMessage(message));
         }
         
+        // Show how the duration is enforced
+        String mode = plugin.getConfigManager().getChatCooldownMode();
+        switch (RateLimiter.Mode.fromConfig(mode)) {
+            case TOKEN_BUCKET:
+                source.sendMessage(MessageUtils.formatMessage("&7Mode: token-bucket (burst of "
+                        + plugin.getConfigManager().getChatCooldownBurst() + " messages)"));
+                break;
+            case SLIDING_WINDOW:
+                source.sendMessage(MessageUtils.formatMessage("&7Mode: sliding-window ("
+                        + plugin.getConfigManager().getChatCooldownWindowSeconds() + "s window)"));
+                break;
+            default:
+                source.sendMessage(MessageUtils.formatMessage("&7Mode: cooldown"));
+                break;
+        }
+        
+        if (plugin.getConfigManager().isChatCooldownDistributedEnabled()) {
+            boolean connected = plugin.getRedisManager() != null && plugin.getRedisManager().isConnected();
+            source.sendMessage(MessageUtils.formatMessage(connected
+                    ? "&7Limits are shared with other proxies through Redis."
+                    : "&cLimits are set to be shared through Redis, but Redis is not connected."));
+        }
+        
         // Show permission-based cooldowns if enabled
         if (plugin.getConfigManager().isChatCooldownPermissionBasedEnabled()) {
             source.sendMessage(MessageUtils.formatMessage("&7Permission-based cooldowns are enabled:"));
@@ -125,8 +151,22 @@ public class ChatCooldownCommand implements SimpleCommand {
             });
         }
         
+        // Show adaptive slowmode
+        if (plugin.getConfigManager().isChatSlowmodeEnabled()) {
+            SlowmodeController slowmode = plugin.getChatControlManager().getSlowmode();
+            source.sendMessage(MessageUtils.formatMessage("&7Slowmode: level &f" + slowmode.getGlobalLevel()
+                    + " &7(" + slowmode.getGlobalRate() + " messages in the last minute)"));
+            slowmode.getActiveServerLevels().forEach((server, level) ->
+                    source.sendMessage(MessageUtils.formatMessage("&7- " + server + ": level &f" + level
+                            + " &7(" + slowmode.getServerRate(server) + " messages in the last minute)")));
+        }
+        
         // Show statistics
         source.sendMessage(MessageUtils.formatMessage("&7Active cooldown entries: " + plugin.getChatControlManager().getActiveCooldownCount()));
+        for (CooldownService.Table table : plugin.getCooldownService().getTables()) {
+            source.sendMessage(MessageUtils.formatMessage(String.format("&7- %s: &f%d &7entries, &f%.1f KB",
+                    table.getName(), table.size(), table.getMemoryBytes() / 1024.0)));
+        }
     }
 
     private void handleClearCommand(CommandSource source) {
@@ -1,6 +1,13 @@
 package com.minecraftbangladesh.bmsproxycore.commands;
 
 import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.ChatControlMetrics;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.FilterProfiles;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.ShadowRuleManager;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.filter.FilterBenchmark;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.filter.FilterEngine;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.filter.RuleMonitor;
+import com.minecraftbangladesh.bmsproxycore.redis.CrossProxyFilterRuleSync;
 import com.minecraftbangladesh.bmsproxycore.utils.MessageUtils;
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
@@ -8,15 +15,21 @@ import com.velocitypowered.api.proxy.ConsoleCommandSource;
 import com.velocitypowered.api.proxy.Player;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Command for managing chat filter rules
  */
 public class ChatFilterCommand implements SimpleCommand {
 
+    private static final int STATS_TOP_RULES = 10;
+
     private final BMSProxyCore plugin;
+    private final AtomicBoolean benchmarkRunning = new AtomicBoolean();
 
     public ChatFilterCommand(BMSProxyCore plugin) {
         this.plugin = plugin;
@@ -70,6 +83,21 @@ public class ChatFilterCommand implements SimpleCommand {
             case "clear":
                 handleClearCommand(source);
                 break;
+            case "benchmark":
+                handleBenchmarkCommand(source, args);
+                break;
+            case "engine":
+                handleEngineCommand(source);
+                break;
+            case "stats":
+                handleStatsCommand(source);
+                break;
+            case "shadow":
+                handleShadowCommand(source, args);
+                break;
+            case "promote":
+                handlePromoteCommand(source, args);
+                break;
             default:
                 sendUsage(source);
                 break;
@@ -151,12 +179,32 @@ public class ChatFilterCommand implements SimpleCommand {
         source.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getChatFilterListHeaderMessage()));
         
         String listFormat = plugin.getConfigManager().getChatFilterListFormatMessage();
+        FilterEngine engine = plugin.getChatControlManager().getFilterEngine();
+        RuleMonitor monitor = plugin.getChatControlManager().getRuleMonitor();
         for (String rule : rules) {
-            String formattedRule = listFormat.replace("{rule}", rule);
+            String formattedRule = listFormat.replace("{rule}", rule)
+                    .replace("{timing}", describeRuleTiming(engine, monitor, rule));
             source.sendMessage(MessageUtils.formatMessage(formattedRule));
         }
     }
 
+    private String describeRuleTiming(FilterEngine engine, RuleMonitor monitor, String rule) {
+        RuleMonitor.Profile profile = monitor.getProfile(rule);
+        if (profile != null && profile.isQuarantined()) {
+            return "&cquarantined";
+        }
+
+        int index = engine.getRuleIndex(rule);
+        if (index >= 0 && engine.isDfaRule(index)) {
+            return "&adfa";
+        }
+        if (profile == null || profile.getEvaluations() == 0) {
+            return "&7not evaluated yet";
+        }
+        return String.format("&7%d checks, avg &f%.3fms&7, max &f%.3fms", profile.getEvaluations(),
+                profile.getAverageNanos() / 1_000_000.0, profile.getMaxNanos() / 1_000_000.0);
+    }
+
     private void handleReloadCommand(CommandSource source) {
         // Check reload permission
         String reloadPermission = plugin.getConfigManager().getChatFilterReloadPermission();
@@ -166,7 +214,10 @@ public class ChatFilterCommand implements SimpleCommand {
         }
 
         try {
-            plugin.getChatControlManager().loadFilterRules();
+            // Save pending edits first, then pick up any changes made to the rules file
+            plugin.getConfigManager().saveChatFilterRules();
+            plugin.getConfigManager().reloadChatFilterRules();
+            plugin.getChatControlManager().reloadFilterRules();
             source.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getChatControlReloadSuccessMessage()));
         } catch (Exception e) {
             source.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getChatControlReloadFailedMessage()));
@@ -175,12 +226,276 @@ public class ChatFilterCommand implements SimpleCommand {
     }
 
     private void handleClearCommand(CommandSource source) {
-        // Confirmation required for clear command
-        plugin.getChatControlManager().getFilterRules().clear();
+        plugin.getChatControlManager().clearFilterRules();
         // Note: This doesn't save to config, it's a temporary clear
         source.sendMessage(MessageUtils.formatMessage("&aAll filter rules have been temporarily cleared. Use '/chatfilter reload' to restore from config."));
     }
 
+    private void handleEngineCommand(CommandSource source) {
+        FilterEngine engine = plugin.getChatControlManager().getFilterEngine();
+
+        source.sendMessage(MessageUtils.formatMessage("&6Chat Filter Engine:"));
+        source.sendMessage(MessageUtils.formatMessage("&7Mode: &f" + (engine.isDfaEnabled() ? "dfa" : "prefilter")));
+        source.sendMessage(MessageUtils.formatMessage("&7Normalization: " + (engine.isNormalizing() ? "&aenabled" : "&cdisabled")));
+        source.sendMessage(MessageUtils.formatMessage("&7Rules: &f" + engine.getRuleCount()
+                + " &7(DFA: &f" + engine.getDfaRuleCount() + "&7, prefiltered: &f" + engine.getPrefilteredRuleCount() + "&7)"));
+        source.sendMessage(MessageUtils.formatMessage("&7Regex time budget: &f" + plugin.getConfigManager().getChatFilterRuleTimeBudget()
+                + "ms &7per message"));
+
+        List<String> profileNames = engine.getProfileNames();
+        if (profileNames.size() > 1) {
+            FilterProfiles profiles = plugin.getChatControlManager().getFilterProfiles();
+            source.sendMessage(MessageUtils.formatMessage("&7Profiles (one shared scan):"));
+            for (String profile : profileNames) {
+                List<String> servers = profiles.getServers(profile);
+                source.sendMessage(MessageUtils.formatMessage("&7- &f" + profile + "&7: &f"
+                        + engine.getProfileRuleCount(engine.getProfileMask(profile)) + " &7rules"
+                        + (servers.isEmpty() ? "" : " &8(" + String.join(", ", servers) + ")")));
+            }
+        }
+
+        if (plugin.getConfigManager().isChatFilterDistributedEnabled()) {
+            CrossProxyFilterRuleSync sync = plugin.getChatControlManager().getFilterRuleSync();
+            if (sync == null) {
+                source.sendMessage(MessageUtils.formatMessage("&cRules are set to be shared through Redis, but Redis is not connected."));
+            } else if (sync.getAppliedHash() == null) {
+                source.sendMessage(MessageUtils.formatMessage("&7Shared rules: &enot synced yet"));
+            } else {
+                source.sendMessage(MessageUtils.formatMessage("&7Shared rules: version &f" + sync.getAppliedVersion()
+                        + " &8(" + sync.getAppliedHash().substring(0, 12) + ")"));
+            }
+        }
+
+        List<String> quarantined = plugin.getChatControlManager().getRuleMonitor().getQuarantinedRules();
+        if (!quarantined.isEmpty()) {
+            source.sendMessage(MessageUtils.formatMessage("&cQuarantined rules (exceeded the time budget):"));
+            for (String rule : quarantined) {
+                source.sendMessage(MessageUtils.formatMessage("&7- " + rule));
+            }
+        }
+
+        if (engine.isDfaEnabled()) {
+            source.sendMessage(MessageUtils.formatMessage("&7DFA states built: &f" + engine.getDfaStateCount()));
+            if (engine.getSlowPathRules().isEmpty()) {
+                source.sendMessage(MessageUtils.formatMessage("&aAll rules run on the DFA."));
+            } else {
+                source.sendMessage(MessageUtils.formatMessage("&eSlow-path rules (java.util.regex):"));
+                for (Map.Entry<Integer, String> entry : engine.getSlowPathRules().entrySet()) {
+                    source.sendMessage(MessageUtils.formatMessage("&7- " + engine.getRule(entry.getKey()) + " &8(" + entry.getValue() + ")"));
+                }
+            }
+        }
+    }
+
+    private void handleStatsCommand(CommandSource source) {
+        source.sendMessage(MessageUtils.formatMessage("&6Chat Control Latency:"));
+        ChatControlMetrics metrics = plugin.getChatControlManager().getMetrics();
+        for (ChatControlMetrics.Check check : ChatControlMetrics.Check.values()) {
+            ChatControlMetrics.LatencyHistogram histogram = metrics.getHistogram(check);
+            source.sendMessage(MessageUtils.formatMessage(String.format(
+                    "&7- %s: &f%d &7checks, avg &f%.1fµs&7, p50 &f%.1fµs&7, p99 &f%.1fµs&7, max &f%.1fµs",
+                    check.name().toLowerCase(), histogram.getCount(), histogram.getAverageMicros(),
+                    histogram.getPercentileMicros(50), histogram.getPercentileMicros(99), histogram.getMaxMicros())));
+        }
+        if (metrics.getTimeouts() > 0) {
+            source.sendMessage(MessageUtils.formatMessage("&7- &f" + metrics.getTimeouts()
+                    + " &7messages missed the " + plugin.getConfigManager().getChatAsyncDeadlineMillis() + "ms deadline"));
+        }
+
+        List<RuleMonitor.Profile> profiles = plugin.getChatControlManager().getRuleMonitor().getProfiles();
+        profiles.removeIf(profile -> profile.getHits() == 0);
+        if (profiles.isEmpty()) {
+            source.sendMessage(MessageUtils.formatMessage("&7No filter rule has matched since the last reload."));
+            return;
+        }
+
+        profiles.sort(Comparator.comparingLong(RuleMonitor.Profile::getHits).reversed());
+        long totalHits = 0;
+        for (RuleMonitor.Profile profile : profiles) {
+            totalHits += profile.getHits();
+        }
+        source.sendMessage(MessageUtils.formatMessage("&6Filter Rule Hits: &f" + totalHits
+                + " &7total, &f" + profiles.size() + " &7rules matched"));
+        for (RuleMonitor.Profile profile : profiles.subList(0, Math.min(STATS_TOP_RULES, profiles.size()))) {
+            source.sendMessage(MessageUtils.formatMessage("&7- &f" + profile.getHits() + " &8" + profile.getRule()));
+        }
+    }
+
+    private void handleShadowCommand(CommandSource source, String[] args) {
+        ShadowRuleManager shadowRules = plugin.getChatControlManager().getShadowRules();
+        String action = args.length > 1 ? args[1].toLowerCase() : "list";
+
+        switch (action) {
+            case "add": {
+                if (args.length < 3) {
+                    source.sendMessage(MessageUtils.formatMessage("&cUsage: /chatfilter shadow add <regex_pattern>"));
+                    return;
+                }
+                String pattern = joinArguments(args, 2);
+                if (plugin.getChatControlManager().getFilterRules().contains(pattern)) {
+                    source.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getChatFilterRuleAlreadyExistsMessage()
+                            .replace("{rule}", pattern)));
+                } else if (shadowRules.addRule(pattern)) {
+                    source.sendMessage(MessageUtils.formatMessage("&aAdded shadow rule: &f" + pattern
+                            + " &7(evaluated on " + plugin.getConfigManager().getChatFilterShadowSamplePercent() + "% of chat, not enforced)"));
+                } else if (shadowRules.getRules().contains(pattern)) {
+                    source.sendMessage(MessageUtils.formatMessage("&cThat shadow rule already exists: &f" + pattern));
+                } else {
+                    source.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getChatFilterInvalidRegexMessage()
+                            .replace("{rule}", pattern)));
+                }
+                break;
+            }
+            case "remove":
+            case "delete": {
+                if (args.length < 3) {
+                    source.sendMessage(MessageUtils.formatMessage("&cUsage: /chatfilter shadow remove <regex_pattern>"));
+                    return;
+                }
+                String pattern = joinArguments(args, 2);
+                if (shadowRules.removeRule(pattern)) {
+                    source.sendMessage(MessageUtils.formatMessage("&aRemoved shadow rule: &f" + pattern));
+                } else {
+                    source.sendMessage(MessageUtils.formatMessage("&cNo shadow rule found: &f" + pattern));
+                }
+                break;
+            }
+            case "list": {
+                List<String> rules = shadowRules.getRules();
+                if (rules.isEmpty()) {
+                    source.sendMessage(MessageUtils.formatMessage("&7No shadow rules. Add one with /chatfilter shadow add <pattern>"));
+                    return;
+                }
+
+                long sampled = shadowRules.getSampledMessageCount();
+                ChatControlMetrics.LatencyHistogram latency = shadowRules.getEvaluationLatency();
+                source.sendMessage(MessageUtils.formatMessage("&6Shadow Rules: &f" + sampled + " &7messages sampled, &f"
+                        + shadowRules.getDroppedMessageCount() + " &7dropped"));
+                source.sendMessage(MessageUtils.formatMessage(String.format(
+                        "&7All shadow rules per message: avg &f%.1fµs&7, p99 &f%.1fµs&7, max &f%.1fµs",
+                        latency.getAverageMicros(), latency.getPercentileMicros(99), latency.getMaxMicros())));
+
+                for (String rule : rules) {
+                    RuleMonitor.Profile profile = shadowRules.getProfile(rule);
+                    if (profile == null) {
+                        continue;
+                    }
+                    double hitRate = sampled == 0 ? 0.0 : profile.getHits() * 100.0 / sampled;
+                    String status = profile.isQuarantined() ? " &c(quarantined)" : "";
+                    source.sendMessage(MessageUtils.formatMessage(String.format(
+                            "&7- &f%s &8| &f%d &7hits (&f%.2f%%&7), avg &f%.3fms&7, max &f%.3fms%s",
+                            rule, profile.getHits(), hitRate, profile.getAverageNanos() / 1_000_000.0,
+                            profile.getMaxNanos() / 1_000_000.0, status)));
+                }
+                break;
+            }
+            default:
+                source.sendMessage(MessageUtils.formatMessage("&cUsage: /chatfilter shadow <add|remove|list> [regex_pattern]"));
+                break;
+        }
+    }
+
+    private void handlePromoteCommand(CommandSource source, String[] args) {
+        if (args.length < 2) {
+            source.sendMessage(MessageUtils.formatMessage("&cUsage: /chatfilter promote <regex_pattern>"));
+            return;
+        }
+
+        String pattern = joinArguments(args, 1);
+        ShadowRuleManager shadowRules = plugin.getChatControlManager().getShadowRules();
+        if (!shadowRules.getRules().contains(pattern)) {
+            source.sendMessage(MessageUtils.formatMessage("&cNo shadow rule found: &f" + pattern));
+            return;
+        }
+
+        if (plugin.getChatControlManager().isAtMaxFilterRules()) {
+            int maxRules = plugin.getConfigManager().getChatControlMaxFilterRules();
+            source.sendMessage(MessageUtils.formatMessage("&cMaximum number of filter rules reached (" + maxRules + ")."));
+            return;
+        }
+
+        if (plugin.getChatControlManager().addFilterRule(pattern, true)) {
+            shadowRules.removeRule(pattern);
+            source.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getChatFilterRuleAddedMessage()
+                    .replace("{rule}", pattern)));
+        } else {
+            source.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getChatFilterRuleAlreadyExistsMessage()
+                    .replace("{rule}", pattern)));
+        }
+    }
+
+    private String joinArguments(String[] args, int from) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = from; i < args.length; i++) {
+            if (i > from) builder.append(" ");
+            builder.append(args[i]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Run the filter benchmark on synthetic rules. It keeps a proxy thread busy for up to
+     * a few seconds, so it needs its own permission and only one run goes at a time.
+     */
+    private void handleBenchmarkCommand(CommandSource source, String[] args) {
+        if (!canBenchmark(source)) {
+            source.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getChatControlNoPermissionMessage()));
+            return;
+        }
+
+        int ruleCount = 500;
+        int messageCount = 2000;
+        try {
+            if (args.length > 1) {
+                ruleCount = Integer.parseInt(args[1]);
+            }
+            if (args.length > 2) {
+                messageCount = Integer.parseInt(args[2]);
+            }
+        } catch (NumberFormatException e) {
+            source.sendMessage(MessageUtils.formatMessage("&cUsage: /chatfilter benchmark [rules] [messages]"));
+            return;
+        }
+
+        if (ruleCount < 1 || ruleCount > 5000 || messageCount < 1 || messageCount > 100000) {
+            source.sendMessage(MessageUtils.formatMessage("&cRules must be between 1 and 5000, messages between 1 and 100000."));
+            return;
+        }
+
+        if (!benchmarkRunning.compareAndSet(false, true)) {
+            source.sendMessage(MessageUtils.formatMessage("&cA filter benchmark is already running."));
+            return;
+        }
+
+        int rules = ruleCount;
+        int messages = messageCount;
+        source.sendMessage(MessageUtils.formatMessage("&eRunning filter benchmark with &7" + rules + " &erules and &7" + messages + " &emessages..."));
+
+        // Run off the command thread; a large sequential scan can take a few seconds
+        plugin.getServer().getScheduler().buildTask(plugin, () -> {
+            FilterBenchmark.Result result;
+            try {
+                result = FilterBenchmark.run(rules, messages, System.nanoTime());
+            } finally {
+                benchmarkRunning.set(false);
+            }
+            source.sendMessage(MessageUtils.formatMessage("&6Chat Filter Benchmark:"));
+            source.sendMessage(MessageUtils.formatMessage("&7Prefiltered rules: &f" + result.prefilteredRules + "/" + result.ruleCount
+                    + " &7(" + result.automatonStates + " automaton states, compiled in " + result.compileNanos / 1_000_000 + "ms)"));
+            source.sendMessage(MessageUtils.formatMessage(String.format("&7Sequential regex: &f%.2fms &7(%.1fµs/message)",
+                    result.sequentialNanos / 1_000_000.0, result.sequentialNanos / 1000.0 / result.messageCount)));
+            source.sendMessage(MessageUtils.formatMessage(String.format("&7Prefiltered engine: &f%.2fms &7(%.1fµs/message)",
+                    result.engineNanos / 1_000_000.0, result.engineNanos / 1000.0 / result.messageCount)));
+            source.sendMessage(MessageUtils.formatMessage(String.format("&7DFA engine: &f%.2fms &7(%.1fµs/message, %d states)",
+                    result.dfaNanos / 1_000_000.0, result.dfaNanos / 1000.0 / result.messageCount, result.dfaStates)));
+            source.sendMessage(MessageUtils.formatMessage(String.format("&7Speedup: &a%.1fx &7- matches: &f%d &7vs &f%d",
+                    result.getSpeedup(), result.sequentialMatches, result.engineMatches)));
+            if (result.mismatches > 0) {
+                source.sendMessage(MessageUtils.formatMessage("&cResults differed on " + result.mismatches + " messages!"));
+            }
+        }).schedule();
+    }
+
     private void sendUsage(CommandSource source) {
         source.sendMessage(MessageUtils.formatMessage("&6Chat Filter Commands:"));
         source.sendMessage(MessageUtils.formatMessage("&7/chatfilter add <pattern> &8- &fAdd a new filter rule"));
@@ -188,6 +503,18 @@ public class ChatFilterCommand implements SimpleCommand {
         source.sendMessage(MessageUtils.formatMessage("&7/chatfilter list &8- &fList all active filter rules"));
         source.sendMessage(MessageUtils.formatMessage("&7/chatfilter reload &8- &fReload filter configuration"));
         source.sendMessage(MessageUtils.formatMessage("&7/chatfilter clear &8- &fTemporarily clear all rules"));
+        source.sendMessage(MessageUtils.formatMessage("&7/chatfilter engine &8- &fShow filter engine status and slow-path rules"));
+        source.sendMessage(MessageUtils.formatMessage("&7/chatfilter stats &8- &fShow chat control latency and rule hit counts"));
+        source.sendMessage(MessageUtils.formatMessage("&7/chatfilter shadow <add|remove|list> [pattern] &8- &fTest rules on live chat without enforcing them"));
+        source.sendMessage(MessageUtils.formatMessage("&7/chatfilter promote <pattern> &8- &fEnforce a shadow rule"));
+        if (canBenchmark(source)) {
+            source.sendMessage(MessageUtils.formatMessage("&7/chatfilter benchmark [rules] [messages] &8- &fBenchmark the filter engine"));
+        }
+    }
+
+    private boolean canBenchmark(CommandSource source) {
+        String benchmarkPermission = plugin.getConfigManager().getChatFilterBenchmarkPermission();
+        return !(source instanceof Player) || benchmarkPermission.isEmpty() || source.hasPermission(benchmarkPermission);
     }
 
     @Override
@@ -198,13 +525,32 @@ public class ChatFilterCommand implements SimpleCommand {
         if (args.length == 1) {
             // Suggest subcommands
             String input = args[0].toLowerCase();
-            List<String> subCommands = List.of("add", "remove", "list", "reload", "clear");
+            List<String> subCommands = List.of("add", "remove", "list", "reload", "clear", "engine", "stats", "shadow", "promote", "benchmark");
             
             for (String subCommand : subCommands) {
+                if (subCommand.equals("benchmark") && !canBenchmark(invocation.source())) {
+                    continue;
+                }
                 if (subCommand.startsWith(input)) {
                     suggestions.add(subCommand);
                 }
             }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("shadow")) {
+            String input = args[1].toLowerCase();
+            for (String action : List.of("add", "remove", "list")) {
+                if (action.startsWith(input)) {
+                    suggestions.add(action);
+                }
+            }
+        } else if ((args.length == 2 && args[0].equalsIgnoreCase("promote"))
+                || (args.length == 3 && args[0].equalsIgnoreCase("shadow") && args[1].equalsIgnoreCase("remove"))) {
+            // Suggest existing shadow rules
+            String input = args[args.length - 1].toLowerCase();
+            for (String rule : plugin.getChatControlManager().getShadowRules().getRules()) {
+                if (rule.toLowerCase().startsWith(input)) {
+                    suggestions.add(rule);
+                }
+            }
         } else if (args.length == 2 && args[0].equalsIgnoreCase("remove")) {
             // Suggest existing filter rules for removal
             String input = args[1].toLowerCase();
@@ -6,14 +6,13 @@ import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
 import com.velocitypowered.api.proxy.ConsoleCommandSource;
 import com.velocitypowered.api.proxy.Player;
-import net.kyori.adventure.text.Component;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.List;
 import java.util.ArrayList;
 
 /**
- * Command for clearing chat by sending multiple empty messages
+ * Command for clearing chat, for everyone or for the players on one server
  */
 public class ClearChatCommand implements SimpleCommand {
 
@@ -40,35 +39,42 @@ public class ClearChatCommand implements SimpleCommand {
             return;
         }
 
-        // Get the number of empty messages to send
-        int emptyMessages = plugin.getConfigManager().getClearChatEmptyMessages();
-        
-        // Send empty messages to all players
-        Component emptyMessage = Component.empty();
-        for (Player player : plugin.getServer().getAllPlayers()) {
-            for (int i = 0; i < emptyMessages; i++) {
-                player.sendMessage(emptyMessage);
+        // Optional server scope
+        String[] args = invocation.arguments();
+        String server = null;
+        if (args.length > 0) {
+            server = plugin.getServer().getServer(args[0])
+                    .map(registered -> registered.getServerInfo().getName())
+                    .orElse(null);
+            if (server == null) {
+                source.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getClearChatUnknownServerMessage()
+                        .replace("{server}", args[0])));
+                return;
             }
         }
 
-        // Send completion message to all players
+        // Clear chat here and on every other proxy
         String playerName = source instanceof Player ? ((Player) source).getUsername() : "Console";
-        String completionMessage = plugin.getConfigManager().getClearChatCompletionMessage()
-                .replace("{player}", playerName);
-        
-        Component formattedCompletionMessage = MessageUtils.formatMessage(completionMessage);
-        for (Player player : plugin.getServer().getAllPlayers()) {
-            player.sendMessage(formattedCompletionMessage);
-        }
+        plugin.getChatControlManager().clearChat(playerName, server);
 
         // Log to console
-        plugin.getLogger().info("Chat cleared by " + playerName);
+        plugin.getLogger().info("Chat " + (server == null ? "" : "on " + server + " ") + "cleared by " + playerName);
     }
 
     @Override
     public CompletableFuture<List<String>> suggestAsync(Invocation invocation) {
-        // No tab completion needed for clear chat command
-        return CompletableFuture.completedFuture(new ArrayList<>());
+        String[] args = invocation.arguments();
+        List<String> suggestions = new ArrayList<>();
+        if (args.length <= 1) {
+            String prefix = args.length == 0 ? "" : args[0].toLowerCase();
+            plugin.getServer().getAllServers().forEach(registered -> {
+                String name = registered.getServerInfo().getName();
+                if (name.toLowerCase().startsWith(prefix)) {
+                    suggestions.add(name);
+                }
+            });
+        }
+        return CompletableFuture.completedFuture(suggestions);
     }
 
     @Override
@@ -1,6 +1,7 @@
 package com.minecraftbangladesh.bmsproxycore.commands;
 
 import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.utils.CooldownService;
 import com.minecraftbangladesh.bmsproxycore.utils.MessageUtils;
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
@@ -8,18 +9,17 @@ import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.server.RegisteredServer;
 
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class LobbyCommand implements SimpleCommand {
 
     private final BMSProxyCore plugin;
-    private final Map<UUID, Long> cooldowns = new ConcurrentHashMap<>();
+    private final CooldownService.Table cooldowns;
 
     public LobbyCommand(BMSProxyCore plugin) {
         this.plugin = plugin;
+        this.cooldowns = plugin.getCooldownService().getTable("lobby");
     }
 
     @Override
@@ -92,12 +92,12 @@ public class LobbyCommand implements SimpleCommand {
             return true;
         }
 
-        Long lastUsed = cooldowns.get(playerId);
-        if (lastUsed == null) {
+        long lastUsed = cooldowns.get(playerId);
+        if (lastUsed == 0) {
             return true;
         }
 
-        long currentTime = System.currentTimeMillis();
+        long currentTime = CooldownService.now();
         long timeDiff = currentTime - lastUsed;
         long cooldownMillis = cooldownSeconds * 1000L;
 
@@ -115,7 +115,8 @@ public class LobbyCommand implements SimpleCommand {
     private void setCooldown(Player player) {
         int cooldownSeconds = plugin.getConfigManager().getLobbyCooldown();
         if (cooldownSeconds > 0) {
-            cooldowns.put(player.getUniqueId(), System.currentTimeMillis());
+            long now = CooldownService.now();
+            cooldowns.put(player.getUniqueId(), now, now + cooldownSeconds * 1000L);
         }
     }
 
@@ -1,12 +1,12 @@
 package com.minecraftbangladesh.bmsproxycore.commands;
 
 import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.FloodGuard;
 import com.minecraftbangladesh.bmsproxycore.utils.MessageUtils;
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
 import com.velocitypowered.api.proxy.ConsoleCommandSource;
 import com.velocitypowered.api.proxy.Player;
-import net.kyori.adventure.text.Component;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.List;
@@ -40,34 +40,54 @@ public class LockChatCommand implements SimpleCommand {
             return;
         }
 
-        // Toggle chat lock state
-        boolean newLockState = plugin.getChatControlManager().toggleChatLock();
+        String[] args = invocation.arguments();
+        if (args.length > 0 && args[0].equalsIgnoreCase("status")) {
+            showStatus(source);
+            return;
+        }
+
+        // Toggle chat lock state here and on every other proxy
         String playerName = source instanceof Player ? ((Player) source).getUsername() : "Console";
+        boolean newLockState = plugin.getChatControlManager().toggleChatLock(playerName);
 
         // Send appropriate message to all players
-        String message;
-        if (newLockState) {
-            // Chat is now locked
-            message = plugin.getConfigManager().getLockChatLockedMessage();
-        } else {
-            // Chat is now unlocked
-            message = plugin.getConfigManager().getLockChatUnlockedMessage()
-                    .replace("{player}", playerName);
-        }
-
-        Component formattedMessage = MessageUtils.formatMessage(message);
-        for (Player player : plugin.getServer().getAllPlayers()) {
-            player.sendMessage(formattedMessage);
-        }
+        plugin.getChatControlManager().broadcastChatLockChange(newLockState, playerName);
 
         // Log to console
         plugin.getLogger().info("Chat " + (newLockState ? "locked" : "unlocked") + " by " + playerName);
+
+        // Staff decisions take over from an automatic flood lock
+        plugin.getChatControlManager().getFloodGuard().handleManualToggle(newLockState, playerName);
+    }
+
+    private void showStatus(CommandSource source) {
+        source.sendMessage(MessageUtils.formatMessage("&7Chat is " + (plugin.getChatControlManager().isChatLocked() ? "&clocked" : "&aunlocked")));
+
+        if (plugin.getConfigManager().isChatClusterSyncEnabled()) {
+            source.sendMessage(MessageUtils.formatMessage(plugin.getChatControlManager().isClusterSyncConnected()
+                    ? "&7Shared with other proxies through Redis &8(state version " + plugin.getChatControlManager().getChatLockVersion() + ")"
+                    : "&cSet to be shared through Redis, but Redis is not connected."));
+        }
+
+        if (plugin.getConfigManager().isChatFloodGuardEnabled()) {
+            FloodGuard floodGuard = plugin.getChatControlManager().getFloodGuard();
+            String state = !floodGuard.isActive() ? "&awatching"
+                    : floodGuard.isYoungAccountsOnly() ? "&clocking new accounts" : "&clocking chat";
+            source.sendMessage(MessageUtils.formatMessage("&7Flood guard: " + state + " &7(" + floodGuard.getJoinRate()
+                    + " joins, " + floodGuard.getMessageRate() + " messages in the last "
+                    + plugin.getConfigManager().getChatFloodGuardWindowSeconds() + "s)"));
+            source.sendMessage(MessageUtils.formatMessage("&7Players with a first-login record: " + floodGuard.getKnownPlayerCount()));
+        }
     }
 
     @Override
     public CompletableFuture<List<String>> suggestAsync(Invocation invocation) {
-        // No tab completion needed for lock chat command
-        return CompletableFuture.completedFuture(new ArrayList<>());
+        String[] args = invocation.arguments();
+        List<String> suggestions = new ArrayList<>();
+        if (args.length <= 1 && "status".startsWith(args.length == 0 ? "" : args[0].toLowerCase())) {
+            suggestions.add("status");
+        }
+        return CompletableFuture.completedFuture(suggestions);
     }
 
     @Override
@@ -0,0 +1,132 @@
+package com.minecraftbangladesh.bmsproxycore.commands;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.messaging.MessageHistory;
+import com.minecraftbangladesh.bmsproxycore.utils.MessageUtils;
+import com.velocitypowered.api.command.CommandSource;
+import com.velocitypowered.api.command.SimpleCommand;
+import com.velocitypowered.api.proxy.ConsoleCommandSource;
+import com.velocitypowered.api.proxy.Player;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Staff command for viewing the recent private messages of an online player
+ */
+public class MessageHistoryCommand implements SimpleCommand {
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private final BMSProxyCore plugin;
+
+    public MessageHistoryCommand(BMSProxyCore plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void execute(Invocation invocation) {
+        CommandSource source = invocation.source();
+        String[] args = invocation.arguments();
+
+        // Check if Private Messages module is enabled
+        if (!plugin.isPrivateMessagesModuleEnabled()) {
+            source.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getModuleDisabledMessage()));
+            return;
+        }
+
+        if (!plugin.getConfigManager().isMessageHistoryEnabled()) {
+            source.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getModuleDisabledMessage()));
+            return;
+        }
+
+        // Check permissions
+        String historyPermission = plugin.getConfigManager().getPrivateMessagesHistoryPermission();
+        if (source instanceof Player && !historyPermission.isEmpty() && !source.hasPermission(historyPermission)) {
+            source.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getNoPermissionMessage()));
+            return;
+        }
+
+        if (args.length == 0) {
+            source.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getMessageHistoryUsageMessage()));
+            return;
+        }
+
+        Optional<Player> targetOptional = plugin.getServer().getPlayer(args[0]);
+        if (targetOptional.isEmpty()) {
+            source.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getMessagingErrorPlayerNotFound()));
+            return;
+        }
+
+        MessageHistory history = plugin.getMessagingManager().getMessageHistory();
+        int limit = history.getCapacity();
+        if (args.length > 1) {
+            try {
+                limit = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                source.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getMessageHistoryUsageMessage()));
+                return;
+            }
+        }
+
+        Player target = targetOptional.get();
+        List<MessageHistory.Entry> entries = history.getHistory(target.getUniqueId(), limit);
+
+        if (entries.isEmpty()) {
+            String message = plugin.getConfigManager().getMessageHistoryEmptyMessage()
+                    .replace("{player}", target.getUsername());
+            source.sendMessage(MessageUtils.formatMessage(message));
+            return;
+        }
+
+        String header = plugin.getConfigManager().getMessageHistoryHeader()
+                .replace("{player}", target.getUsername())
+                .replace("{count}", String.valueOf(entries.size()));
+        source.sendMessage(MessageUtils.formatMessage(header));
+
+        String entryFormat = plugin.getConfigManager().getMessageHistoryEntryFormat();
+        for (MessageHistory.Entry entry : entries) {
+            String receiver = entry.proxy != null ? entry.receiverName + "@" + entry.proxy : entry.receiverName;
+            String line = entryFormat
+                    .replace("{time}", TIME_FORMAT.format(Instant.ofEpochMilli(entry.timestamp)))
+                    .replace("{sender}", entry.senderName)
+                    .replace("{receiver}", receiver)
+                    .replace("{message}", entry.message);
+            source.sendMessage(MessageUtils.formatMessage(line));
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<String>> suggestAsync(Invocation invocation) {
+        String[] args = invocation.arguments();
+
+        if (args.length <= 1) {
+            String partialName = args.length == 0 ? "" : args[0].toLowerCase();
+            List<String> completions = plugin.getServer().getAllPlayers().stream()
+                    .map(Player::getUsername)
+                    .filter(name -> name.toLowerCase().startsWith(partialName))
+                    .collect(Collectors.toList());
+            return CompletableFuture.completedFuture(completions);
+        }
+
+        return CompletableFuture.completedFuture(new ArrayList<>());
+    }
+
+    @Override
+    public boolean hasPermission(Invocation invocation) {
+        // Console always has permission
+        if (invocation.source() instanceof ConsoleCommandSource) {
+            return true;
+        }
+
+        String historyPermission = plugin.getConfigManager().getPrivateMessagesHistoryPermission();
+        return historyPermission.isEmpty() || invocation.source().hasPermission(historyPermission);
+    }
+}
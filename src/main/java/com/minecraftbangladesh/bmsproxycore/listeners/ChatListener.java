@@ -1,13 +1,16 @@
 package com.minecraftbangladesh.bmsproxycore.listeners;
 
 import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
-import com.minecraftbangladesh.bmsproxycore.utils.MessageUtils;
+import com.velocitypowered.api.event.EventTask;
 import com.velocitypowered.api.event.PostOrder;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.player.PlayerChatEvent;
-import com.velocitypowered.api.proxy.Player;
-import net.kyori.adventure.text.Component;
 
+/**
+ * Hands every chat message to the chat pipeline, which routes staff chat and runs the
+ * Chat Control checks. Registered once for the lifetime of the plugin; the pipeline
+ * checks which modules are enabled for each message.
+ */
 public class ChatListener {
 
     private final BMSProxyCore plugin;
@@ -16,38 +19,8 @@ public class ChatListener {
         this.plugin = plugin;
     }
 
-    @Subscribe(order = PostOrder.NORMAL)
-    @SuppressWarnings("deprecation") // setResult is deprecated but still the only way to modify chat in Velocity
-    public void onPlayerChat(PlayerChatEvent event) {
-        Player player = event.getPlayer();
-
-        // Check if Staff Chat module is enabled
-        if (!plugin.isStaffChatModuleEnabled()) {
-            return;
-        }
-
-        // Check if player has staff chat toggled and has permission
-        String usePermission = plugin.getConfigManager().getStaffChatUsePermission();
-        if (plugin.isStaffChatToggled(player.getUniqueId()) &&
-            (usePermission.isEmpty() || player.hasPermission(usePermission))) {
-            event.setResult(PlayerChatEvent.ChatResult.denied());
-
-            // Format and broadcast the message
-            Component formattedMessage = MessageUtils.formatStaffChatMessage(
-                    player,
-                    event.getMessage(),
-                    plugin.getConfigManager(),
-                    plugin.getServer()
-            );
-
-            // Broadcast to all staff members
-            MessageUtils.broadcastToPermission(plugin.getServer(), formattedMessage, usePermission);
-
-            // Send to Discord webhook if enabled
-            plugin.sendStaffChatMessage(player, event.getMessage());
-
-            // Log to console with proper formatting
-            plugin.getLogger().info(MessageUtils.componentToPlainText(formattedMessage));
-        }
+    @Subscribe(order = PostOrder.EARLY)
+    public EventTask onPlayerChat(PlayerChatEvent event) {
+        return plugin.getChatPipeline().evaluate(event);
     }
-}
\ No newline at end of file
+}
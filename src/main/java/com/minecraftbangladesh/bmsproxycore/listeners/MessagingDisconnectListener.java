@@ -4,6 +4,7 @@ import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
 import com.velocitypowered.api.event.PostOrder;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.connection.PostLoginEvent;
 import com.velocitypowered.api.proxy.Player;
 
 public class MessagingDisconnectListener {
@@ -14,12 +15,17 @@ public class MessagingDisconnectListener {
         this.plugin = plugin;
     }
 
+    @Subscribe(order = PostOrder.NORMAL)
+    public void onPlayerConnect(PostLoginEvent event) {
+        plugin.getMessagingManager().handlePlayerConnect(event.getPlayer().getUniqueId());
+    }
+
     @Subscribe(order = PostOrder.NORMAL)
     public void onPlayerDisconnect(DisconnectEvent event) {
         Player player = event.getPlayer();
 
         // Remove player data from messaging manager
-        plugin.getMessagingManager().handlePlayerDisconnect(player.getUniqueId());
+        plugin.getMessagingManager().handlePlayerDisconnect(player.getUniqueId(), player.getUsername());
 
         // Broadcast player leave for cross-proxy tab completion
         if (plugin.getCrossProxyMessagingManager() != null && plugin.getConfigManager().isPrivateMessagesRedisEnabled()) {
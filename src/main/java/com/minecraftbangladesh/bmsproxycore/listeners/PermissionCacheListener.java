@@ -0,0 +1,39 @@
+package com.minecraftbangladesh.bmsproxycore.listeners;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.connection.PostLoginEvent;
+import com.velocitypowered.api.event.permission.PermissionsSetupEvent;
+import com.velocitypowered.api.proxy.Player;
+
+/**
+ * Keeps the permission cache in step with logins, disconnects and permission provider changes
+ */
+public class PermissionCacheListener {
+
+    private final BMSProxyCore plugin;
+
+    public PermissionCacheListener(BMSProxyCore plugin) {
+        this.plugin = plugin;
+    }
+
+    @Subscribe(order = PostOrder.LAST)
+    public void onPermissionsSetup(PermissionsSetupEvent event) {
+        // A new permission provider was installed for this player
+        if (event.getSubject() instanceof Player) {
+            plugin.getPermissionCache().invalidate(((Player) event.getSubject()).getUniqueId());
+        }
+    }
+
+    @Subscribe(order = PostOrder.LAST)
+    public void onPostLogin(PostLoginEvent event) {
+        plugin.getPermissionCache().warm(event.getPlayer());
+    }
+
+    @Subscribe(order = PostOrder.LAST)
+    public void onDisconnect(DisconnectEvent event) {
+        plugin.getPermissionCache().invalidate(event.getPlayer().getUniqueId());
+    }
+}
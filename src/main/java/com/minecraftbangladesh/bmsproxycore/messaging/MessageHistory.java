@@ -0,0 +1,322 @@
+package com.minecraftbangladesh.bmsproxycore.messaging;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps a bounded history of recent private messages for every online player.
+ * Each player owns a fixed-size ring buffer whose slots are allocated once and
+ * overwritten in place; buffers are returned to a pool on disconnect and reused
+ * for the next player instead of being garbage collected.
+ */
+public class MessageHistory {
+
+    private static final DateTimeFormatter ARCHIVE_TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    // How long a disconnected player stays closed; by then Velocity has unregistered them
+    private static final long CLOSED_RETENTION_SECONDS = 60;
+
+    private final BMSProxyCore plugin;
+    private final int capacity;
+    private final int maxPooledBuffers;
+
+    // Buffers for online players and a pool of released buffers ready for reuse
+    private final Map<UUID, ConversationBuffer> buffers = new ConcurrentHashMap<>();
+    private final Queue<ConversationBuffer> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledCount = new AtomicInteger();
+
+    // Players whose buffer was released, and when, until they log in again or it expires.
+    // Velocity fires the disconnect event before it unregisters the player, so being
+    // online doesn't prove a record isn't racing a disconnect. Set and checked under the
+    // map's lock for the player.
+    private final Map<UUID, Long> closed = new ConcurrentHashMap<>();
+
+    public MessageHistory(BMSProxyCore plugin) {
+        this.plugin = plugin;
+        this.capacity = Math.max(1, plugin.getConfigManager().getMessageHistorySize());
+        this.maxPooledBuffers = Math.max(0, plugin.getConfigManager().getMessageHistoryPoolSize());
+
+        // Preallocate the pool so the first wave of players doesn't allocate buffers
+        for (int i = 0; i < maxPooledBuffers; i++) {
+            pool.offer(new ConversationBuffer(capacity));
+        }
+        pooledCount.set(maxPooledBuffers);
+    }
+
+    /**
+     * Record a private message exchange in the history of a player
+     *
+     * @param owner The player whose history receives the entry
+     * @param senderUUID The UUID of the sender
+     * @param senderName The name of the sender
+     * @param receiverUUID The UUID of the receiver (may be null if unknown)
+     * @param receiverName The name of the receiver
+     * @param message The message content as delivered
+     * @param proxy The remote proxy involved in the exchange, or null for local messages
+     */
+    public void record(UUID owner, UUID senderUUID, String senderName, UUID receiverUUID,
+                       String receiverName, String message, String proxy) {
+        if (!plugin.getConfigManager().isMessageHistoryEnabled()) {
+            return;
+        }
+
+        // Write under the map's lock for this player, so a concurrent disconnect can't
+        // release the buffer to the pool between looking it up and writing to it
+        long timestamp = System.currentTimeMillis();
+        buffers.compute(owner, (k, buffer) -> {
+            if (buffer == null) {
+                if (closed.containsKey(owner) || plugin.getServer().getPlayer(owner).isEmpty()) {
+                    return null; // Already disconnected; nothing would ever release a new buffer
+                }
+                buffer = acquireBuffer();
+            }
+            buffer.write(timestamp, senderUUID, senderName, receiverUUID, receiverName, message, proxy);
+            return buffer;
+        });
+    }
+
+    /**
+     * Get a snapshot of the most recent history entries of a player, oldest first
+     *
+     * @param owner The player's UUID
+     * @param limit The maximum number of entries to return
+     * @return A list of copied entries, empty if the player has no history
+     */
+    public List<Entry> getHistory(UUID owner, int limit) {
+        ConversationBuffer buffer = buffers.get(owner);
+        if (buffer == null) {
+            return new ArrayList<>();
+        }
+        return buffer.snapshot(limit);
+    }
+
+    /**
+     * Get the configured number of entries kept per player
+     *
+     * @return The ring buffer capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Let a player's history be recorded again after they log in
+     *
+     * @param owner The player's UUID
+     */
+    public void handlePlayerConnect(UUID owner) {
+        closed.remove(owner);
+    }
+
+    /**
+     * Release a player's buffer when they disconnect, optionally spilling it to the archive first.
+     * The player is marked closed so messages still in flight don't allocate a new buffer.
+     *
+     * @param owner The player's UUID
+     * @param ownerName The player's name, used for the archive header
+     */
+    public void handlePlayerDisconnect(UUID owner, String ownerName) {
+        long closedAt = System.nanoTime();
+        ConversationBuffer[] released = new ConversationBuffer[1];
+        buffers.compute(owner, (k, buffer) -> {
+            closed.put(owner, closedAt);
+            released[0] = buffer;
+            return null;
+        });
+        // Once Velocity has unregistered the player the online check covers them
+        plugin.getServer().getScheduler()
+                .buildTask(plugin, () -> closed.remove(owner, closedAt))
+                .delay(CLOSED_RETENTION_SECONDS, TimeUnit.SECONDS)
+                .schedule();
+
+        ConversationBuffer buffer = released[0];
+        if (buffer == null) {
+            return;
+        }
+
+        if (plugin.getConfigManager().isMessageHistorySpillEnabled()) {
+            List<Entry> entries = buffer.snapshot(capacity);
+            if (!entries.isEmpty()) {
+                plugin.getServer().getScheduler()
+                        .buildTask(plugin, () -> spillToArchive(ownerName, entries))
+                        .schedule();
+            }
+        }
+
+        releaseBuffer(buffer);
+    }
+
+    /**
+     * Clear all history and drop pooled buffers
+     */
+    public void clear() {
+        buffers.clear();
+        closed.clear();
+        pool.clear();
+        pooledCount.set(0);
+    }
+
+    private ConversationBuffer acquireBuffer() {
+        ConversationBuffer buffer = pool.poll();
+        if (buffer != null) {
+            pooledCount.decrementAndGet();
+            return buffer;
+        }
+        return new ConversationBuffer(capacity);
+    }
+
+    private void releaseBuffer(ConversationBuffer buffer) {
+        buffer.reset();
+        if (pooledCount.incrementAndGet() <= maxPooledBuffers) {
+            pool.offer(buffer);
+        } else {
+            pooledCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Append a player's history to the chat-log archive file
+     */
+    private void spillToArchive(String ownerName, List<Entry> entries) {
+        Path archiveFile = plugin.getDataDirectory().resolve(plugin.getConfigManager().getMessageHistoryArchiveFile());
+
+        try {
+            Path parent = archiveFile.getParent();
+            if (parent != null && !Files.exists(parent)) {
+                Files.createDirectories(parent);
+            }
+
+            synchronized (this) {
+                try (BufferedWriter writer = Files.newBufferedWriter(archiveFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    writer.write("--- " + ownerName + " disconnected at "
+                            + ARCHIVE_TIME_FORMAT.format(Instant.now()) + " ---");
+                    writer.newLine();
+                    for (Entry entry : entries) {
+                        writer.write("[" + ARCHIVE_TIME_FORMAT.format(Instant.ofEpochMilli(entry.timestamp)) + "] "
+                                + entry.senderName + " -> " + entry.receiverName
+                                + (entry.proxy != null ? " (" + entry.proxy + ")" : "")
+                                + ": " + entry.message);
+                        writer.newLine();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().error("Failed to archive private message history for " + ownerName, e);
+        }
+    }
+
+    /**
+     * Immutable copy of a single history entry
+     */
+    public static class Entry {
+        public final long timestamp;
+        public final UUID senderUUID;
+        public final String senderName;
+        public final UUID receiverUUID;
+        public final String receiverName;
+        public final String message;
+        public final String proxy;
+
+        public Entry(long timestamp, UUID senderUUID, String senderName, UUID receiverUUID,
+                     String receiverName, String message, String proxy) {
+            this.timestamp = timestamp;
+            this.senderUUID = senderUUID;
+            this.senderName = senderName;
+            this.receiverUUID = receiverUUID;
+            this.receiverName = receiverName;
+            this.message = message;
+            this.proxy = proxy;
+        }
+    }
+
+    /**
+     * Fixed-size ring buffer with preallocated, mutable slots
+     */
+    private static class ConversationBuffer {
+        private final Slot[] slots;
+        private int head = 0;
+        private int size = 0;
+
+        ConversationBuffer(int capacity) {
+            slots = new Slot[capacity];
+            for (int i = 0; i < capacity; i++) {
+                slots[i] = new Slot();
+            }
+        }
+
+        synchronized void write(long timestamp, UUID senderUUID, String senderName, UUID receiverUUID,
+                                String receiverName, String message, String proxy) {
+            Slot slot = slots[head];
+            slot.timestamp = timestamp;
+            slot.senderUUID = senderUUID;
+            slot.senderName = senderName;
+            slot.receiverUUID = receiverUUID;
+            slot.receiverName = receiverName;
+            slot.message = message;
+            slot.proxy = proxy;
+
+            head = (head + 1) % slots.length;
+            if (size < slots.length) {
+                size++;
+            }
+        }
+
+        synchronized List<Entry> snapshot(int limit) {
+            int count = Math.min(Math.max(limit, 0), size);
+            List<Entry> result = new ArrayList<>(count);
+            int start = head - count;
+            if (start < 0) {
+                start += slots.length;
+            }
+            for (int i = 0; i < count; i++) {
+                Slot slot = slots[(start + i) % slots.length];
+                result.add(new Entry(slot.timestamp, slot.senderUUID, slot.senderName, slot.receiverUUID,
+                        slot.receiverName, slot.message, slot.proxy));
+            }
+            return result;
+        }
+
+        synchronized void reset() {
+            for (Slot slot : slots) {
+                slot.senderUUID = null;
+                slot.senderName = null;
+                slot.receiverUUID = null;
+                slot.receiverName = null;
+                slot.message = null;
+                slot.proxy = null;
+            }
+            head = 0;
+            size = 0;
+        }
+    }
+
+    private static class Slot {
+        long timestamp;
+        UUID senderUUID;
+        String senderName;
+        UUID receiverUUID;
+        String receiverName;
+        String message;
+        String proxy;
+    }
+}
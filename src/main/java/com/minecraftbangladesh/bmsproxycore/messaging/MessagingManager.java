@@ -18,88 +18,29 @@ public class MessagingManager {
     private final Set<UUID> messageToggleDisabled = Collections.newSetFromMap(new ConcurrentHashMap<>());
     private final Map<UUID, Set<UUID>> ignoredPlayers = new ConcurrentHashMap<>();
 
+    // Recent private message history per online player
+    private final MessageHistory messageHistory;
+
+    // Staged pipeline that processes local private messages
+    private final PrivateMessagePipeline pipeline;
+
     public MessagingManager(BMSProxyCore plugin) {
         this.plugin = plugin;
+        this.messageHistory = new MessageHistory(plugin);
+        this.pipeline = new PrivateMessagePipeline(plugin, this);
     }
 
     /**
-     * Send a private message from one player to another
+     * Send a private message from one player to another. The checks, formatting and
+     * delivery run in the private message pipeline, off the calling thread.
      *
      * @param sender The player sending the message
      * @param receiver The player receiving the message
      * @param message The message content
-     * @return true if the message was sent successfully, false otherwise
+     * @return true once the message has been handed off to the pipeline
      */
     public boolean sendMessage(Player sender, Player receiver, String message) {
-        UUID senderUUID = sender.getUniqueId();
-        UUID receiverUUID = receiver.getUniqueId();
-        
-        // Check if sender is trying to message themselves
-        if (senderUUID.equals(receiverUUID)) {
-            sender.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getMessagingErrorMessageSelf()));
-            return false;
-        }
-        
-        // Check if receiver has message toggle disabled
-        if (isMessageToggleDisabled(receiverUUID)) {
-            String errorMessage = plugin.getConfigManager().getMessagingErrorPlayerToggled()
-                    .replace("{player}", receiver.getUsername());
-            sender.sendMessage(MessageUtils.formatMessage(errorMessage));
-            return false;
-        }
-        
-        // Check if receiver is ignoring the sender
-        if (isPlayerIgnoring(receiverUUID, senderUUID)) {
-            String errorMessage = plugin.getConfigManager().getMessagingErrorPlayerIgnored()
-                    .replace("{player}", receiver.getUsername());
-            sender.sendMessage(MessageUtils.formatMessage(errorMessage));
-            return false;
-        }
-
-        // Check chat lock for private messages (if enabled)
-        if (plugin.getConfigManager().isPrivateMessageChatLockRespected() &&
-            plugin.getChatControlManager().isChatLocked()) {
-
-            // Check bypass permission
-            String bypassPermission = plugin.getConfigManager().getLockChatBypassPermission();
-            if (bypassPermission.isEmpty() || !sender.hasPermission(bypassPermission)) {
-                String errorMessage = plugin.getConfigManager().getPrivateMessageChatLockBlockedMessage();
-                sender.sendMessage(MessageUtils.formatMessage(errorMessage));
-                return false;
-            }
-        }
-
-        // Apply chat filtering to private messages (if enabled)
-        if (plugin.getConfigManager().isPrivateMessageFilterEnabled()) {
-            String filteredMessage = plugin.getChatControlManager().applyMessageFilter(message, sender);
-            if (filteredMessage == null) {
-                // Message was blocked by filter
-                String errorMessage = plugin.getConfigManager().getPrivateMessageFilterBlockedMessage();
-                sender.sendMessage(MessageUtils.formatMessage(errorMessage));
-                return false;
-            }
-            message = filteredMessage; // Use the filtered message
-        }
-
-        // Update reply targets
-        setReplyTarget(senderUUID, receiverUUID);
-        setReplyTarget(receiverUUID, senderUUID);
-        
-        // Format and send message to sender
-        String senderFormat = plugin.getConfigManager().getMessagingSenderFormat()
-                .replace("{receiver}", receiver.getUsername())
-                .replace("{message}", message);
-        sender.sendMessage(MessageUtils.formatMessage(senderFormat));
-        
-        // Format and send message to receiver
-        String receiverFormat = plugin.getConfigManager().getMessagingReceiverFormat()
-                .replace("{sender}", sender.getUsername())
-                .replace("{message}", message);
-        receiver.sendMessage(MessageUtils.formatMessage(receiverFormat));
-        
-        // Send to social spies
-        broadcastToSocialSpies(sender, receiver, message);
-        
+        pipeline.submit(sender, receiver, message);
         return true;
     }
 
@@ -140,6 +81,9 @@ public class MessagingManager {
                         // Broadcast to local social spies
                         broadcastLocalCrossProxySocialSpy(senderName, senderUUID, targetName, message);
 
+                        // Record the exchange in the sender's history
+                        messageHistory.record(senderUUID, senderUUID, senderName, null, targetName, message, "cross-proxy");
+
                     } else {
                         // Player not found on any proxy
                         sender.sendMessage(MessageUtils.formatMessage(plugin.getConfigManager().getCrossProxyPlayerNotFoundMessage()));
@@ -155,36 +99,6 @@ public class MessagingManager {
         return true; // Return true as we've initiated the process
     }
     
-    /**
-     * Broadcast a private message to all social spies
-     *
-     * @param sender The sender of the private message
-     * @param receiver The receiver of the private message
-     * @param message The message content
-     */
-    private void broadcastToSocialSpies(Player sender, Player receiver, String message) {
-        String spyFormat = plugin.getConfigManager().getMessagingSocialSpyFormat()
-                .replace("{sender}", sender.getUsername())
-                .replace("{receiver}", receiver.getUsername())
-                .replace("{message}", message);
-        
-        Component spyMessage = MessageUtils.formatMessage(spyFormat);
-        
-        for (Player player : plugin.getServer().getAllPlayers()) {
-            UUID playerUUID = player.getUniqueId();
-            
-            // Don't send to the sender or receiver of the message
-            if (playerUUID.equals(sender.getUniqueId()) || playerUUID.equals(receiver.getUniqueId())) {
-                continue;
-            }
-            
-            // Only send to players with social spy enabled and the permission
-            if (isSocialSpyEnabled(playerUUID) && player.hasPermission("bmsproxycore.socialspy.view")) {
-                player.sendMessage(spyMessage);
-            }
-        }
-    }
-    
     /**
      * Set the reply target for a player
      *
@@ -320,12 +234,51 @@ public class MessagingManager {
         return ignoredPlayers.getOrDefault(player, new HashSet<>());
     }
     
+    /**
+     * Get the private message history of online players
+     *
+     * @return The message history
+     */
+    public MessageHistory getMessageHistory() {
+        return messageHistory;
+    }
+    
+    /**
+     * Get the private message pipeline
+     *
+     * @return The private message pipeline
+     */
+    public PrivateMessagePipeline getPipeline() {
+        return pipeline;
+    }
+    
+    /**
+     * Stop the private message pipeline
+     */
+    public void shutdown() {
+        pipeline.shutdown();
+    }
+    
+    /**
+     * Prepare for a player who logged in
+     *
+     * @param player The player who logged in
+     */
+    public void handlePlayerConnect(UUID player) {
+        // Allow history again for a player who reconnected soon after disconnecting
+        messageHistory.handlePlayerConnect(player);
+    }
+
     /**
      * Clean up when a player disconnects
      *
      * @param player The player who disconnected
+     * @param playerName The name of the player who disconnected
      */
-    public void handlePlayerDisconnect(UUID player) {
+    public void handlePlayerDisconnect(UUID player, String playerName) {
+        // Release the player's message history buffer
+        messageHistory.handlePlayerDisconnect(player, playerName);
+        
         // Remove from social spy set
         socialSpyEnabled.remove(player);
         
@@ -0,0 +1,265 @@
+package com.minecraftbangladesh.bmsproxycore.messaging;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.utils.MessageUtils;
+import com.velocitypowered.api.proxy.Player;
+import net.kyori.adventure.text.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Staged private message pipeline: validate → filter → render → deliver → spy.
+ * Messages are processed off the command thread on a fixed set of single-threaded
+ * lanes; every sender is pinned to one lane so their messages keep their order.
+ */
+public class PrivateMessagePipeline {
+
+    /**
+     * Pipeline stages, in execution order
+     */
+    public enum Stage {
+        VALIDATE, FILTER, RENDER, DELIVER, SPY
+    }
+
+    private final BMSProxyCore plugin;
+    private final MessagingManager messagingManager;
+    private final ExecutorService[] lanes;
+    private final StageMetrics[] metrics = new StageMetrics[Stage.values().length];
+
+    public PrivateMessagePipeline(BMSProxyCore plugin, MessagingManager messagingManager) {
+        this.plugin = plugin;
+        this.messagingManager = messagingManager;
+
+        for (int i = 0; i < metrics.length; i++) {
+            metrics[i] = new StageMetrics();
+        }
+
+        // Without lanes every request runs inline on the calling thread
+        int laneCount = plugin.getConfigManager().isPrivateMessagePipelineAsync()
+                ? Math.max(1, plugin.getConfigManager().getPrivateMessagePipelineThreads())
+                : 0;
+        this.lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String threadName = "BMSProxyCore-PM-Pipeline-" + i;
+            lanes[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Hand a private message off to the pipeline
+     *
+     * @param sender The player sending the message
+     * @param receiver The player receiving the message
+     * @param message The message content
+     */
+    public void submit(Player sender, Player receiver, String message) {
+        Runnable task = () -> process(sender, receiver, message);
+
+        if (lanes.length == 0) {
+            task.run();
+            return;
+        }
+
+        ExecutorService lane = lanes[Math.floorMod(sender.getUniqueId().hashCode(), lanes.length)];
+        try {
+            lane.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Pipeline is shutting down; deliver inline rather than dropping the message
+            task.run();
+        }
+    }
+
+    private void process(Player sender, Player receiver, String message) {
+        try {
+            // Validate
+            long start = System.nanoTime();
+            String error = validate(sender, receiver);
+            start = record(Stage.VALIDATE, start);
+            if (error != null) {
+                sender.sendMessage(MessageUtils.formatMessage(error));
+                return;
+            }
+
+            // Filter
+            if (plugin.getConfigManager().isPrivateMessageFilterEnabled()) {
+                message = plugin.getChatControlManager().applyMessageFilter(message, sender);
+            }
+            start = record(Stage.FILTER, start);
+            if (message == null) {
+                String errorMessage = plugin.getConfigManager().getPrivateMessageFilterBlockedMessage();
+                sender.sendMessage(MessageUtils.formatMessage(errorMessage));
+                return;
+            }
+
+            // Render all three components up front
+            Component senderMessage = MessageUtils.formatMessage(plugin.getConfigManager().getMessagingSenderFormat()
+                    .replace("{receiver}", receiver.getUsername())
+                    .replace("{message}", message));
+            Component receiverMessage = MessageUtils.formatMessage(plugin.getConfigManager().getMessagingReceiverFormat()
+                    .replace("{sender}", sender.getUsername())
+                    .replace("{message}", message));
+            Component spyMessage = MessageUtils.formatMessage(plugin.getConfigManager().getMessagingSocialSpyFormat()
+                    .replace("{sender}", sender.getUsername())
+                    .replace("{receiver}", receiver.getUsername())
+                    .replace("{message}", message));
+            start = record(Stage.RENDER, start);
+
+            // Deliver
+            UUID senderUUID = sender.getUniqueId();
+            UUID receiverUUID = receiver.getUniqueId();
+            messagingManager.setReplyTarget(senderUUID, receiverUUID);
+            messagingManager.setReplyTarget(receiverUUID, senderUUID);
+            sender.sendMessage(senderMessage);
+            receiver.sendMessage(receiverMessage);
+
+            MessageHistory history = messagingManager.getMessageHistory();
+            history.record(senderUUID, senderUUID, sender.getUsername(), receiverUUID, receiver.getUsername(), message, null);
+            history.record(receiverUUID, senderUUID, sender.getUsername(), receiverUUID, receiver.getUsername(), message, null);
+            start = record(Stage.DELIVER, start);
+
+            // Spy
+            for (Player player : plugin.getServer().getAllPlayers()) {
+                UUID playerUUID = player.getUniqueId();
+
+                // Don't send to the sender or receiver of the message
+                if (playerUUID.equals(senderUUID) || playerUUID.equals(receiverUUID)) {
+                    continue;
+                }
+
+                // Only send to players with social spy enabled and the permission
+                if (messagingManager.isSocialSpyEnabled(playerUUID) && plugin.getPermissionCache().hasPermission(player, "bmsproxycore.socialspy.view")) {
+                    player.sendMessage(spyMessage);
+                }
+            }
+            record(Stage.SPY, start);
+        } catch (Exception e) {
+            plugin.getLogger().error("Error processing private message from " + sender.getUsername(), e);
+        }
+    }
+
+    /**
+     * Run the toggle, ignore and chat lock checks
+     *
+     * @return The error message to show the sender, or null if the message may be sent
+     */
+    private String validate(Player sender, Player receiver) {
+        UUID senderUUID = sender.getUniqueId();
+        UUID receiverUUID = receiver.getUniqueId();
+
+        // Check if sender is trying to message themselves
+        if (senderUUID.equals(receiverUUID)) {
+            return plugin.getConfigManager().getMessagingErrorMessageSelf();
+        }
+
+        // Check if receiver has message toggle disabled
+        if (messagingManager.isMessageToggleDisabled(receiverUUID)) {
+            return plugin.getConfigManager().getMessagingErrorPlayerToggled()
+                    .replace("{player}", receiver.getUsername());
+        }
+
+        // Check if receiver is ignoring the sender
+        if (messagingManager.isPlayerIgnoring(receiverUUID, senderUUID)) {
+            return plugin.getConfigManager().getMessagingErrorPlayerIgnored()
+                    .replace("{player}", receiver.getUsername());
+        }
+
+        // Check chat lock for private messages (if enabled)
+        if (plugin.getConfigManager().isPrivateMessageChatLockRespected() &&
+            plugin.getChatControlManager().isChatLocked()) {
+
+            // Check bypass permission
+            String bypassPermission = plugin.getConfigManager().getLockChatBypassPermission();
+            if (bypassPermission.isEmpty() || !plugin.getPermissionCache().hasPermission(sender, bypassPermission)) {
+                return plugin.getConfigManager().getPrivateMessageChatLockBlockedMessage();
+            }
+        }
+
+        return null;
+    }
+
+    private long record(Stage stage, long start) {
+        long now = System.nanoTime();
+        metrics[stage.ordinal()].record(now - start);
+        return now;
+    }
+
+    /**
+     * Get the timing metrics of a stage
+     *
+     * @param stage The stage
+     * @return The stage metrics
+     */
+    public StageMetrics getMetrics(Stage stage) {
+        return metrics[stage.ordinal()];
+    }
+
+    /**
+     * Check whether messages are processed off the calling thread
+     *
+     * @return true if the pipeline has worker lanes
+     */
+    public boolean isAsync() {
+        return lanes.length > 0;
+    }
+
+    /**
+     * Reset all stage metrics
+     */
+    public void resetMetrics() {
+        for (StageMetrics stageMetrics : metrics) {
+            stageMetrics.reset();
+        }
+    }
+
+    /**
+     * Stop accepting new messages and let queued ones drain
+     */
+    public void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    /**
+     * Invocation count and timing of a single stage
+     */
+    public static class StageMetrics {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        void reset() {
+            count.reset();
+            totalNanos.reset();
+            maxNanos.set(0);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getAverageMicros() {
+            long samples = count.sum();
+            return samples == 0 ? 0.0 : totalNanos.sum() / (samples * 1000.0);
+        }
+
+        public double getMaxMicros() {
+            return maxNanos.get() / 1000.0;
+        }
+    }
+}
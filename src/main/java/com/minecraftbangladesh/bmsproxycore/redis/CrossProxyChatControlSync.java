@@ -0,0 +1,209 @@
+package com.minecraftbangladesh.bmsproxycore.redis;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.ChatControlManager;
+import org.json.JSONObject;
+import redis.clients.jedis.JedisPubSub;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Replicates the chat lock and clear chat across proxies through Redis.
+ * The lock is versioned state kept in a Redis hash: every change increments the version
+ * and is published in the same script, so proxies apply changes in order and ignore stale
+ * ones, and a proxy that starts later reads the current state from the hash. The hash also
+ * holds a random epoch, so if Redis loses it and the version restarts, proxies recognise
+ * the new state instead of ignoring it as older than what they have. Clear chat is
+ * a plain event. Proxies apply both to their local state, so the chat path never asks Redis.
+ */
+public class CrossProxyChatControlSync {
+
+    private static final String MESSAGE_TYPE_LOCK = "lock";
+    private static final String MESSAGE_TYPE_CLEAR = "clear";
+
+    // KEYS[1] = state hash, ARGV = locked (1/0), proxy id, actor, channel, epoch to use if the state has none
+    // Returns {epoch, new version}
+    private static final String LOCK_SCRIPT =
+            "redis.call('HSETNX', KEYS[1], 'epoch', ARGV[5]) "
+            + "local epoch = redis.call('HGET', KEYS[1], 'epoch') "
+            + "local version = redis.call('HINCRBY', KEYS[1], 'version', 1) "
+            + "redis.call('HSET', KEYS[1], 'locked', ARGV[1], 'proxy', ARGV[2], 'actor', ARGV[3]) "
+            + "redis.call('PUBLISH', ARGV[4], cjson.encode({type = 'lock', epoch = epoch, version = version, "
+            + "locked = ARGV[1] == '1', proxy_id = ARGV[2], actor = ARGV[3]})) "
+            + "return {epoch, version}";
+
+    private final BMSProxyCore plugin;
+    private final RedisManager redisManager;
+    private final ChatControlManager manager;
+    private ChatControlPubSubListener pubSubListener;
+
+    public CrossProxyChatControlSync(BMSProxyCore plugin, RedisManager redisManager, ChatControlManager manager) {
+        this.plugin = plugin;
+        this.redisManager = redisManager;
+        this.manager = manager;
+    }
+
+    /**
+     * Start listening for lock and clear chat events from other proxies
+     */
+    public void initialize() {
+        pubSubListener = new ChatControlPubSubListener();
+        redisManager.subscribe(pubSubListener, getChannel());
+    }
+
+    /**
+     * Read the shared lock state and apply it if it is newer than the local one. Covers
+     * proxies that start after the last change and events missed while disconnected.
+     */
+    public void refresh() {
+        CompletableFuture.runAsync(() -> {
+            List<String> state = redisManager.executeCommand(jedis -> jedis.hmget(getStateKey(), "version", "locked", "actor", "proxy", "epoch"));
+            if (state == null || state.get(0) == null) {
+                return;
+            }
+            try {
+                // State written before epochs existed gets one with its next change
+                String epoch = state.get(4) == null ? "" : state.get(4);
+                applyLock(epoch, Long.parseLong(state.get(0)), "1".equals(state.get(1)), state.get(2), state.get(3));
+            } catch (NumberFormatException e) {
+                plugin.getLogger().warn("Ignoring malformed shared chat lock state in " + getStateKey());
+            }
+        });
+    }
+
+    /**
+     * Share a chat lock change made on this proxy
+     * @param locked The new lock state
+     * @param actor Who changed it
+     */
+    public void publishLock(boolean locked, String actor) {
+        if (!redisManager.isConnected()) {
+            return;
+        }
+        String proxyId = plugin.getConfigManager().getRedisProxyId();
+        List<String> keys = Collections.singletonList(getStateKey());
+        List<String> args = Arrays.asList(locked ? "1" : "0", proxyId, actor, getChannel(), UUID.randomUUID().toString());
+        CompletableFuture.runAsync(() -> {
+            Object reply = redisManager.executeCommand(jedis -> jedis.eval(LOCK_SCRIPT, keys, args));
+            if (reply instanceof List && ((List<?>) reply).size() == 2) {
+                // Our own change: adopt its version so older events from other proxies are ignored
+                List<?> values = (List<?>) reply;
+                manager.applyChatLockState(locked, values.get(0).toString(), ((Number) values.get(1)).longValue());
+            }
+        });
+    }
+
+    /**
+     * Share a clear chat made on this proxy
+     * @param actor Who cleared chat
+     * @param server The backend server it was limited to, or null for everyone
+     */
+    public void publishClear(String actor, String server) {
+        if (!redisManager.isConnected()) {
+            return;
+        }
+        try {
+            JSONObject messageData = new JSONObject();
+            messageData.put("type", MESSAGE_TYPE_CLEAR);
+            messageData.put("proxy_id", plugin.getConfigManager().getRedisProxyId());
+            messageData.put("actor", actor);
+            if (server != null) {
+                messageData.put("server", server);
+            }
+            messageData.put("timestamp", System.currentTimeMillis());
+            redisManager.publishMessage(getChannel(), messageData.toString());
+        } catch (Exception e) {
+            plugin.getLogger().error("Failed to broadcast clear chat", e);
+        }
+    }
+
+    /**
+     * Apply a lock state from another proxy, announcing it to local players if it changed anything
+     */
+    private void applyLock(String epoch, long version, boolean locked, String actor, String sourceProxyId) {
+        boolean wasLocked = manager.isChatLocked();
+        if (!manager.applyChatLockState(locked, epoch, version) || wasLocked == locked) {
+            return;
+        }
+        String name = actor == null ? "Unknown" : actor;
+        manager.broadcastChatLockChange(locked, name);
+        plugin.getLogger().info("Chat " + (locked ? "locked" : "unlocked") + " by " + name
+                + " on proxy " + sourceProxyId + " (version " + version + ")");
+    }
+
+    private String getStateKey() {
+        return plugin.getConfigManager().getChatClusterKeyPrefix() + ":lock";
+    }
+
+    private String getChannel() {
+        return plugin.getConfigManager().getChatClusterKeyPrefix() + ":events";
+    }
+
+    /**
+     * Check if this sync still uses a given Redis connection
+     */
+    public boolean isUsing(RedisManager manager) {
+        return redisManager == manager;
+    }
+
+    /**
+     * Stop listening for events from other proxies
+     */
+    public void shutdown() {
+        if (pubSubListener != null && pubSubListener.isSubscribed()) {
+            pubSubListener.unsubscribe();
+        }
+    }
+
+    /**
+     * Redis pub/sub listener for chat control events
+     */
+    private class ChatControlPubSubListener extends JedisPubSub {
+
+        @Override
+        public void onMessage(String channel, String message) {
+            try {
+                JSONObject messageData = new JSONObject(message);
+                String sourceProxyId = messageData.getString("proxy_id");
+                boolean ownProxy = sourceProxyId.equals(plugin.getConfigManager().getRedisProxyId());
+
+                switch (messageData.getString("type")) {
+                    case MESSAGE_TYPE_LOCK:
+                        // Our own changes are applied when the script returns
+                        if (!ownProxy) {
+                            applyLock(messageData.getString("epoch"), messageData.getLong("version"), messageData.getBoolean("locked"),
+                                    messageData.optString("actor", "Unknown"), sourceProxyId);
+                        }
+                        break;
+                    case MESSAGE_TYPE_CLEAR:
+                        if (!ownProxy) {
+                            String actor = messageData.optString("actor", "Unknown");
+                            String server = messageData.has("server") ? messageData.getString("server") : null;
+                            manager.clearChatLocally(actor, server);
+                            plugin.getLogger().info("Chat " + (server == null ? "" : "on " + server + " ")
+                                    + "cleared by " + actor + " on proxy " + sourceProxyId);
+                        }
+                        break;
+                    default:
+                        plugin.getLogger().warn("Unknown chat control message type: " + messageData.getString("type"));
+                }
+            } catch (Exception e) {
+                plugin.getLogger().error("Failed to process chat control message", e);
+            }
+        }
+
+        @Override
+        public void onSubscribe(String channel, int subscribedChannels) {
+            plugin.getLogger().info("Subscribed to Redis channel: " + channel);
+        }
+
+        @Override
+        public void onUnsubscribe(String channel, int subscribedChannels) {
+            plugin.getLogger().info("Unsubscribed from Redis channel: " + channel);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.minecraftbangladesh.bmsproxycore.redis;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.minecraftbangladesh.bmsproxycore.chatcontrol.ChatControlManager;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import redis.clients.jedis.JedisPubSub;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Shares the filter rule set between proxies through Redis.
+ * Redis holds a versioned snapshot of the rules with a hash of their contents, and a
+ * change log of recent edits. Edits go through a Lua script that updates both and
+ * publishes an invalidation carrying the new version and hash. A proxy that receives one
+ * replays the log entries it is missing (or reads the snapshot when it is too far behind)
+ * and only touches its compiled engine if the hash differs from the rules it already has.
+ * The snapshot carries a random epoch set when it is first seeded, so a snapshot that was
+ * lost and recreated (a Redis restart without persistence, a flush or an eviction) starts
+ * a new version sequence instead of being compared with versions from the old one.
+ */
+public class CrossProxyFilterRuleSync {
+
+    // KEYS[1] = snapshot hash, KEYS[2] = change log
+    // ARGV = operation (add/remove/seed), rule or JSON rule list for seed, proxy id, channel, log size,
+    //        epoch to use if the snapshot has none
+    // Returns {version, hash, status, epoch}; status is 1 if changed, 0 if not, -1 if there is no
+    // snapshot to edit yet
+    private static final String EDIT_SCRIPT =
+            "local state = redis.call('HMGET', KEYS[1], 'version', 'hash', 'rules', 'epoch') "
+            + "local version = tonumber(state[1]) or 0 "
+            + "if version == 0 and ARGV[1] ~= 'seed' then return {0, '', -1, ''} end "
+            + "local epoch = state[4] "
+            + "if not epoch then "
+            + "  epoch = ARGV[6] "
+            + "  redis.call('HSETNX', KEYS[1], 'epoch', epoch) "
+            + "end "
+            + "if ARGV[1] == 'seed' then "
+            + "  if version > 0 then return {version, state[2], 0, epoch} end "
+            + "  state[3] = ARGV[2] "
+            + "  redis.call('DEL', KEYS[2]) "
+            + "end "
+            + "local rules = {} "
+            + "if state[3] then rules = cjson.decode(state[3]) end "
+            + "local index = nil "
+            + "for i, rule in ipairs(rules) do if rule == ARGV[2] then index = i end end "
+            + "if ARGV[1] == 'add' then "
+            + "  if index then return {version, state[2], 0, epoch} end "
+            + "  table.insert(rules, ARGV[2]) "
+            + "elseif ARGV[1] == 'remove' then "
+            + "  if not index then return {version, state[2], 0, epoch} end "
+            + "  table.remove(rules, index) "
+            + "end "
+            + "version = version + 1 "
+            + "local hash = redis.sha1hex(table.concat(rules, '\\n')) "
+            + "local encoded = '[]' "
+            + "if #rules > 0 then encoded = cjson.encode(rules) end "
+            + "redis.call('HSET', KEYS[1], 'version', version, 'hash', hash, 'rules', encoded) "
+            + "if ARGV[1] ~= 'seed' then "
+            + "  redis.call('RPUSH', KEYS[2], cjson.encode({version = version, op = ARGV[1], rule = ARGV[2], proxy_id = ARGV[3]})) "
+            + "  redis.call('LTRIM', KEYS[2], -tonumber(ARGV[5]), -1) "
+            + "end "
+            + "redis.call('PUBLISH', ARGV[4], cjson.encode({epoch = epoch, version = version, hash = hash, proxy_id = ARGV[3]})) "
+            + "return {version, hash, 1, epoch}";
+
+    private final BMSProxyCore plugin;
+    private final RedisManager redisManager;
+    private final ChatControlManager manager;
+    private FilterRulePubSubListener pubSubListener;
+
+    // Epoch, version and hash of the shared rule set this proxy's rules match, guarded by this
+    private String appliedEpoch = null;
+    private long appliedVersion = 0;
+    private String appliedHash = null;
+
+    public CrossProxyFilterRuleSync(BMSProxyCore plugin, RedisManager redisManager, ChatControlManager manager) {
+        this.plugin = plugin;
+        this.redisManager = redisManager;
+        this.manager = manager;
+    }
+
+    /**
+     * Start listening for invalidations. The first refresh adopts the shared rule set, or
+     * publishes this proxy's rules if there is none yet.
+     */
+    public void initialize() {
+        pubSubListener = new FilterRulePubSubListener();
+        redisManager.subscribe(pubSubListener, getChannel());
+    }
+
+    /**
+     * Compare the shared version hash with the local one and catch up if it differs. The
+     * local rules are hashed on every refresh, so rules that drifted without a new shared
+     * version, such as from an edit to the rules file, are repaired too.
+     */
+    public void refresh() {
+        CompletableFuture.runAsync(() -> {
+            List<String> state = redisManager.executeCommand(jedis -> jedis.hmget(getSnapshotKey(), "version", "hash", "epoch"));
+            if (state == null) {
+                return;
+            }
+            if (state.get(0) == null || state.get(2) == null) {
+                // No shared rule set yet, or one from before epochs that the seed script stamps
+                seed();
+                return;
+            }
+            catchUp(state.get(2), Long.parseLong(state.get(0)), state.get(1), true);
+        });
+    }
+
+    /**
+     * Share an edit made on this proxy
+     * @param add true for an added rule, false for a removed one
+     * @param rule The rule
+     */
+    public void publishEdit(boolean add, String rule) {
+        publishEdits(add ? List.of(rule) : List.of(), add ? List.of() : List.of(rule));
+    }
+
+    /**
+     * Share several edits made on this proxy, such as an edit to the rules file, in order
+     * @param added The added rules
+     * @param removed The removed rules
+     */
+    public void publishEdits(List<String> added, List<String> removed) {
+        if (!redisManager.isConnected() || (added.isEmpty() && removed.isEmpty())) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            EditResult result = null;
+            for (int i = 0; i < removed.size() + added.size(); i++) {
+                boolean add = i >= removed.size();
+                result = runEditScript(add ? "add" : "remove", add ? added.get(i - removed.size()) : removed.get(i));
+                if (result == null) {
+                    return;
+                }
+                if (!result.seeded) {
+                    // The shared rule set is gone; ours already include the edits, so they become the new one
+                    seed();
+                    return;
+                }
+            }
+            // Our rules already include the edits; adopt their version if they match
+            catchUp(result.epoch, result.version, result.hash, false);
+        });
+    }
+
+    /**
+     * Publish this proxy's rules as the first shared rule set, unless another proxy got there first
+     */
+    private void seed() {
+        EditResult result = runEditScript("seed", new JSONArray(manager.getFilterRules()).toString());
+        if (result != null && result.seeded) {
+            catchUp(result.epoch, result.version, result.hash, false);
+        }
+    }
+
+    /**
+     * @return The state of the rule set after the script ran, or null if Redis is unavailable
+     */
+    private EditResult runEditScript(String operation, String argument) {
+        String prefix = plugin.getConfigManager().getChatFilterDistributedKeyPrefix();
+        List<String> keys = Arrays.asList(getSnapshotKey(), prefix + ":log");
+        List<String> args = Arrays.asList(operation, argument, plugin.getConfigManager().getRedisProxyId(), getChannel(),
+                String.valueOf(Math.max(1, plugin.getConfigManager().getChatFilterDistributedLogSize())),
+                UUID.randomUUID().toString());
+
+        Object reply = redisManager.executeCommand(jedis -> jedis.eval(EDIT_SCRIPT, keys, args));
+        if (!(reply instanceof List) || ((List<?>) reply).size() < 4) {
+            return null;
+        }
+        List<?> values = (List<?>) reply;
+        return new EditResult(values.get(3).toString(), ((Number) values.get(0)).longValue(),
+                values.get(1).toString(), ((Number) values.get(2)).longValue() >= 0);
+    }
+
+    /**
+     * Bring the local rules up to a shared version. Nothing is rebuilt if the local rules
+     * already hash the same; otherwise missing log entries are replayed, and the snapshot
+     * is read if the log doesn't cover the gap or the result doesn't match.
+     * @param epoch The epoch of the shared rule set the version belongs to
+     * @param verifyLocal Check the local rules against the hash even if the version was
+     *                    already applied
+     */
+    private synchronized void catchUp(String epoch, long version, String hash, boolean verifyLocal) {
+        if (!epoch.equals(appliedEpoch)) {
+            // The shared rule set was recreated; versions from before can't be compared with it
+            appliedEpoch = epoch;
+            appliedVersion = 0;
+            appliedHash = null;
+        }
+        if (version <= appliedVersion && appliedHash != null && !verifyLocal) {
+            return;
+        }
+        List<String> current = manager.getFilterRules();
+        if (hash.equals(hashRules(current))) {
+            if (version >= appliedVersion) {
+                appliedVersion = version;
+                appliedHash = hash;
+            }
+            return;
+        }
+
+        List<String> rules = appliedHash != null && appliedHash.equals(hashRules(current))
+                ? replayLog(current, appliedVersion, version)
+                : null;
+        if (rules == null || !hash.equals(hashRules(rules))) {
+            rules = readSnapshot(epoch, version);
+        }
+        if (rules == null) {
+            return;
+        }
+        manager.applySharedFilterRules(rules);
+        appliedVersion = version;
+        appliedHash = hashRules(rules);
+    }
+
+    /**
+     * Apply the log entries after a version to a rule list
+     * @return The rules at the target version, or null if the log no longer covers the gap
+     */
+    private List<String> replayLog(List<String> rules, long fromVersion, long toVersion) {
+        String logKey = plugin.getConfigManager().getChatFilterDistributedKeyPrefix() + ":log";
+        List<String> entries = redisManager.executeCommand(jedis -> jedis.lrange(logKey, 0, -1));
+        if (entries == null) {
+            return null;
+        }
+
+        List<String> result = new ArrayList<>(rules);
+        long next = fromVersion + 1;
+        for (String raw : entries) {
+            JSONObject entry = new JSONObject(raw);
+            long version = entry.getLong("version");
+            if (version < next) {
+                continue;
+            }
+            if (version > next || version > toVersion) {
+                break;
+            }
+            String rule = entry.getString("rule");
+            if ("add".equals(entry.getString("op"))) {
+                if (!result.contains(rule)) {
+                    result.add(rule);
+                }
+            } else {
+                result.remove(rule);
+            }
+            next++;
+        }
+        return next == toVersion + 1 ? result : null;
+    }
+
+    private List<String> readSnapshot(String epoch, long minimumVersion) {
+        List<String> state = redisManager.executeCommand(jedis -> jedis.hmget(getSnapshotKey(), "version", "rules", "epoch"));
+        if (state == null || state.get(0) == null || !epoch.equals(state.get(2))
+                || Long.parseLong(state.get(0)) < minimumVersion) {
+            return null;
+        }
+        List<String> rules = new ArrayList<>();
+        if (state.get(1) != null && state.get(1).startsWith("[")) {
+            JSONArray array = new JSONArray(state.get(1));
+            for (int i = 0; i < array.length(); i++) {
+                rules.add(array.getString(i));
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Hash a rule list the same way the edit script does
+     */
+    static String hashRules(List<String> rules) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1")
+                    .digest(String.join("\n", rules).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+    /**
+     * Get the version of the shared rule set this proxy matches
+     * @return The version, 0 before the first sync
+     */
+    public synchronized long getAppliedVersion() {
+        return appliedVersion;
+    }
+
+    /**
+     * Get the hash of the shared rule set this proxy matches
+     * @return The hash, or null before the first sync
+     */
+    public synchronized String getAppliedHash() {
+        return appliedHash;
+    }
+
+    private String getSnapshotKey() {
+        return plugin.getConfigManager().getChatFilterDistributedKeyPrefix() + ":snapshot";
+    }
+
+    private String getChannel() {
+        return plugin.getConfigManager().getChatFilterDistributedKeyPrefix() + ":events";
+    }
+
+    /**
+     * Check if this sync still uses a given Redis connection
+     */
+    public boolean isUsing(RedisManager manager) {
+        return redisManager == manager;
+    }
+
+    /**
+     * Stop listening for invalidations
+     */
+    public void shutdown() {
+        if (pubSubListener != null && pubSubListener.isSubscribed()) {
+            pubSubListener.unsubscribe();
+        }
+    }
+
+    /**
+     * The shared rule set as an edit script left it
+     */
+    private static final class EditResult {
+        private final String epoch;
+        private final long version;
+        private final String hash;
+        // false if there was no shared rule set to edit
+        private final boolean seeded;
+
+        private EditResult(String epoch, long version, String hash, boolean seeded) {
+            this.epoch = epoch;
+            this.version = version;
+            this.hash = hash;
+            this.seeded = seeded;
+        }
+    }
+
+    /**
+     * Redis pub/sub listener for rule set invalidations
+     */
+    private class FilterRulePubSubListener extends JedisPubSub {
+
+        @Override
+        public void onMessage(String channel, String message) {
+            try {
+                JSONObject messageData = new JSONObject(message);
+                String epoch = messageData.getString("epoch");
+                long version = messageData.getLong("version");
+                String hash = messageData.getString("hash");
+                // Catching up may read Redis, which can't be done on the subscriber's connection
+                CompletableFuture.runAsync(() -> catchUp(epoch, version, hash, false));
+            } catch (Exception e) {
+                plugin.getLogger().error("Failed to process filter rule invalidation", e);
+            }
+        }
+
+        @Override
+        public void onSubscribe(String channel, int subscribedChannels) {
+            plugin.getLogger().info("Subscribed to Redis channel: " + channel);
+        }
+
+        @Override
+        public void onUnsubscribe(String channel, int subscribedChannels) {
+            plugin.getLogger().info("Unsubscribed from Redis channel: " + channel);
+        }
+    }
+}
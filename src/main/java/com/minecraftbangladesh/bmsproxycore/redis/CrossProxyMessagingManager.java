@@ -494,6 +494,10 @@ public class CrossProxyMessagingManager {
             // Send social spy notifications to local players
             broadcastLocalSocialSpy(senderName, senderUUID, targetName, targetUUID, message, senderProxy);
 
+            // Record the exchange in the target's history
+            plugin.getMessagingManager().getMessageHistory()
+                    .record(targetUUID, senderUUID, senderName, targetUUID, targetName, message, senderProxy);
+
             // Send confirmation back to sender proxy
             sendDeliveryConfirmation(senderProxy, senderName, targetName);
 
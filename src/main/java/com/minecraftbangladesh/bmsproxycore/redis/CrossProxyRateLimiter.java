@@ -0,0 +1,257 @@
+package com.minecraftbangladesh.bmsproxycore.redis;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chat rate limits shared by every proxy through Redis
+ * Each player's token bucket lives in Redis and is only changed by a Lua script, so
+ * proxies never race. Proxies lease a few tokens at a time and spend them locally,
+ * so most messages need no Redis round trip; a lease is always fetched off the chat thread.
+ */
+public class CrossProxyRateLimiter {
+
+    // KEYS[1] = bucket, ARGV = interval ms, burst, tokens requested
+    // Returns {tokens granted, ms until the bucket holds another token}
+    private static final String LEASE_SCRIPT =
+            "local interval = tonumber(ARGV[1]) "
+            + "local burst = tonumber(ARGV[2]) "
+            + "local requested = tonumber(ARGV[3]) "
+            + "local time = redis.call('TIME') "
+            + "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) "
+            + "local state = redis.call('HMGET', KEYS[1], 'tokens', 'updated') "
+            + "local tokens = tonumber(state[1]) or burst "
+            + "local updated = tonumber(state[2]) or now "
+            + "tokens = math.min(burst, tokens + math.max(0, now - updated) / interval) "
+            + "local granted = math.min(requested, math.floor(tokens)) "
+            + "tokens = tokens - granted "
+            + "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'updated', now) "
+            + "redis.call('PEXPIRE', KEYS[1], math.ceil(interval * burst) + 1000) "
+            + "local wait = 0 "
+            + "if tokens < 1 then wait = math.ceil((1 - tokens) * interval) end "
+            + "return {granted, wait}";
+
+    // Local lease per player: tokens left in the high 16 bits, and the time the lease
+    // (or, with no tokens granted, the wait Redis asked for) ends in the low 48 bits.
+    // Spending the last token ends the lease, so a lease without tokens is always a wait.
+    private static final int TIME_BITS = 48;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+    private static final long MAX_TOKENS = 0xFFFF;
+
+    // Redis calls are skipped for this long after one fails
+    private static final long FAILURE_BACKOFF_MILLIS = 5000;
+
+    private final BMSProxyCore plugin;
+    private final RedisManager redisManager;
+
+    private final long originNanos = System.nanoTime();
+    private final Map<UUID, AtomicLong> leases = new ConcurrentHashMap<>();
+
+    // Players with a lease request in flight, and the messages they sent while it was pending
+    private final Map<UUID, AtomicInteger> pendingLeases = new ConcurrentHashMap<>();
+
+    private volatile String scriptSha;
+    private volatile long retryAfter = 0;
+
+    public CrossProxyRateLimiter(BMSProxyCore plugin, RedisManager redisManager) {
+        this.plugin = plugin;
+        this.redisManager = redisManager;
+    }
+
+    /**
+     * Get how long a player has to wait before their next message, using the local lease
+     * @param playerId The player
+     * @param intervalMillis The player's interval between messages
+     * @param burst Messages the player's bucket holds
+     * @return The wait in milliseconds, 0 if a message is allowed now, or -1 if no lease
+     *         is held yet (one is requested, and the caller should decide locally meanwhile)
+     */
+    public long getWaitMillis(UUID playerId, long intervalMillis, int burst) {
+        long now = now();
+        AtomicLong lease = leases.get(playerId);
+        long packed = lease == null ? 0 : lease.get();
+        long until = packed & TIME_MASK;
+
+        if (lease == null || now >= until) {
+            requestLease(playerId, intervalMillis, burst);
+            return -1;
+        }
+        if ((packed >>> TIME_BITS) > 0) {
+            return 0;
+        }
+        return until - now;
+    }
+
+    /**
+     * Spend a token for a message a player sent
+     * @param playerId The player
+     * @param intervalMillis The player's interval between messages
+     * @param burst Messages the player's bucket holds
+     */
+    public void record(UUID playerId, long intervalMillis, int burst) {
+        long now = now();
+        AtomicLong lease = leases.get(playerId);
+        if (lease != null) {
+            long packed;
+            long tokens;
+            long next;
+            do {
+                packed = lease.get();
+                tokens = packed >>> TIME_BITS;
+                if (tokens == 0 || now >= (packed & TIME_MASK)) {
+                    break;
+                }
+                // The last token expires the lease rather than leaving its lifetime to be read as a wait
+                next = tokens == 1 ? (now & TIME_MASK) : packed - (1L << TIME_BITS);
+            } while (!lease.compareAndSet(packed, next));
+
+            if (tokens > 1 && now < (packed & TIME_MASK)) {
+                return;
+            }
+            if (tokens == 1 && now < (packed & TIME_MASK)) {
+                // Spent the last leased token; fetch the next lease before the player needs it
+                requestLease(playerId, intervalMillis, burst);
+                return;
+            }
+        }
+
+        // No usable lease: the message is owed to Redis once the pending lease arrives
+        AtomicInteger debt = pendingLeases.get(playerId);
+        if (debt != null) {
+            debt.incrementAndGet();
+        } else {
+            requestLease(playerId, intervalMillis, burst);
+            debt = pendingLeases.get(playerId);
+            if (debt != null) {
+                debt.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Lease tokens from Redis in the background, unless a request is already in flight
+     */
+    private void requestLease(UUID playerId, long intervalMillis, int burst) {
+        if (now() < retryAfter || !redisManager.isConnected()) {
+            return;
+        }
+        AtomicInteger debt = new AtomicInteger();
+        if (pendingLeases.putIfAbsent(playerId, debt) != null) {
+            return;
+        }
+
+        int bucketSize = (int) Math.min(MAX_TOKENS, Math.max(1, burst));
+        int leaseSize = Math.max(1, Math.min(bucketSize, plugin.getConfigManager().getChatCooldownLeaseSize()));
+        CompletableFuture.runAsync(() -> {
+            long[] result = null;
+            try {
+                result = lease(playerId, intervalMillis, bucketSize, leaseSize);
+            } finally {
+                pendingLeases.remove(playerId, debt);
+            }
+
+            if (result == null) {
+                retryAfter = now() + FAILURE_BACKOFF_MILLIS;
+                return;
+            }
+
+            long now = now();
+            long tokens = Math.max(0, result[0] - debt.get());
+            long until = tokens > 0
+                    ? now + Math.max(1, plugin.getConfigManager().getChatCooldownLeaseMillis())
+                    : now + Math.max(1, result[1]);
+            leases.computeIfAbsent(playerId, id -> new AtomicLong())
+                    .set((Math.min(MAX_TOKENS, tokens) << TIME_BITS) | (until & TIME_MASK));
+        });
+    }
+
+    /**
+     * Run the lease script for a player's bucket
+     * @return {tokens granted, ms until the next token}, or null if Redis is unavailable
+     */
+    private long[] lease(UUID playerId, long intervalMillis, int burst, int requested) {
+        List<String> keys = Collections.singletonList(plugin.getConfigManager().getChatCooldownDistributedKeyPrefix() + ":" + playerId);
+        List<String> args = Arrays.asList(String.valueOf(Math.max(1, intervalMillis)), String.valueOf(burst), String.valueOf(requested));
+
+        Object reply = redisManager.executeCommand(jedis -> evalLeaseScript(jedis, keys, args));
+        if (!(reply instanceof List) || ((List<?>) reply).size() < 2) {
+            return null;
+        }
+        List<?> values = (List<?>) reply;
+        return new long[] { ((Number) values.get(0)).longValue(), ((Number) values.get(1)).longValue() };
+    }
+
+    private Object evalLeaseScript(Jedis jedis, List<String> keys, List<String> args) {
+        String sha = scriptSha;
+        if (sha != null) {
+            try {
+                return jedis.evalsha(sha, keys, args);
+            } catch (JedisNoScriptException e) {
+                // Script cache was flushed or Redis restarted; load it again below
+            }
+        }
+        scriptSha = jedis.scriptLoad(LEASE_SCRIPT);
+        return jedis.evalsha(scriptSha, keys, args);
+    }
+
+    private long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - originNanos) + 1;
+    }
+
+    /**
+     * Drop a player's local lease. Unused leased tokens are not returned and simply expire.
+     * @param playerId The player
+     */
+    public void remove(UUID playerId) {
+        leases.remove(playerId);
+    }
+
+    /**
+     * Drop every local lease and delete every shared bucket, so all players start with a full bucket
+     */
+    public void clear() {
+        leases.clear();
+        String pattern = plugin.getConfigManager().getChatCooldownDistributedKeyPrefix() + ":*";
+        CompletableFuture.runAsync(() -> redisManager.executeCommand(jedis -> {
+            ScanParams params = new ScanParams().match(pattern).count(500);
+            String cursor = ScanParams.SCAN_POINTER_START;
+            do {
+                ScanResult<String> result = jedis.scan(cursor, params);
+                if (!result.getResult().isEmpty()) {
+                    jedis.del(result.getResult().toArray(new String[0]));
+                }
+                cursor = result.getCursor();
+            } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+            return null;
+        }));
+    }
+
+    /**
+     * Check if this limiter still uses a given Redis connection
+     */
+    public boolean isUsing(RedisManager manager) {
+        return redisManager == manager;
+    }
+
+    /**
+     * Get the number of players with a local lease
+     * @return Number of leased players
+     */
+    public int getLeasedPlayerCount() {
+        return leases.size();
+    }
+}
@@ -5,10 +5,18 @@ import org.yaml.snakeyaml.Yaml;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class ConfigManager {
 
@@ -19,6 +27,7 @@ public class ConfigManager {
     private final Path lobbyCommandConfigFile;
     private final Path announcementConfigFile;
     private final Path chatControlConfigFile;
+    private final Path chatFilterRulesFile;
 
     private Map<String, Object> config;
     private Map<String, Object> staffChatConfig;
@@ -27,6 +36,16 @@ public class ConfigManager {
     private Map<String, Object> announcementConfig;
     private Map<String, Object> chatControlConfig;
 
+    // Filter rules live in their own file so runtime edits can be saved without rewriting
+    // chatcontrol.yml and its comments. Replaced as a whole on every edit, guarded by this.
+    private volatile List<String> chatFilterRules;
+    private boolean chatFilterRulesDirty = false;
+    // The rules in the file as this proxy last read or wrote it, to tell outside edits from our own saves
+    private List<String> chatFilterRulesOnDisk = Collections.emptyList();
+
+    // Bumped on every load so caches derived from the config can tell it changed
+    private volatile int loadGeneration = 0;
+
     public ConfigManager(Path dataDirectory) {
         this.dataDirectory = dataDirectory;
         this.configFile = dataDirectory.resolve("config.yml");
@@ -35,6 +54,7 @@ public class ConfigManager {
         this.lobbyCommandConfigFile = dataDirectory.resolve("modules").resolve("lobbycommand.yml");
         this.announcementConfigFile = dataDirectory.resolve("modules").resolve("announcement.yml");
         this.chatControlConfigFile = dataDirectory.resolve("modules").resolve("chatcontrol.yml");
+        this.chatFilterRulesFile = dataDirectory.resolve("modules").resolve("filter-rules.yml");
 
         this.config = new HashMap<>();
         this.staffChatConfig = new HashMap<>();
@@ -75,6 +95,8 @@ public class ConfigManager {
                 loadChatControlConfig();
             }
 
+            loadGeneration++;
+
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -301,6 +323,133 @@ public class ConfigManager {
                 chatControlConfig = new HashMap<>();
             }
         }
+
+        loadChatFilterRules();
+    }
+
+    /**
+     * Load the filter rules file, creating it from the rules in chatcontrol.yml on first run.
+     * Unsaved runtime edits are written out first so a reload never drops them.
+     */
+    private synchronized void loadChatFilterRules() throws IOException {
+        if (chatFilterRulesDirty) {
+            saveChatFilterRules();
+        }
+        if (!Files.exists(chatFilterRulesFile)) {
+            chatFilterRules = Collections.unmodifiableList(new ArrayList<>(getConfiguredChatFilterRules()));
+            chatFilterRulesDirty = true;
+            saveChatFilterRules();
+            return;
+        }
+        List<String> rules = readChatFilterRulesFile();
+        if (rules != null) {
+            chatFilterRules = Collections.unmodifiableList(rules);
+            chatFilterRulesOnDisk = chatFilterRules;
+        }
+    }
+
+    /**
+     * Read the filter rules file again after it was edited outside the game. If runtime
+     * edits are still waiting to be saved, the rules added and removed in the file are
+     * merged into them and the merged rules are saved by the pending write.
+     * @return The rules now in use, or null if the file could not be read or holds what
+     *         this proxy last read or wrote
+     */
+    public synchronized List<String> reloadChatFilterRules() {
+        List<String> fileRules = readChatFilterRulesFile();
+        if (fileRules == null || fileRules.equals(chatFilterRulesOnDisk)) {
+            return null;
+        }
+
+        List<String> rules;
+        if (chatFilterRulesDirty) {
+            rules = new ArrayList<>(chatFilterRules);
+            for (String rule : chatFilterRulesOnDisk) {
+                if (!fileRules.contains(rule)) {
+                    rules.remove(rule);
+                }
+            }
+            for (String rule : fileRules) {
+                if (!chatFilterRulesOnDisk.contains(rule) && !rules.contains(rule)) {
+                    rules.add(rule);
+                }
+            }
+        } else {
+            rules = fileRules;
+        }
+        chatFilterRulesOnDisk = Collections.unmodifiableList(fileRules);
+        chatFilterRules = Collections.unmodifiableList(rules);
+        return chatFilterRules;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> readChatFilterRulesFile() {
+        try (InputStream inputStream = Files.newInputStream(chatFilterRulesFile)) {
+            Object loaded = new Yaml().load(inputStream);
+            List<String> rules = new ArrayList<>();
+            if (loaded instanceof Map && ((Map<String, Object>) loaded).get("rules") instanceof List) {
+                for (Object rule : (List<Object>) ((Map<String, Object>) loaded).get("rules")) {
+                    if (rule != null) {
+                        rules.add(rule.toString());
+                    }
+                }
+            }
+            return rules;
+        } catch (IOException | RuntimeException e) {
+            // A half-saved file from an editor, or invalid YAML; keep the current rules
+            System.err.println("[BMSProxyCore] Could not read " + chatFilterRulesFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Write the filter rules file if it has unsaved edits
+     * @return true if the file is up to date
+     */
+    public synchronized boolean saveChatFilterRules() {
+        if (!chatFilterRulesDirty) {
+            return true;
+        }
+        StringBuilder content = new StringBuilder();
+        content.append("# Chat filter rules (regex patterns). Edited by /chatfilter add and remove;\n");
+        content.append("# changes made to this file are picked up automatically.\n");
+        content.append("rules:\n");
+        for (String rule : chatFilterRules) {
+            content.append("  - \"").append(rule.replace("\\", "\\\\").replace("\"", "\\\"")).append("\"\n");
+        }
+        try {
+            writeAtomically(chatFilterRulesFile, content.toString());
+            chatFilterRulesOnDisk = chatFilterRules;
+            chatFilterRulesDirty = false;
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Replace a file's contents through a temporary file and a rename, so a crash or a
+     * concurrent reader never sees a partly written file
+     */
+    private static void writeAtomically(Path target, String content) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, content.getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public Path getChatFilterRulesFile() {
+        return chatFilterRulesFile;
     }
 
     private void saveDefaultLobbyCommandConfig() {
@@ -651,6 +800,19 @@ public class ConfigManager {
         return getNestedString("global", "module-config-missing", "&cConfiguration file for {module} module is missing.");
     }
 
+    public int getLoadGeneration() {
+        return loadGeneration;
+    }
+
+    // Permission cache configuration
+    public boolean isPermissionCacheEnabled() {
+        return getNestedBoolean("permission-cache", "enabled", true);
+    }
+
+    public int getPermissionCacheTtlSeconds() {
+        return getNestedInt("permission-cache", "ttl-seconds", 30);
+    }
+
     // Discord webhook configuration
     public boolean isDiscordEnabled() {
         return getStaffChatNestedBoolean("discord", "enabled", false);
@@ -1042,6 +1204,56 @@ public class ConfigManager {
         return getPrivateMessagesNestedString("permissions", "bypass-ignore", "bmsproxycore.message.bypass.ignore");
     }
 
+    public String getPrivateMessagesHistoryPermission() {
+        return getPrivateMessagesNestedString("permissions", "history", "bmsproxycore.message.history");
+    }
+
+    // Private Message History Configuration
+    public boolean isMessageHistoryEnabled() {
+        return getPrivateMessagesNestedBoolean("history", "enabled", true);
+    }
+
+    public int getMessageHistorySize() {
+        return getPrivateMessagesNestedInt("history", "size", 50);
+    }
+
+    public int getMessageHistoryPoolSize() {
+        return getPrivateMessagesNestedInt("history", "pool-size", 64);
+    }
+
+    public boolean isMessageHistorySpillEnabled() {
+        return getPrivateMessagesNestedBoolean("history", "spill-on-disconnect", false);
+    }
+
+    public String getMessageHistoryArchiveFile() {
+        return getPrivateMessagesNestedString("history", "archive-file", "logs/pm-history.log");
+    }
+
+    public String getMessageHistoryHeader() {
+        return getPrivateMessagesNestedString("history", "header", "&6Recent private messages of &e{player} &7({count}):");
+    }
+
+    public String getMessageHistoryEntryFormat() {
+        return getPrivateMessagesNestedString("history", "entry-format", "&8[&7{time}&8] &7{sender} &8→ &7{receiver}&8: &f{message}");
+    }
+
+    public String getMessageHistoryEmptyMessage() {
+        return getPrivateMessagesNestedString("history", "empty-message", "&7No recent private messages for {player}.");
+    }
+
+    public String getMessageHistoryUsageMessage() {
+        return getPrivateMessagesNestedString("history", "usage-message", "&cUsage: /msghistory <player> [count]");
+    }
+
+    // Private Message Pipeline Configuration
+    public boolean isPrivateMessagePipelineAsync() {
+        return getPrivateMessagesNestedBoolean("pipeline", "async", true);
+    }
+
+    public int getPrivateMessagePipelineThreads() {
+        return getPrivateMessagesNestedInt("pipeline", "threads", 2);
+    }
+
     // Lobby Command Permission getters
     public String getLobbyUsePermission() {
         return getLobbyCommandNestedString("permissions", "use", "bmsproxycore.lobby.use");
@@ -1276,6 +1488,16 @@ public class ConfigManager {
                getChatControlNestedBoolean("components", "enabled", true);
     }
 
+    public boolean isChatHeuristicsEnabled() {
+        return getChatControlNestedBoolean("components", "heuristics", "enabled", false) &&
+               getChatControlNestedBoolean("components", "enabled", true);
+    }
+
+    public boolean isChatSpamEnabled() {
+        return getChatControlNestedBoolean("components", "spam", "enabled", false) &&
+               getChatControlNestedBoolean("components", "enabled", true);
+    }
+
     // Permission methods
     public String getChatFilterManagePermission() {
         return getChatControlDoubleNestedString("permissions", "filter", "manage", "bmsproxycore.chatcontrol.filter.manage");
@@ -1289,6 +1511,10 @@ public class ConfigManager {
         return getChatControlDoubleNestedString("permissions", "filter", "reload", "bmsproxycore.chatcontrol.filter.reload");
     }
 
+    public String getChatFilterBenchmarkPermission() {
+        return getChatControlDoubleNestedString("permissions", "filter", "benchmark", "bmsproxycore.chatcontrol.filter.benchmark");
+    }
+
     public String getChatCooldownManagePermission() {
         return getChatControlDoubleNestedString("permissions", "cooldown", "manage", "bmsproxycore.chatcontrol.cooldown.manage");
     }
@@ -1321,8 +1547,16 @@ public class ConfigManager {
     }
 
     // Chat Filter Configuration
-    @SuppressWarnings("unchecked")
     public java.util.List<String> getChatFilterRules() {
+        List<String> rules = chatFilterRules;
+        return rules != null ? rules : getConfiguredChatFilterRules();
+    }
+
+    /**
+     * Get the rules listed in chatcontrol.yml, which seed filter-rules.yml on first run
+     */
+    @SuppressWarnings("unchecked")
+    private java.util.List<String> getConfiguredChatFilterRules() {
         Map<String, Object> filterSection = getChatControlSection("filter");
         Object rulesObj = filterSection.get("rules");
         if (rulesObj instanceof java.util.List) {
@@ -1331,6 +1565,64 @@ public class ConfigManager {
         return new java.util.ArrayList<>();
     }
 
+    /**
+     * Get the names of the filter profiles, in the order they are configured
+     */
+    public java.util.List<String> getChatFilterProfileNames() {
+        return new java.util.ArrayList<>(getChatFilterProfilesSection().keySet());
+    }
+
+    public java.util.List<String> getChatFilterProfileServers(String profile) {
+        return getChatFilterProfileList(profile, "servers");
+    }
+
+    public java.util.List<String> getChatFilterProfileRules(String profile) {
+        return getChatFilterProfileList(profile, "rules");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getChatFilterProfilesSection() {
+        Object profilesObj = getChatControlSection("filter").get("profiles");
+        return profilesObj instanceof Map ? (Map<String, Object>) profilesObj : new HashMap<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    private java.util.List<String> getChatFilterProfileList(String profile, String path) {
+        Object profileObj = getChatFilterProfilesSection().get(profile);
+        if (!(profileObj instanceof Map)) return new java.util.ArrayList<>();
+
+        Object listObj = ((Map<String, Object>) profileObj).get(path);
+        java.util.List<String> result = new java.util.ArrayList<>();
+        if (listObj instanceof java.util.List) {
+            for (Object value : (java.util.List<Object>) listObj) {
+                if (value != null) {
+                    result.add(value.toString());
+                }
+            }
+        }
+        return result;
+    }
+
+    public boolean isChatFilterDistributedEnabled() {
+        return getChatControlNestedBoolean("filter", "distributed", "enabled", false);
+    }
+
+    public String getChatFilterDistributedKeyPrefix() {
+        return getChatControlDoubleNestedString("filter", "distributed", "key-prefix", "bmsproxycore:filter");
+    }
+
+    public int getChatFilterDistributedLogSize() {
+        return getChatControlDoubleNestedInt("filter", "distributed", "log-size", 500);
+    }
+
+    public boolean isChatFilterWatchEnabled() {
+        return getChatControlNestedBoolean("filter", "watch-file", true);
+    }
+
+    public int getChatFilterSaveDelayMillis() {
+        return getChatControlNestedInt("filter", "save-delay-ms", 2000);
+    }
+
     public String getChatFilterAction() {
         return getChatControlNestedString("filter", "action", "warn");
     }
@@ -1360,6 +1652,141 @@ public class ConfigManager {
         return getChatControlNestedInt("cooldown", "duration", 3);
     }
 
+    public String getChatCooldownMode() {
+        return getChatControlNestedString("cooldown", "mode", "cooldown");
+    }
+
+    public int getChatCooldownBurst() {
+        return getChatControlDoubleNestedInt("cooldown", "token-bucket", "burst", 3);
+    }
+
+    public int getChatCooldownWindowSeconds() {
+        return getChatControlDoubleNestedInt("cooldown", "sliding-window", "window-seconds", 30);
+    }
+
+    public boolean isChatCooldownDistributedEnabled() {
+        return getChatControlNestedBoolean("cooldown", "distributed", "enabled", false);
+    }
+
+    public String getChatCooldownDistributedKeyPrefix() {
+        return getChatControlDoubleNestedString("cooldown", "distributed", "key-prefix", "bmsproxycore:ratelimit");
+    }
+
+    public int getChatCooldownLeaseSize() {
+        return getChatControlDoubleNestedInt("cooldown", "distributed", "lease-size", 3);
+    }
+
+    public int getChatCooldownLeaseMillis() {
+        return getChatControlDoubleNestedInt("cooldown", "distributed", "lease-ms", 5000);
+    }
+
+    // Adaptive Slowmode Configuration
+    public boolean isChatSlowmodeEnabled() {
+        return getChatControlNestedBoolean("slowmode", "enabled", false);
+    }
+
+    public int getChatSlowmodeGlobalTrigger() {
+        return getChatControlNestedInt("slowmode", "global-trigger-per-minute", 120);
+    }
+
+    public int getChatSlowmodeServerTrigger() {
+        return getChatControlNestedInt("slowmode", "server-trigger-per-minute", 60);
+    }
+
+    public int getChatSlowmodeStepPercent() {
+        return getChatControlNestedInt("slowmode", "step-percent", 100);
+    }
+
+    public int getChatSlowmodeMaxLevel() {
+        return getChatControlNestedInt("slowmode", "max-level", 3);
+    }
+
+    public int getChatSlowmodeDecaySeconds() {
+        return getChatControlNestedInt("slowmode", "decay-seconds", 30);
+    }
+
+    public int getChatSlowmodeMinSeconds() {
+        return getChatControlNestedInt("slowmode", "min-seconds", 2);
+    }
+
+    public String getChatSlowmodeRaisedMessage() {
+        return getChatControlNestedString("slowmode", "raised-message", "&e[Slowmode] &7Chat is busy ({rate} messages/min), {scope} slowmode raised to level {level} &8({multiplier}x cooldown)");
+    }
+
+    public String getChatSlowmodeLoweredMessage() {
+        return getChatControlNestedString("slowmode", "lowered-message", "&e[Slowmode] &7{scope} slowmode lowered to level {level} &8({multiplier}x cooldown)");
+    }
+
+    // Cluster Sync Configuration
+    public boolean isChatClusterSyncEnabled() {
+        return getChatControlNestedBoolean("cluster", "enabled", false);
+    }
+
+    public String getChatClusterKeyPrefix() {
+        return getChatControlNestedString("cluster", "key-prefix", "bmsproxycore:chatcontrol");
+    }
+
+    // Flood Guard Configuration
+    public boolean isChatFloodGuardEnabled() {
+        return getChatControlNestedBoolean("flood-guard", "enabled", false);
+    }
+
+    public int getChatFloodGuardWindowSeconds() {
+        return getChatControlNestedInt("flood-guard", "window-seconds", 10);
+    }
+
+    public int getChatFloodGuardJoinThreshold() {
+        return getChatControlNestedInt("flood-guard", "join-threshold", 20);
+    }
+
+    public int getChatFloodGuardMessageThreshold() {
+        return getChatControlNestedInt("flood-guard", "message-threshold", 80);
+    }
+
+    public int getChatFloodGuardReleaseSeconds() {
+        return getChatControlNestedInt("flood-guard", "release-seconds", 60);
+    }
+
+    public boolean isChatFloodGuardYoungAccountsOnly() {
+        return getChatControlNestedBoolean("flood-guard", "young-accounts-only", false);
+    }
+
+    public int getChatFloodGuardYoungAccountMinutes() {
+        return getChatControlNestedInt("flood-guard", "young-account-minutes", 30);
+    }
+
+    public String getChatFloodGuardFirstSeenFile() {
+        return getChatControlNestedString("flood-guard", "first-seen-file", "first-seen.txt");
+    }
+
+    public String getChatFloodGuardAuditFile() {
+        return getChatControlNestedString("flood-guard", "audit-file", "flood-audit.log");
+    }
+
+    public String getChatFloodGuardLockedMessage() {
+        return getChatControlNestedString("flood-guard", "locked-message", "&c[FloodGuard] &7Chat has been locked automatically ({reason}).");
+    }
+
+    public String getChatFloodGuardYoungLockedMessage() {
+        return getChatControlNestedString("flood-guard", "young-locked-message", "&c[FloodGuard] &7Chat has been locked for new players ({reason}).");
+    }
+
+    public String getChatFloodGuardReleasedMessage() {
+        return getChatControlNestedString("flood-guard", "released-message", "&a[FloodGuard] &7Chat has been unlocked.");
+    }
+
+    public String getChatFloodGuardBlockedMessage() {
+        return getChatControlNestedString("flood-guard", "blocked-message", "&cChat is temporarily locked for new players. Please try again later.");
+    }
+
+    public String getChatFloodGuardEngagedNotifyMessage() {
+        return getChatControlNestedString("flood-guard", "engaged-notify-message", "&c[FloodGuard] &7Locked chat for {scope}: {reason} &8({joins} joins, {messages} messages in {window}s)");
+    }
+
+    public String getChatFloodGuardReleasedNotifyMessage() {
+        return getChatControlNestedString("flood-guard", "released-notify-message", "&a[FloodGuard] &7Flood lock released: {reason}");
+    }
+
     public String getChatCooldownMessage() {
         return getChatControlNestedString("cooldown", "cooldown-message", "&cYou must wait {time} seconds before sending another message.");
     }
@@ -1443,7 +1870,7 @@ public class ConfigManager {
     }
 
     public String getChatFilterListFormatMessage() {
-        return getChatControlDoubleNestedString("messages", "filter", "list-format", "&7- {rule}");
+        return getChatControlDoubleNestedString("messages", "filter", "list-format", "&7- {rule} &8({timing}&8)");
     }
 
     public String getChatFilterListEmptyMessage() {
@@ -1476,6 +1903,42 @@ public class ConfigManager {
         return getChatControlNestedInt("advanced", "max-filter-rules", 50);
     }
 
+    public String getChatFilterEngineMode() {
+        return getChatControlNestedString("advanced", "filter-engine", "prefilter");
+    }
+
+    public int getChatFilterRuleTimeBudget() {
+        return getChatControlNestedInt("advanced", "rule-time-budget-ms", 50);
+    }
+
+    public int getChatFilterShadowSamplePercent() {
+        return getChatControlDoubleNestedInt("advanced", "shadow-rules", "sample-percent", 25);
+    }
+
+    public int getChatFilterShadowQueueSize() {
+        return getChatControlDoubleNestedInt("advanced", "shadow-rules", "queue-size", 1000);
+    }
+
+    public boolean isChatFilterNormalizationEnabled() {
+        return getChatControlNestedBoolean("advanced", "normalization", "enabled", false);
+    }
+
+    public boolean isChatFilterNormalizationLeetspeakEnabled() {
+        return getChatControlNestedBoolean("advanced", "normalization", "leetspeak", true);
+    }
+
+    public boolean isChatFilterNormalizationConfusablesEnabled() {
+        return getChatControlNestedBoolean("advanced", "normalization", "confusables", true);
+    }
+
+    public boolean isChatFilterNormalizationStripInvisibleEnabled() {
+        return getChatControlNestedBoolean("advanced", "normalization", "strip-invisible", true);
+    }
+
+    public int getChatFilterNormalizationMaxRepeat() {
+        return getChatControlDoubleNestedInt("advanced", "normalization", "max-repeat", 2);
+    }
+
     public boolean isChatControlDebugEnabled() {
         return getChatControlNestedBoolean("advanced", "debug", false);
     }
@@ -1552,6 +2015,18 @@ public class ConfigManager {
         return getChatControlDoubleNestedString("commands", "clearchat", "completion-message", "&aChat has been cleared by &7{player}&a.");
     }
 
+    public String getClearChatServerCompletionMessage() {
+        return getChatControlDoubleNestedString("commands", "clearchat", "server-completion-message", "&aChat on &7{server} &ahas been cleared by &7{player}&a.");
+    }
+
+    public String getClearChatUnknownServerMessage() {
+        return getChatControlDoubleNestedString("commands", "clearchat", "unknown-server-message", "&cUnknown server: {server}");
+    }
+
+    public int getClearChatBatchSize() {
+        return getChatControlDoubleNestedInt("commands", "clearchat", "batch-size", 250);
+    }
+
     // Lock Chat Configuration
     public boolean isLockChatEnabled() {
         return getChatControlNestedBoolean("commands", "lockchat", "enabled", true);
@@ -1587,6 +2062,153 @@ public class ConfigManager {
         return getChatControlDoubleNestedString("commands", "lockchat", "blocked-message", "&cYou cannot send messages while chat is locked.");
     }
 
+    // Spam Detection Configuration
+    public String getChatSpamBypassPermission() {
+        return getChatControlDoubleNestedString("permissions", "spam", "bypass", "bmsproxycore.chatcontrol.spam.bypass");
+    }
+
+    public String getChatSpamNotifyPermission() {
+        return getChatControlDoubleNestedString("permissions", "spam", "notify", "bmsproxycore.chatcontrol.spam.notify");
+    }
+
+    public String getChatSlowmodeNotifyPermission() {
+        return getChatControlDoubleNestedString("permissions", "slowmode", "notify", "bmsproxycore.chatcontrol.slowmode.notify");
+    }
+
+    public String getChatFloodGuardNotifyPermission() {
+        return getChatControlDoubleNestedString("permissions", "floodguard", "notify", "bmsproxycore.chatcontrol.floodguard.notify");
+    }
+
+    public int getChatSpamWindowSize() {
+        return getChatControlNestedInt("spam", "window-size", 5);
+    }
+
+    public int getChatSpamWindowSeconds() {
+        return getChatControlNestedInt("spam", "window-seconds", 30);
+    }
+
+    public int getChatSpamSimilarityPercent() {
+        return getChatControlNestedInt("spam", "similarity-percent", 90);
+    }
+
+    public int getChatSpamMaxRepeats() {
+        return getChatControlNestedInt("spam", "max-repeats", 2);
+    }
+
+    public int getChatSpamMinLength() {
+        return getChatControlNestedInt("spam", "min-length", 4);
+    }
+
+    public String getChatSpamAction() {
+        return getChatControlNestedString("spam", "action", "block");
+    }
+
+    public String getChatSpamBlockedMessage() {
+        return getChatControlNestedString("spam", "blocked-message", "&cPlease don't repeat the same message.");
+    }
+
+    public String getChatSpamNotifyMessage() {
+        return getChatControlNestedString("spam", "notify-message", "&e[Spam] &7{player} is repeating: &f{message}");
+    }
+
+    public boolean isChatSpamLogEnabled() {
+        return getChatControlNestedBoolean("spam", "log", true);
+    }
+
+    // Async Evaluation Configuration
+    public boolean isChatAsyncEnabled() {
+        return getChatControlNestedBoolean("async", "enabled", true);
+    }
+
+    public int getChatAsyncThreads() {
+        return getChatControlNestedInt("async", "threads", 2);
+    }
+
+    public int getChatAsyncDeadlineMillis() {
+        return getChatControlNestedInt("async", "deadline-ms", 250);
+    }
+
+    public String getChatAsyncFailMode() {
+        return getChatControlNestedString("async", "fail-mode", "open");
+    }
+
+    public String getChatAsyncFailClosedMessage() {
+        return getChatControlNestedString("async", "fail-closed-message", "&cChat is busy right now, please try again.");
+    }
+
+    // Chat Heuristics Configuration
+    public String getChatHeuristicsBypassPermission() {
+        return getChatControlDoubleNestedString("permissions", "heuristics", "bypass", "bmsproxycore.chatcontrol.heuristics.bypass");
+    }
+
+    public String getChatHeuristicsNotifyPermission() {
+        return getChatControlDoubleNestedString("permissions", "heuristics", "notify", "bmsproxycore.chatcontrol.heuristics.notify");
+    }
+
+    public boolean isChatHeuristicEnabled(String heuristic) {
+        return getChatControlNestedBoolean("heuristics", heuristic, "enabled", true);
+    }
+
+    public String getChatHeuristicAction(String heuristic, String defaultAction) {
+        return getChatControlDoubleNestedString("heuristics", heuristic, "action", defaultAction);
+    }
+
+    public String getChatHeuristicReason(String heuristic, String defaultReason) {
+        return getChatControlDoubleNestedString("heuristics", heuristic, "reason", defaultReason);
+    }
+
+    public int getChatHeuristicsCapsMinLetters() {
+        return getChatControlDoubleNestedInt("heuristics", "caps", "min-letters", 8);
+    }
+
+    public int getChatHeuristicsCapsMaxPercent() {
+        return getChatControlDoubleNestedInt("heuristics", "caps", "max-percent", 70);
+    }
+
+    public int getChatHeuristicsRepeatsMaxRun() {
+        return getChatControlDoubleNestedInt("heuristics", "repeated-characters", "max-run", 4);
+    }
+
+    public int getChatHeuristicsScriptsMaxWords() {
+        return getChatControlDoubleNestedInt("heuristics", "mixed-scripts", "max-words", 0);
+    }
+
+    public int getChatHeuristicsScriptsMaxMarks() {
+        return getChatControlDoubleNestedInt("heuristics", "mixed-scripts", "max-combining-marks", 2);
+    }
+
+    public boolean isChatHeuristicsLinksBlockIps() {
+        return getChatControlNestedBoolean("heuristics", "links", "block-ips", true);
+    }
+
+    public String getChatHeuristicsLinksReplacement() {
+        return getChatControlDoubleNestedString("heuristics", "links", "replacement", "<link removed>");
+    }
+
+    public java.util.List<String> getChatHeuristicsLinksAllowedDomains() {
+        return getChatControlDoubleNestedStringList("heuristics", "links", "allowed-domains",
+                java.util.Arrays.asList("minecraftbangladesh.com", "youtube.com", "youtu.be"));
+    }
+
+    public java.util.List<String> getChatHeuristicsLinksTlds() {
+        return getChatControlDoubleNestedStringList("heuristics", "links", "tlds",
+                java.util.Arrays.asList("com", "net", "org", "gg", "io", "me", "co", "xyz", "tk", "ml", "ga", "cf", "gq",
+                        "ru", "de", "uk", "us", "eu", "in", "bd", "info", "biz", "club", "online", "site", "store", "shop",
+                        "tv", "ly", "be", "to", "cc", "pw", "top", "live", "app", "dev", "link", "su", "ws"));
+    }
+
+    public String getChatHeuristicsBlockedMessage() {
+        return getChatControlNestedString("heuristics", "blocked-message", "&cYour message was blocked: {reason}.");
+    }
+
+    public String getChatHeuristicsNotifyMessage() {
+        return getChatControlNestedString("heuristics", "notify-message", "&e[Heuristics] &7{player} ({checks}): &f{message}");
+    }
+
+    public boolean isChatHeuristicsLogEnabled() {
+        return getChatControlNestedBoolean("heuristics", "log", true);
+    }
+
     // Private Message Integration Configuration
     public boolean isPrivateMessageFilterEnabled() {
         return getChatControlNestedBoolean("privatemessages", "apply-filter", true);
@@ -1622,22 +2244,122 @@ public class ConfigManager {
 
 
     // Methods for dynamic configuration updates (used by commands)
-    public void addChatFilterRule(String rule) {
-        // This would need to be implemented to save to config file
-        // For now, it's a placeholder for the command functionality
+    // Filter rule edits only change the rules in memory; saveChatFilterRules writes them out,
+    // so callers can batch several edits into one write.
+    public synchronized void addChatFilterRule(String rule) {
+        List<String> rules = new ArrayList<>(getChatFilterRules());
+        if (!rules.contains(rule)) {
+            rules.add(rule);
+            chatFilterRules = Collections.unmodifiableList(rules);
+            chatFilterRulesDirty = true;
+        }
+    }
+
+    public synchronized void removeChatFilterRule(String rule) {
+        List<String> rules = new ArrayList<>(getChatFilterRules());
+        if (rules.remove(rule)) {
+            chatFilterRules = Collections.unmodifiableList(rules);
+            chatFilterRulesDirty = true;
+        }
     }
 
-    public void removeChatFilterRule(String rule) {
-        // This would need to be implemented to save to config file
-        // For now, it's a placeholder for the command functionality
+    /**
+     * Replace every filter rule
+     * @return true if the rules changed and need saving
+     */
+    public synchronized boolean setChatFilterRules(List<String> rules) {
+        if (rules.equals(getChatFilterRules())) {
+            return false;
+        }
+        chatFilterRules = Collections.unmodifiableList(new ArrayList<>(rules));
+        chatFilterRulesDirty = true;
+        return true;
+    }
+
+    public synchronized boolean hasUnsavedChatFilterRules() {
+        return chatFilterRulesDirty;
+    }
+
+    /**
+     * Set the chat cooldown duration and save it to chatcontrol.yml. Only the duration
+     * line of the cooldown section is rewritten, so comments are kept.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void setChatCooldownDuration(int duration) {
+        Object cooldown = chatControlConfig.get("cooldown");
+        if (!(cooldown instanceof Map)) {
+            cooldown = new HashMap<String, Object>();
+            chatControlConfig.put("cooldown", cooldown);
+        }
+        ((Map<String, Object>) cooldown).put("duration", duration);
+
+        try {
+            List<String> lines = Files.readAllLines(chatControlConfigFile, StandardCharsets.UTF_8);
+            int index = findChatControlKeyLine(lines, "cooldown", "duration");
+            if (index >= 0) {
+                Matcher matcher = DURATION_LINE.matcher(lines.get(index));
+                if (matcher.matches()) {
+                    lines.set(index, matcher.group(1) + duration + matcher.group(2));
+                    writeAtomically(chatControlConfigFile, String.join(System.lineSeparator(), lines) + System.lineSeparator());
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
-    public void setChatCooldownDuration(int duration) {
-        // This would need to be implemented to save to config file
-        // For now, it's a placeholder for the command functionality
+    private static final Pattern DURATION_LINE = Pattern.compile("^(\\s+duration:\\s*)\\d+(.*)$");
+
+    /**
+     * Find the line of a key directly inside a top-level section of a YAML file
+     * @return The line index, or -1 if the key isn't there
+     */
+    private static int findChatControlKeyLine(List<String> lines, String section, String key) {
+        int start = lines.indexOf(section + ":");
+        if (start < 0) {
+            return -1;
+        }
+        String childIndent = null;
+        for (int i = start + 1; i < lines.size(); i++) {
+            String line = lines.get(i);
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            if (!Character.isWhitespace(line.charAt(0))) {
+                return -1; // Next top-level section
+            }
+            String indent = line.substring(0, line.length() - line.stripLeading().length());
+            if (childIndent == null) {
+                childIndent = indent;
+            }
+            if (indent.equals(childIndent) && trimmed.startsWith(key + ":")) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     // Helper method for cooldown component to check if there's a double nested boolean
+    @SuppressWarnings("unchecked")
+    private java.util.List<String> getChatControlDoubleNestedStringList(String section, String subsection, String path,
+                                                                        java.util.List<String> defaultValue) {
+        if (!isChatControlEnabled()) return defaultValue;
+        Map<String, Object> sectionMap = getChatControlSection(section);
+        Object subsectionObj = sectionMap.get(subsection);
+        if (!(subsectionObj instanceof Map)) return defaultValue;
+
+        Object value = ((Map<String, Object>) subsectionObj).get(path);
+        if (!(value instanceof java.util.List)) return defaultValue;
+        java.util.List<String> result = new java.util.ArrayList<>();
+        for (Object entry : (java.util.List<Object>) value) {
+            if (entry != null) {
+                result.add(entry.toString());
+            }
+        }
+        return result;
+    }
+
     private boolean getChatControlNestedBoolean(String section, String subsection, String path, boolean defaultValue) {
         if (!isChatControlEnabled()) return defaultValue;
         Map<String, Object> sectionMap = getChatControlSection(section);
@@ -0,0 +1,404 @@
+package com.minecraftbangladesh.bmsproxycore.utils;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.velocitypowered.api.scheduler.ScheduledTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Shared store for per-player cooldowns and rate limit state. Each named table maps a
+ * player to one long value with an expiry time; expired entries read as absent and are
+ * evicted by a periodic sweep, so state never outlives its cooldown. Tables are
+ * open-addressed hash tables over primitive arrays, split into segments with their own locks.
+ */
+public class CooldownService {
+
+    // How often expired entries are swept
+    private static final long SWEEP_INTERVAL_SECONDS = 30;
+
+    // Monotonic clock origin shared by every table and caller
+    private static final long ORIGIN_NANOS = System.nanoTime();
+
+    private final BMSProxyCore plugin;
+    private final Map<String, Table> tables = new ConcurrentHashMap<>();
+    private ScheduledTask sweepTask;
+
+    public CooldownService(BMSProxyCore plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Get the current time on the clock used for expiry times. Always positive.
+     * @return Milliseconds on a monotonic clock
+     */
+    public static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - ORIGIN_NANOS) + 1;
+    }
+
+    /**
+     * Get a table, creating it if needed
+     * @param name The table name, e.g. "chat" or "lobby"
+     * @return The table
+     */
+    public Table getTable(String name) {
+        return tables.computeIfAbsent(name, Table::new);
+    }
+
+    /**
+     * Get every table
+     * @return The tables, in no particular order
+     */
+    public List<Table> getTables() {
+        return new ArrayList<>(tables.values());
+    }
+
+    /**
+     * Start sweeping expired entries on the proxy scheduler
+     */
+    public void start() {
+        if (sweepTask == null) {
+            sweepTask = plugin.getServer().getScheduler().buildTask(plugin, this::sweep)
+                    .delay(SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS)
+                    .repeat(SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS)
+                    .schedule();
+        }
+    }
+
+    /**
+     * Stop sweeping
+     */
+    public void shutdown() {
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
+    }
+
+    /**
+     * Remove expired entries from every table
+     * @return The number of entries removed
+     */
+    public int sweep() {
+        long now = now();
+        int removed = 0;
+        for (Table table : tables.values()) {
+            removed += table.sweep(now);
+        }
+        return removed;
+    }
+
+    /**
+     * A named map from player to a long value with an expiry time
+     */
+    public static final class Table {
+        private static final int SEGMENTS = 16;
+
+        private final String name;
+        private final Segment[] segments = new Segment[SEGMENTS];
+
+        private Table(String name) {
+            this.name = name;
+            for (int i = 0; i < SEGMENTS; i++) {
+                segments[i] = new Segment();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        private Segment segmentFor(long hash) {
+            return segments[(int) (hash >>> 60)];
+        }
+
+        /**
+         * Get a player's value
+         * @param playerId The player
+         * @return The value, or 0 if there is none or it expired
+         */
+        public long get(UUID playerId) {
+            long hash = hash(playerId);
+            return segmentFor(hash).get(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), hash, now());
+        }
+
+        /**
+         * Get when a player's value expires
+         * @param playerId The player
+         * @return The expiry time on the {@link CooldownService#now()} clock, or 0 if there is no value
+         */
+        public long getExpiry(UUID playerId) {
+            long hash = hash(playerId);
+            return segmentFor(hash).getExpiry(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), hash, now());
+        }
+
+        /**
+         * Set a player's value
+         * @param playerId The player
+         * @param value The value
+         * @param expiresAt When the value expires, on the {@link CooldownService#now()} clock
+         */
+        public void put(UUID playerId, long value, long expiresAt) {
+            long hash = hash(playerId);
+            segmentFor(hash).update(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), hash, now(),
+                    current -> value, updated -> expiresAt);
+        }
+
+        /**
+         * Atomically replace a player's value
+         * @param playerId The player
+         * @param update Computes the new value from the current one (0 if absent or expired)
+         * @param expiry Computes the expiry time of the new value
+         * @return The new value
+         */
+        public long update(UUID playerId, LongUnaryOperator update, LongUnaryOperator expiry) {
+            long hash = hash(playerId);
+            return segmentFor(hash).update(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), hash, now(),
+                    update, expiry);
+        }
+
+        /**
+         * Remove a player's value
+         * @param playerId The player
+         */
+        public void remove(UUID playerId) {
+            long hash = hash(playerId);
+            segmentFor(hash).remove(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), hash);
+        }
+
+        /**
+         * Remove every value
+         */
+        public void clear() {
+            for (Segment segment : segments) {
+                segment.clear();
+            }
+        }
+
+        int sweep(long now) {
+            int removed = 0;
+            for (Segment segment : segments) {
+                removed += segment.sweep(now);
+            }
+            return removed;
+        }
+
+        /**
+         * Get the number of stored entries, including expired ones not yet swept
+         * @return Number of entries
+         */
+        public int size() {
+            int size = 0;
+            for (Segment segment : segments) {
+                size += segment.size();
+            }
+            return size;
+        }
+
+        /**
+         * Get the approximate memory held by this table's arrays
+         * @return Size in bytes
+         */
+        public long getMemoryBytes() {
+            long bytes = 0;
+            for (Segment segment : segments) {
+                bytes += segment.memoryBytes();
+            }
+            return bytes;
+        }
+
+        private static long hash(UUID playerId) {
+            return hash(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+        }
+
+        private static long hash(long high, long low) {
+            long h = high ^ Long.rotateLeft(low, 32);
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+
+    /**
+     * Linear-probing hash table over parallel arrays. A slot is free when its expiry is 0.
+     */
+    private static final class Segment {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private long[] keyHigh = new long[INITIAL_CAPACITY];
+        private long[] keyLow = new long[INITIAL_CAPACITY];
+        private long[] values = new long[INITIAL_CAPACITY];
+        private long[] expiries = new long[INITIAL_CAPACITY];
+        private int size;
+
+        synchronized long get(long high, long low, long hash, long now) {
+            int slot = find(high, low, hash);
+            return slot < 0 || expiries[slot] <= now ? 0 : values[slot];
+        }
+
+        synchronized long getExpiry(long high, long low, long hash, long now) {
+            int slot = find(high, low, hash);
+            return slot < 0 || expiries[slot] <= now ? 0 : expiries[slot];
+        }
+
+        synchronized long update(long high, long low, long hash, long now, LongUnaryOperator update, LongUnaryOperator expiry) {
+            int slot = find(high, low, hash);
+            long current = slot < 0 || expiries[slot] <= now ? 0 : values[slot];
+            long value = update.applyAsLong(current);
+            long expiresAt = expiry.applyAsLong(value);
+
+            if (expiresAt <= now) {
+                // Already expired: nothing worth keeping
+                if (slot >= 0) {
+                    delete(slot);
+                }
+                return value;
+            }
+            if (slot < 0) {
+                if ((size + 1) * 4 > keyHigh.length * 3) {
+                    resize(keyHigh.length * 2);
+                }
+                slot = (int) hash & (keyHigh.length - 1);
+                while (expiries[slot] != 0) {
+                    slot = (slot + 1) & (keyHigh.length - 1);
+                }
+                keyHigh[slot] = high;
+                keyLow[slot] = low;
+                size++;
+            }
+            values[slot] = value;
+            expiries[slot] = expiresAt;
+            return value;
+        }
+
+        synchronized void remove(long high, long low, long hash) {
+            int slot = find(high, low, hash);
+            if (slot >= 0) {
+                delete(slot);
+            }
+        }
+
+        synchronized void clear() {
+            keyHigh = new long[INITIAL_CAPACITY];
+            keyLow = new long[INITIAL_CAPACITY];
+            values = new long[INITIAL_CAPACITY];
+            expiries = new long[INITIAL_CAPACITY];
+            size = 0;
+        }
+
+        synchronized int sweep(long now) {
+            int before = size;
+            long[] oldHigh = keyHigh;
+            long[] oldLow = keyLow;
+            long[] oldValues = values;
+            long[] oldExpiries = expiries;
+
+            int live = 0;
+            for (long expiresAt : oldExpiries) {
+                if (expiresAt > now) {
+                    live++;
+                }
+            }
+            if (live == before) {
+                return 0;
+            }
+
+            // Rebuild rather than delete in place; this also shrinks tables after a busy period
+            int capacity = INITIAL_CAPACITY;
+            while (live * 4 > capacity * 3) {
+                capacity *= 2;
+            }
+            keyHigh = new long[capacity];
+            keyLow = new long[capacity];
+            values = new long[capacity];
+            expiries = new long[capacity];
+            size = 0;
+            for (int i = 0; i < oldExpiries.length; i++) {
+                if (oldExpiries[i] > now) {
+                    insert(oldHigh[i], oldLow[i], oldValues[i], oldExpiries[i]);
+                }
+            }
+            return before - size;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized long memoryBytes() {
+            // Four long arrays, each with a 16 byte header
+            return 4L * (16 + 8L * keyHigh.length);
+        }
+
+        private int find(long high, long low, long hash) {
+            int mask = keyHigh.length - 1;
+            int slot = (int) hash & mask;
+            while (expiries[slot] != 0) {
+                if (keyHigh[slot] == high && keyLow[slot] == low) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Free a slot and shift later entries of the probe run back, so lookups never stop early
+         */
+        private void delete(int slot) {
+            int mask = keyHigh.length - 1;
+            int gap = slot;
+            int next = (gap + 1) & mask;
+            while (expiries[next] != 0) {
+                int home = (int) Table.hash(keyHigh[next], keyLow[next]) & mask;
+                // Move the entry into the gap if its home slot isn't between the gap and its position
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keyHigh[gap] = keyHigh[next];
+                    keyLow[gap] = keyLow[next];
+                    values[gap] = values[next];
+                    expiries[gap] = expiries[next];
+                    gap = next;
+                }
+                next = (next + 1) & mask;
+            }
+            expiries[gap] = 0;
+            size--;
+        }
+
+        private void resize(int capacity) {
+            long[] oldHigh = keyHigh;
+            long[] oldLow = keyLow;
+            long[] oldValues = values;
+            long[] oldExpiries = expiries;
+            keyHigh = new long[capacity];
+            keyLow = new long[capacity];
+            values = new long[capacity];
+            expiries = new long[capacity];
+            size = 0;
+            for (int i = 0; i < oldExpiries.length; i++) {
+                if (oldExpiries[i] != 0) {
+                    insert(oldHigh[i], oldLow[i], oldValues[i], oldExpiries[i]);
+                }
+            }
+        }
+
+        private void insert(long high, long low, long value, long expiresAt) {
+            int mask = keyHigh.length - 1;
+            int slot = (int) Table.hash(high, low) & mask;
+            while (expiries[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keyHigh[slot] = high;
+            keyLow[slot] = low;
+            values[slot] = value;
+            expiries[slot] = expiresAt;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.minecraftbangladesh.bmsproxycore.utils;
+
+import com.minecraftbangladesh.bmsproxycore.BMSProxyCore;
+import com.velocitypowered.api.proxy.Player;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-player snapshot of the permission nodes the plugin checks while handling chat.
+ * All known nodes are resolved in one pass and kept as a bitset, so the chat path does
+ * bit lookups instead of asking the permission plugin, which may walk group inheritance
+ * on every call. Snapshots are refreshed after a short TTL and whenever the config is
+ * reloaded; nodes the cache doesn't know are always checked live.
+ */
+public class PermissionCache {
+
+    private final BMSProxyCore plugin;
+    private final Map<UUID, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private volatile NodeIndex nodes;
+
+    public PermissionCache(BMSProxyCore plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Check if a player has a permission, using their snapshot when the node is known
+     * @param player The player
+     * @param permission The permission node
+     * @return true if the player has the permission
+     */
+    public boolean hasPermission(Player player, String permission) {
+        if (!plugin.getConfigManager().isPermissionCacheEnabled()) {
+            return player.hasPermission(permission);
+        }
+
+        NodeIndex index = currentNodes();
+        Integer bit = index.bits.get(permission);
+        if (bit == null) {
+            return player.hasPermission(permission);
+        }
+
+        long now = System.nanoTime();
+        Snapshot snapshot = snapshots.get(player.getUniqueId());
+        if (snapshot == null || snapshot.nodes != index || now - snapshot.resolvedAt > ttlNanos()) {
+            snapshot = resolve(player, index, now);
+        }
+        return (snapshot.granted[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Resolve a player's snapshot ahead of their first message
+     * @param player The player
+     */
+    public void warm(Player player) {
+        if (plugin.getConfigManager().isPermissionCacheEnabled()) {
+            resolve(player, currentNodes(), System.nanoTime());
+        }
+    }
+
+    private Snapshot resolve(Player player, NodeIndex index, long now) {
+        long[] granted = new long[(index.permissions.length + 63) >>> 6];
+        for (int bit = 0; bit < index.permissions.length; bit++) {
+            if (player.hasPermission(index.permissions[bit])) {
+                granted[bit >>> 6] |= 1L << bit;
+            }
+        }
+        Snapshot snapshot = new Snapshot(index, granted, now);
+        if (player.isActive()) {
+            snapshots.put(player.getUniqueId(), snapshot);
+        }
+        return snapshot;
+    }
+
+    private long ttlNanos() {
+        return TimeUnit.SECONDS.toNanos(Math.max(0, plugin.getConfigManager().getPermissionCacheTtlSeconds()));
+    }
+
+    /**
+     * Get the known nodes, collecting them again if the config was reloaded
+     */
+    private NodeIndex currentNodes() {
+        int generation = plugin.getConfigManager().getLoadGeneration();
+        NodeIndex index = nodes;
+        if (index == null || index.generation != generation) {
+            index = new NodeIndex(generation, collectNodes());
+            nodes = index;
+        }
+        return index;
+    }
+
+    /**
+     * Collect every permission node checked while handling chat and private messages
+     */
+    private Set<String> collectNodes() {
+        ConfigManager config = plugin.getConfigManager();
+        Set<String> permissions = new LinkedHashSet<>();
+        permissions.add(config.getStaffChatUsePermission());
+        permissions.add(config.getStaffChatActivityPermission());
+        permissions.add(config.getLockChatBypassPermission());
+        permissions.add(config.getChatCooldownBypassPermission());
+        permissions.add(config.getChatFilterBypassPermission());
+        permissions.add(config.getChatFilterBypassPrivateMessagesPermission());
+        permissions.add(config.getChatSpamBypassPermission());
+        permissions.add(config.getChatSpamNotifyPermission());
+        permissions.add(config.getChatHeuristicsBypassPermission());
+        permissions.add(config.getChatHeuristicsNotifyPermission());
+        permissions.add(config.getChatSlowmodeNotifyPermission());
+        permissions.add(config.getChatFloodGuardNotifyPermission());
+        permissions.add("bmsproxycore.socialspy.view");
+        if (config.isChatCooldownPermissionBasedEnabled()) {
+            permissions.addAll(config.getChatCooldownPermissionDurations().keySet());
+        }
+        permissions.remove("");
+        return permissions;
+    }
+
+    /**
+     * Drop a player's snapshot so the next check resolves it again
+     * @param playerId The player
+     */
+    public void invalidate(UUID playerId) {
+        snapshots.remove(playerId);
+    }
+
+    /**
+     * Drop every snapshot
+     */
+    public void invalidateAll() {
+        snapshots.clear();
+    }
+
+    /**
+     * Get the number of players with a snapshot
+     * @return Number of cached players
+     */
+    public int getCachedPlayerCount() {
+        return snapshots.size();
+    }
+
+    /**
+     * Get the number of permission nodes held in each snapshot
+     * @return Number of known nodes
+     */
+    public int getNodeCount() {
+        return currentNodes().permissions.length;
+    }
+
+    /**
+     * Known permission nodes and their bit in a snapshot
+     */
+    private static final class NodeIndex {
+        final int generation;
+        final String[] permissions;
+        final Map<String, Integer> bits = new HashMap<>();
+
+        NodeIndex(int generation, Set<String> nodes) {
+            this.generation = generation;
+            this.permissions = nodes.toArray(new String[0]);
+            for (int i = 0; i < permissions.length; i++) {
+                bits.put(permissions[i], i);
+            }
+        }
+    }
+
+    /**
+     * One player's resolved permissions; replaced as a whole, never modified
+     */
+    private static final class Snapshot {
+        final NodeIndex nodes;
+        final long[] granted;
+        final long resolvedAt;
+
+        Snapshot(NodeIndex nodes, long[] granted, long resolvedAt) {
+            this.nodes = nodes;
+            this.granted = granted;
+            this.resolvedAt = resolvedAt;
+        }
+    }
+}